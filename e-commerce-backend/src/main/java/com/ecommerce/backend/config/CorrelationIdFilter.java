@@ -0,0 +1,65 @@
+package com.ecommerce.backend.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.MDC;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import java.io.IOException;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Pattern;
+
+/**
+ * Tags every log line written while handling a request with a correlation id, taken from the
+ * caller's {@code X-Request-Id} header when it looks sane and generated otherwise, and echoes it
+ * back in the response. Runs first so that the security filters' output is tagged too, and again
+ * on async dispatches, which run on a different thread.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class CorrelationIdFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "X-Request-Id";
+
+    public static final String MDC_KEY = "correlationId";
+
+    private static final String ATTRIBUTE = CorrelationIdFilter.class.getName() + ".id";
+
+    private static final Pattern VALID_ID = Pattern.compile("[A-Za-z0-9._-]{1,64}");
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String correlationId = (String) request.getAttribute(ATTRIBUTE);
+        if (correlationId == null) {
+            String supplied = request.getHeader(HEADER);
+            correlationId = supplied != null && VALID_ID.matcher(supplied).matches()
+                    ? supplied : newId();
+            request.setAttribute(ATTRIBUTE, correlationId);
+            response.setHeader(HEADER, correlationId);
+        }
+
+        MDC.put(MDC_KEY, correlationId);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            MDC.remove(MDC_KEY);
+        }
+    }
+
+    private static String newId() {
+        // Not UUID.randomUUID(): ids only need to be unique, and SecureRandom is shared by every request
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return new UUID(random.nextLong(), random.nextLong()).toString();
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+}
@@ -4,6 +4,8 @@ import com.ecommerce.backend.entity.Product;
 import com.ecommerce.backend.entity.PromoCode;
 import com.ecommerce.backend.service.ProductService;
 import com.ecommerce.backend.service.PromoCodeService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.stereotype.Component;
@@ -12,6 +14,8 @@ import java.time.LocalDateTime;
 @Component
 public class DataSeeder implements CommandLineRunner {
 
+    private static final Logger logger = LoggerFactory.getLogger(DataSeeder.class);
+
     @Autowired
     private ProductService productService;
 
@@ -24,9 +28,9 @@ public class DataSeeder implements CommandLineRunner {
             Thread.sleep(2000); // Wait for database to be ready
             // seedProducts(); // Disabled - products will be added manually
             seedPromoCodes(); // Keep promo codes for testing
-            System.out.println("DataSeeder: Promo codes added. Products can be added via Add Product page.");
+            logger.info("DataSeeder: Promo codes added. Products can be added via Add Product page.");
         } catch (Exception e) {
-            System.err.println("Error during data seeding: " + e.getMessage());
+            logger.error("Error during data seeding: {}", e.getMessage());
         }
     }
 
@@ -116,7 +120,7 @@ public class DataSeeder implements CommandLineRunner {
                 productService.saveProduct(p8);
             }
         } catch (Exception e) {
-            System.err.println("Error seeding products: " + e.getMessage());
+            logger.error("Error seeding products: {}", e.getMessage());
         }
     }
 
@@ -156,9 +160,9 @@ public class DataSeeder implements CommandLineRunner {
                 promoCodeService.savePromoCode(pc3);
             }
             
-            System.out.println("Promo codes seeding completed successfully");
+            logger.info("Promo codes seeding completed successfully");
         } catch (Exception e) {
-            System.err.println("Error seeding promo codes: " + e.getMessage());
+            logger.error("Error seeding promo codes: {}", e.getMessage());
         }
     }
 
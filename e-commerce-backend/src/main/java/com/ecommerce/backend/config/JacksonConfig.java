@@ -1,11 +1,18 @@
 package com.ecommerce.backend.config;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
 import com.fasterxml.jackson.datatype.hibernate5.jakarta.Hibernate5JakartaModule;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
 
 @Configuration
 public class JacksonConfig {
@@ -13,8 +20,22 @@ public class JacksonConfig {
     @Bean
     @Primary
     public ObjectMapper objectMapper() {
-        ObjectMapper mapper = new ObjectMapper();
-        
+        return configure(new ObjectMapper());
+    }
+
+    // Binary encodings of the same DTOs, chosen by Accept: application/x-jackson-smile or application/cbor.
+    // These replace Spring's default Smile/CBOR converters, whose mappers lack the modules and filters below.
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter() {
+        return new MappingJackson2SmileHttpMessageConverter(configure(new SmileMapper()));
+    }
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter() {
+        return new MappingJackson2CborHttpMessageConverter(configure(new CBORMapper()));
+    }
+
+    private static ObjectMapper configure(ObjectMapper mapper) {
         // Hibernate module for proxy handling
         Hibernate5JakartaModule hibernateModule = new Hibernate5JakartaModule();
         hibernateModule.configure(Hibernate5JakartaModule.Feature.FORCE_LAZY_LOADING, false);
@@ -23,7 +44,14 @@ public class JacksonConfig {
         
         // Java Time module for LocalDateTime
         mapper.registerModule(new JavaTimeModule());
+
+        // Generated accessors instead of reflection for the read-side DTOs
+        mapper.registerModule(new BlackbirdModule());
+
+        // DTOs carry the sparse-fieldset filter; without a fields parameter it keeps everything
+        mapper.setFilterProvider(new SimpleFilterProvider()
+                .setDefaultFilter(SimpleBeanPropertyFilter.serializeAll()));
         
         return mapper;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,86 @@
+package com.ecommerce.backend.config;
+
+import com.ecommerce.backend.service.CatalogPageCache;
+import com.ecommerce.backend.service.CatalogPriceSnapshot;
+import com.ecommerce.backend.service.FileStorageService;
+import com.ecommerce.backend.service.ImageDerivativeService;
+import com.ecommerce.backend.service.ProductReadCache;
+import com.ecommerce.backend.util.FileHandleCache;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Hit and miss counts of the in-process caches, published as {@code cache.gets} like Micrometer's
+ * own cache binders. The caches count with LongAdders, and these meters only read the sums when
+ * the registry is scraped, so the hot paths pay an uncontended increment and nothing else.
+ *
+ * Request latency ({@code http.server.requests}), repository timing
+ * ({@code spring.data.repository.invocations}), the Hikari pool and JVM allocation
+ * ({@code jvm.gc.memory.allocated}) come from Spring Boot's auto-configured binders.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public MeterBinder cacheMetrics(FileStorageService fileStorageService,
+                                    ImageDerivativeService imageDerivativeService,
+                                    CatalogPriceSnapshot catalogPriceSnapshot,
+                                    CatalogPageCache catalogPageCache,
+                                    ProductReadCache productReadCache) {
+        return registry -> {
+            FileHandleCache openFiles = fileStorageService.getOpenFileCache();
+            cacheGets(registry, "upload-file-handles", openFiles, FileHandleCache::getHits, FileHandleCache::getMisses);
+            Gauge.builder("cache.size", openFiles, FileHandleCache::size)
+                    .tag("cache", "upload-file-handles")
+                    .register(registry);
+
+            cacheGets(registry, "image-variants", imageDerivativeService,
+                    ImageDerivativeService::getVariantHits, ImageDerivativeService::getVariantMisses);
+            Gauge.builder("app.images.pending", imageDerivativeService, ImageDerivativeService::getPendingCount)
+                    .description("Images waiting for or undergoing derivative generation")
+                    .register(registry);
+
+            cacheGets(registry, "catalog-prices", catalogPriceSnapshot,
+                    CatalogPriceSnapshot::getLookupHits, CatalogPriceSnapshot::getLookupMisses);
+            Gauge.builder("cache.size", catalogPriceSnapshot, snapshot -> snapshot.current().size())
+                    .tag("cache", "catalog-prices")
+                    .register(registry);
+
+            cacheGets(registry, "catalog-pages", catalogPageCache, CatalogPageCache::getHits, CatalogPageCache::getMisses);
+            Gauge.builder("cache.size", catalogPageCache, CatalogPageCache::size)
+                    .tag("cache", "catalog-pages")
+                    .register(registry);
+
+            cacheGets(registry, "product-reads", productReadCache, ProductReadCache::getHits, ProductReadCache::getMisses);
+            Gauge.builder("cache.size", productReadCache, ProductReadCache::size)
+                    .tag("cache", "product-reads")
+                    .register(registry);
+            FunctionCounter.builder("app.product-reads.stale", productReadCache, ProductReadCache::getStaleHits)
+                    .description("Reads answered from an expired entry while it was reloaded in the background")
+                    .register(registry);
+            FunctionCounter.builder("app.product-reads.loads", productReadCache, ProductReadCache::getLoads)
+                    .description("Product read loads that reached the database")
+                    .register(registry);
+            FunctionCounter.builder("app.product-reads.coalesced", productReadCache, ProductReadCache::getCoalesced)
+                    .description("Product reads that waited on an identical in-flight load instead of running their own")
+                    .register(registry);
+        };
+    }
+
+    private static <T> void cacheGets(MeterRegistry registry, String cache, T source,
+                                      ToDoubleFunction<T> hits, ToDoubleFunction<T> misses) {
+        FunctionCounter.builder("cache.gets", source, hits)
+                .tag("cache", cache)
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("cache.gets", source, misses)
+                .tag("cache", cache)
+                .tag("result", "miss")
+                .register(registry);
+    }
+}
@@ -0,0 +1,67 @@
+package com.ecommerce.backend.config;
+
+import com.ecommerce.backend.util.QueryCounter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Opens a {@link QueryCounter} scope for each request and reports requests that go over the
+ * statement budget, along with the statement they repeated most. Requests that repeat one
+ * statement past the repeat threshold are reported as likely N+1s even when under budget.
+ * Tests pin exact counts by opening their own scope around the call instead.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class QueryBudgetFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(QueryBudgetFilter.class);
+
+    @Value("${app.query-budget.mode:log}")
+    private String mode;
+
+    @Value("${app.query-budget.max-statements:50}")
+    private int maxStatements;
+
+    @Value("${app.query-budget.repeat-threshold:10}")
+    private int repeatThreshold;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return "off".equals(mode);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        QueryCounter.Scope scope = QueryCounter.start(maxStatements);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            scope.close();
+            report(request, scope);
+        }
+    }
+
+    private void report(HttpServletRequest request, QueryCounter.Scope scope) {
+        Map.Entry<String, Integer> mostRepeated = scope.mostRepeated();
+        if (scope.isOverBudget()) {
+            logger.warn("{} {} ran {} SQL statements, over the budget of {}; most repeated ({}x): {}",
+                    request.getMethod(), request.getRequestURI(), scope.getCount(), scope.getBudget(),
+                    mostRepeated.getValue(), mostRepeated.getKey());
+        } else if (mostRepeated != null && mostRepeated.getValue() >= repeatThreshold) {
+            logger.warn("{} {} ran the same SQL statement {} times, likely an N+1: {}",
+                    request.getMethod(), request.getRequestURI(), mostRepeated.getValue(), mostRepeated.getKey());
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.ecommerce.backend.config;
+
+import com.ecommerce.backend.exception.QueryBudgetExceededException;
+import com.ecommerce.backend.util.QueryCounter;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.stereotype.Component;
+import java.util.Map;
+
+/**
+ * Sees every statement Hibernate prepares and counts it against the current thread's
+ * {@link QueryCounter} scope. In fail mode the statement that goes over the request's budget is
+ * refused, so an N+1 regression fails loudly instead of just getting slower.
+ *
+ * Statements issued directly through JdbcTemplate do not pass through Hibernate and are not
+ * counted.
+ */
+@Component
+public class QueryBudgetInspector implements StatementInspector, HibernatePropertiesCustomizer {
+
+    @Value("${app.query-budget.mode:log}")
+    private String mode;
+
+    @Override
+    public void customize(Map<String, Object> hibernateProperties) {
+        hibernateProperties.put(AvailableSettings.STATEMENT_INSPECTOR, this);
+    }
+
+    @Override
+    public String inspect(String sql) {
+        QueryCounter.Scope scope = QueryCounter.current();
+        if (scope != null) {
+            int count = scope.record(sql);
+            if ("fail".equals(mode) && scope.getBudget() > 0 && count > scope.getBudget()) {
+                throw new QueryBudgetExceededException("Request exceeded its budget of " + scope.getBudget()
+                        + " SQL statements");
+            }
+        }
+        return sql;
+    }
+}
@@ -1,19 +1,39 @@
 package com.ecommerce.backend.controller;
 
+import com.ecommerce.backend.dto.ProductView;
 import com.ecommerce.backend.entity.Product;
 import com.ecommerce.backend.entity.User;
 import com.ecommerce.backend.entity.Order;
 import com.ecommerce.backend.entity.Role;
+import com.ecommerce.backend.entity.SalesRollup;
 import com.ecommerce.backend.service.ProductService;
 import com.ecommerce.backend.service.UserService;
+import com.ecommerce.backend.service.InventoryService;
 import com.ecommerce.backend.service.OrderService;
+import com.ecommerce.backend.service.DashboardMetricsService;
+import com.ecommerce.backend.service.OrderExportService;
+import com.ecommerce.backend.service.ProductImportService;
+import com.ecommerce.backend.service.SalesAnalyticsService;
+import com.ecommerce.backend.service.SalesRollupBackfillService;
+import com.ecommerce.backend.service.UploadMigrationService;
+import com.ecommerce.backend.service.PromoCodeRedemptionService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import jakarta.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -33,12 +53,34 @@ public class AdminController {
     @Autowired
     private OrderService orderService;
 
+    @Autowired
+    private PromoCodeRedemptionService promoCodeRedemptionService;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private OrderExportService orderExportService;
+
+    @Autowired
+    private ProductImportService productImportService;
+
+    @Autowired
+    private DashboardMetricsService dashboardMetricsService;
+
+    @Autowired
+    private SalesAnalyticsService salesAnalyticsService;
+
+    @Autowired
+    private SalesRollupBackfillService salesRollupBackfillService;
+
+    @Autowired
+    private UploadMigrationService uploadMigrationService;
+
     @GetMapping("/dashboard")
     public ResponseEntity<?> getDashboard() {
-        Map<String, Object> dashboard = new HashMap<>();
-        dashboard.put("totalUsers", userService.getTotalUsers());
-        dashboard.put("totalProducts", productService.getTotalProducts());
-        dashboard.put("totalOrders", orderService.getTotalOrders());
+        // Totals come from in-memory counters; only the recent orders touch the database, via the order_date index
+        Map<String, Object> dashboard = new HashMap<>(dashboardMetricsService.getMetrics());
         dashboard.put("recentOrders", orderService.getRecentOrders(5));
         return ResponseEntity.ok(dashboard);
     }
@@ -65,7 +107,7 @@ public class AdminController {
     @GetMapping("/products")
     public ResponseEntity<?> getAllProducts(@RequestParam(defaultValue = "0") int page,
                                           @RequestParam(defaultValue = "10") int size) {
-        Page<Product> products = productService.getAllProducts(PageRequest.of(page, size));
+        Page<ProductView> products = productService.getAllProducts(PageRequest.of(page, size)).map(ProductView::from);
         return ResponseEntity.ok(products);
     }
 
@@ -75,6 +117,19 @@ public class AdminController {
         return ResponseEntity.ok(savedProduct);
     }
 
+    @PostMapping(value = "/products/import", consumes = {"text/csv", "application/json", "application/x-ndjson"})
+    public ResponseEntity<?> importProducts(HttpServletRequest request) {
+        // Read the body as a stream rather than as a multipart file so large catalogs are never buffered
+        ProductImportService.Format format = request.getContentType().startsWith("text/csv")
+                ? ProductImportService.Format.CSV
+                : ProductImportService.Format.JSON;
+        try {
+            return ResponseEntity.ok(productImportService.importProducts(request.getInputStream(), format));
+        } catch (IOException | RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
     @PutMapping("/products/{id}")
     public ResponseEntity<?> updateProduct(@PathVariable Long id, @RequestBody Product product) {
         Product updatedProduct = productService.updateProduct(id, product);
@@ -94,9 +149,157 @@ public class AdminController {
         return ResponseEntity.ok(orders);
     }
 
+    @GetMapping(value = "/orders/stream", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> streamAllOrders() {
+        StreamingResponseBody body = outputStream -> orderService.streamAllOrders(outputStream);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(body);
+    }
+
+    @PostMapping("/exports/orders")
+    public ResponseEntity<?> startOrderExport(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "csv") String format) {
+        try {
+            return ResponseEntity.accepted().body(orderExportService.startExport(from, to, format));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/exports")
+    public ResponseEntity<?> getExports() {
+        return ResponseEntity.ok(orderExportService.getJobs());
+    }
+
+    @GetMapping("/exports/{id}")
+    public ResponseEntity<?> getExportProgress(@PathVariable Long id) {
+        return ResponseEntity.ok(orderExportService.getProgress(id));
+    }
+
+    @PostMapping("/exports/{id}/resume")
+    public ResponseEntity<?> resumeExport(@PathVariable Long id) {
+        try {
+            return ResponseEntity.accepted().body(orderExportService.resumeExport(id));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/exports/{id}/download")
+    public ResponseEntity<?> downloadExport(@PathVariable Long id) {
+        Path file = orderExportService.getExportFile(id).orElse(null);
+        if (file == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + file.getFileName() + "\"")
+                .contentType(MediaType.parseMediaType("application/gzip"))
+                .body(new FileSystemResource(file));
+    }
+
     @PutMapping("/orders/{id}/status")
     public ResponseEntity<?> updateOrderStatus(@PathVariable Long id, @RequestParam String status) {
         Order order = orderService.updateOrderStatus(id, status);
         return ResponseEntity.ok(order);
     }
+
+    @GetMapping("/analytics/sales")
+    public ResponseEntity<?> getSalesSeries(
+            @RequestParam(defaultValue = "DAY") String granularity,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        try {
+            SalesRollup.Granularity bucket = SalesRollup.Granularity.valueOf(granularity.toUpperCase());
+            return ResponseEntity.ok(salesAnalyticsService.getSalesSeries(bucket, from, to));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Granularity must be HOUR or DAY"));
+        }
+    }
+
+    @GetMapping("/analytics/sales/categories")
+    public ResponseEntity<?> getSalesByCategory(
+            @RequestParam(defaultValue = "DAY") String granularity,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        try {
+            SalesRollup.Granularity bucket = SalesRollup.Granularity.valueOf(granularity.toUpperCase());
+            return ResponseEntity.ok(salesAnalyticsService.getSalesByCategory(bucket, from, to));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Granularity must be HOUR or DAY"));
+        }
+    }
+
+    @GetMapping("/analytics/sales/products")
+    public ResponseEntity<?> getTopProducts(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "20") int limit) {
+        int boundedLimit = Math.max(1, Math.min(limit, 100));
+        return ResponseEntity.ok(salesAnalyticsService.getTopProducts(from, to, boundedLimit));
+    }
+
+    @PostMapping("/analytics/backfill")
+    public ResponseEntity<?> startSalesBackfill(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        try {
+            return ResponseEntity.accepted().body(salesRollupBackfillService.startBackfill(from, to));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/analytics/backfill")
+    public ResponseEntity<?> getSalesBackfillProgress() {
+        return ResponseEntity.ok(salesRollupBackfillService.getProgress());
+    }
+
+    @PostMapping("/storage/migrate")
+    public ResponseEntity<?> startUploadMigration() {
+        try {
+            return ResponseEntity.accepted().body(uploadMigrationService.startMigration());
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/storage/migrate")
+    public ResponseEntity<?> getUploadMigrationProgress() {
+        return ResponseEntity.ok(uploadMigrationService.getProgress());
+    }
+
+    @GetMapping("/promo-codes/{code}/usage")
+    public ResponseEntity<?> getPromoCodeUsage(@PathVariable String code) {
+        Map<String, Object> usage = promoCodeRedemptionService.getUsage(code);
+        if (usage.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(usage);
+    }
+
+    @GetMapping("/inventory/{productId}")
+    public ResponseEntity<?> getStock(@PathVariable Long productId) {
+        return ResponseEntity.ok(inventoryService.getStock(productId));
+    }
+
+    @PutMapping("/inventory/{productId}")
+    public ResponseEntity<?> setStock(@PathVariable Long productId, @RequestParam long onHand) {
+        if (onHand < 0) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Stock cannot be negative"));
+        }
+        inventoryService.setStock(productId, onHand);
+        return ResponseEntity.ok(inventoryService.getStock(productId));
+    }
+
+    @PostMapping("/inventory/{productId}/restock")
+    public ResponseEntity<?> restock(@PathVariable Long productId, @RequestParam long quantity) {
+        if (quantity <= 0) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Restock quantity must be positive"));
+        }
+        inventoryService.restock(productId, quantity);
+        return ResponseEntity.ok(inventoryService.getStock(productId));
+    }
 }
\ No newline at end of file
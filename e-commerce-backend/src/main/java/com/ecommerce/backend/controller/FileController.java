@@ -1,50 +1,199 @@
 package com.ecommerce.backend.controller;
 
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
+import com.ecommerce.backend.service.CatalogVersions;
+import com.ecommerce.backend.service.FileStorageService;
+import com.ecommerce.backend.service.ImageDerivativeService;
+import com.ecommerce.backend.util.FileHandleCache;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
 
+/**
+ * Serves uploaded images. Stored names are unique and files are never rewritten, so the name is a
+ * strong ETag and responses may be cached forever. Bodies go out through Tomcat's sendfile when the
+ * connector offers it, and otherwise through {@link FileChannel#transferTo}; single byte ranges are
+ * honoured.
+ *
+ * A {@code size} parameter (thumbnail, card, detail or a pixel width) selects a downscaled variant.
+ * Until that variant has been generated the original is sent with a short max-age, so the browser
+ * asks again soon instead of caching the large file under the variant's URL.
+ */
 @RestController
 @RequestMapping("/uploads")
 @CrossOrigin(origins = "http://localhost:3000")
 public class FileController {
 
-    @Value("${file.upload-dir}")
-    private String uploadDir;
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private static final String IMMUTABLE = CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable().getHeaderValue();
+
+    private static final String PENDING_VARIANT = CacheControl.maxAge(Duration.ofMinutes(1)).cachePublic().getHeaderValue();
+
+    private static final Map<String, String> CONTENT_TYPES = Map.of(
+            "jpg", "image/jpeg",
+            "jpeg", "image/jpeg",
+            "png", "image/png",
+            "gif", "image/gif",
+            "webp", "image/webp",
+            "bmp", "image/bmp"
+    );
+
+    @Autowired
+    private FileStorageService fileStorageService;
+
+    @Autowired
+    private ImageDerivativeService imageDerivativeService;
 
     @GetMapping("/{filename:.+}")
-    public ResponseEntity<Resource> serveFile(@PathVariable String filename) {
-        try {
-            Path filePath = Paths.get(uploadDir).resolve(filename).normalize();
-            Resource resource = new UrlResource(filePath.toUri());
-
-            if (resource.exists() && resource.isReadable()) {
-                String contentType = "image/jpeg"; // Default
-                if (filename.toLowerCase().endsWith(".png")) {
-                    contentType = "image/png";
-                } else if (filename.toLowerCase().endsWith(".gif")) {
-                    contentType = "image/gif";
-                } else if (filename.toLowerCase().endsWith(".webp")) {
-                    contentType = "image/webp";
-                } else if (filename.toLowerCase().endsWith(".bmp")) {
-                    contentType = "image/bmp";
+    public void serveFile(@PathVariable String filename,
+                          @RequestParam(required = false) String size,
+                          HttpServletRequest request,
+                          HttpServletResponse response) throws IOException {
+        ImageDerivativeService.Variant variant = ImageDerivativeService.Variant.forSize(size);
+        if (variant == null) {
+            send(filename, IMMUTABLE, request, response);
+            return;
+        }
+        String derivative = imageDerivativeService.findDerivative(filename, variant);
+        if (derivative != null) {
+            send(derivative, IMMUTABLE, request, response);
+            return;
+        }
+        // Only an upload that exists may queue work, so arbitrary names cannot fill the derivative queue
+        Optional<FileHandleCache.Handle> opened = fileStorageService.openStoredFile(filename);
+        if (opened.isEmpty()) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        imageDerivativeService.schedule(filename);
+        send(opened.get(), filename, PENDING_VARIANT, request, response);
+    }
+
+    private void send(String filename, String cacheControl,
+                      HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Optional<FileHandleCache.Handle> opened = fileStorageService.openStoredFile(filename);
+        if (opened.isEmpty()) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        send(opened.get(), filename, cacheControl, request, response);
+    }
+
+    private void send(FileHandleCache.Handle opened, String filename, String cacheControl,
+                      HttpServletRequest request, HttpServletResponse response) throws IOException {
+        try (FileHandleCache.Handle handle = opened) {
+            String etag = "\"" + filename + "\"";
+            response.setHeader(HttpHeaders.ETAG, etag);
+            response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+            response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+            response.setContentType(contentType(filename));
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + filename + "\"");
+
+            if (CatalogVersions.matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+                response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+                return;
+            }
+
+            long length = handle.getSize();
+            long start = 0;
+            long end = length - 1;
+            String range = request.getHeader(HttpHeaders.RANGE);
+            String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+            // A stale If-Range means the client's partial copy is of other content; send it all
+            if (range != null && (ifRange == null || ifRange.equals(etag))) {
+                long[] bounds = parseRange(range, length);
+                if (bounds == null) {
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                    response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                    return;
                 }
+                if (bounds.length == 2) {
+                    start = bounds[0];
+                    end = bounds[1];
+                    response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+                }
+            }
 
-                return ResponseEntity.ok()
-                        .contentType(MediaType.parseMediaType(contentType))
-                        .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + resource.getFilename() + "\"")
-                        .body(resource);
+            long count = end - start + 1;
+            response.setContentLengthLong(count);
+            if ("HEAD".equals(request.getMethod()) || count <= 0) {
+                return;
+            }
+
+            if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+                // Tomcat sends the file from the kernel after this method returns; end is exclusive
+                request.setAttribute(SENDFILE_FILENAME, handle.getPath().toString());
+                request.setAttribute(SENDFILE_START, start);
+                request.setAttribute(SENDFILE_END, end + 1);
+                return;
+            }
+
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            FileChannel channel = handle.getChannel();
+            long position = start;
+            while (position <= end) {
+                position += channel.transferTo(position, end + 1 - position, out);
+            }
+        }
+    }
+
+    /**
+     * Parses a Range header against the file length. Returns {start, end} for one satisfiable
+     * range, an empty array when the header should be ignored (unsupported unit or several ranges,
+     * which may be answered with the full body), or null when the range cannot be satisfied.
+     */
+    private long[] parseRange(String header, long length) {
+        if (!header.startsWith("bytes=") || header.indexOf(',') >= 0) {
+            return new long[0];
+        }
+        String spec = header.substring(6).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return new long[0];
+        }
+        try {
+            String first = spec.substring(0, dash).trim();
+            String last = spec.substring(dash + 1).trim();
+            long start;
+            long end;
+            if (first.isEmpty()) {
+                long suffix = Long.parseLong(last);
+                if (suffix <= 0) {
+                    return null;
+                }
+                start = Math.max(0, length - suffix);
+                end = length - 1;
             } else {
-                return ResponseEntity.notFound().build();
+                start = Long.parseLong(first);
+                end = last.isEmpty() ? length - 1 : Math.min(Long.parseLong(last), length - 1);
+            }
+            if (start >= length || start > end) {
+                return null;
             }
-        } catch (Exception e) {
-            return ResponseEntity.notFound().build();
+            return new long[] { start, end };
+        } catch (NumberFormatException e) {
+            return new long[0];
         }
     }
-}
\ No newline at end of file
+
+    private String contentType(String filename) {
+        int dot = filename.lastIndexOf('.');
+        String extension = dot >= 0 ? filename.substring(dot + 1).toLowerCase(Locale.ROOT) : "";
+        return CONTENT_TYPES.getOrDefault(extension, "image/jpeg");
+    }
+}
@@ -3,9 +3,12 @@ package com.ecommerce.backend.controller;
 import com.ecommerce.backend.dto.OrderRequest;
 import com.ecommerce.backend.dto.OrderResponse;
 import com.ecommerce.backend.entity.Order;
+import com.ecommerce.backend.exception.InvalidStatusTransitionException;
 import com.ecommerce.backend.service.OrderService;
+import com.ecommerce.backend.util.SparseFields;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
@@ -22,24 +25,17 @@ public class OrderController {
     @Autowired
     private OrderService orderService;
 
+    private static final int MAX_ORDER_LIMIT = 500;
+
     @GetMapping
-    public ResponseEntity<List<OrderResponse>> getAllOrders() {
-        try {
-            List<Order> orders = orderService.getAllOrders();
-            System.out.println("=== ORDER API CALLED ===");
-            System.out.println("Found " + orders.size() + " orders in database");
-            
-            List<OrderResponse> orderResponses = orders.stream()
-                .map(OrderResponse::new)
-                .collect(java.util.stream.Collectors.toList());
-            
-            System.out.println("=== RETURNING " + orderResponses.size() + " ORDER RESPONSES ===");
-            return ResponseEntity.ok(orderResponses);
-        } catch (Exception e) {
-            System.err.println("Error fetching orders: " + e.getMessage());
-            e.printStackTrace();
-            return ResponseEntity.ok(List.of());
-        }
+    public ResponseEntity<?> getAllOrders(@RequestParam(defaultValue = "100") int limit,
+                                          @RequestParam(required = false) String fields) {
+        // Bounded; use /api/admin/orders/stream for the full history
+        int boundedLimit = Math.max(1, Math.min(limit, MAX_ORDER_LIMIT));
+        List<OrderResponse> orderResponses = orderService.getLatestOrders(boundedLimit).stream()
+            .map(OrderResponse::new)
+            .collect(java.util.stream.Collectors.toList());
+        return ResponseEntity.ok(SparseFields.apply(orderResponses, fields));
     }
 
     @GetMapping("/test")
@@ -48,9 +44,10 @@ public class OrderController {
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Order> getOrderById(@PathVariable Long id) {
+    public ResponseEntity<?> getOrderById(@PathVariable Long id,
+                                          @RequestParam(required = false) String fields) {
         Optional<Order> order = orderService.getOrderById(id);
-        return order.map(ResponseEntity::ok)
+        return order.<ResponseEntity<?>>map(o -> ResponseEntity.ok(SparseFields.apply(new OrderResponse(o), fields)))
                    .orElse(ResponseEntity.notFound().build());
     }
 
@@ -64,7 +61,7 @@ public class OrderController {
         
         try {
             Order createdOrder = orderService.createOrderForUser(orderRequest, authentication.getName());
-            return ResponseEntity.ok(createdOrder);
+            return ResponseEntity.ok(new OrderResponse(createdOrder));
         } catch (RuntimeException e) {
             Map<String, String> error = new HashMap<>();
             error.put("error", e.getMessage());
@@ -73,7 +70,8 @@ public class OrderController {
     }
 
     @GetMapping("/my-orders")
-    public ResponseEntity<?> getCurrentUserOrders(Authentication authentication) {
+    public ResponseEntity<?> getCurrentUserOrders(@RequestParam(required = false) String fields,
+                                                  Authentication authentication) {
         if (authentication == null) {
             Map<String, String> error = new HashMap<>();
             error.put("error", "User not authenticated");
@@ -85,7 +83,7 @@ public class OrderController {
             List<OrderResponse> orderResponses = orders.stream()
                 .map(OrderResponse::new)
                 .collect(java.util.stream.Collectors.toList());
-            return ResponseEntity.ok(orderResponses);
+            return ResponseEntity.ok(SparseFields.apply(orderResponses, fields));
         } catch (Exception e) {
             Map<String, String> error = new HashMap<>();
             error.put("error", "Failed to fetch orders: " + e.getMessage());
@@ -123,6 +121,8 @@ public class OrderController {
             return ResponseEntity.ok(updatedOrder);
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().build();
+        } catch (InvalidStatusTransitionException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
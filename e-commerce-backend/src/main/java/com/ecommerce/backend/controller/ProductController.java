@@ -1,28 +1,43 @@
 package com.ecommerce.backend.controller;
 
-import com.ecommerce.backend.dto.ProductRatingResponse;
+import com.ecommerce.backend.dto.ProductView;
 import com.ecommerce.backend.dto.RatingRequest;
+import com.ecommerce.backend.dto.ReviewView;
 import com.ecommerce.backend.entity.Product;
-import com.ecommerce.backend.entity.ProductRating;
+import com.ecommerce.backend.exception.UploadRejectedException;
 import com.ecommerce.backend.service.ProductService;
 import com.ecommerce.backend.service.ProductRatingService;
+import com.ecommerce.backend.service.ProductReadCache;
 import com.ecommerce.backend.service.FileStorageService;
+import com.ecommerce.backend.service.TrendingService;
+import com.ecommerce.backend.service.CatalogPageCache;
+import com.ecommerce.backend.service.CatalogVersions;
+import com.ecommerce.backend.util.SparseFields;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 import java.io.IOException;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/api/products")
@@ -40,22 +55,47 @@ public class ProductController {
     @Autowired
     private FileStorageService fileStorageService;
 
+    @Autowired
+    private TrendingService trendingService;
+
+    @Autowired
+    private CatalogVersions catalogVersions;
+
+    @Autowired
+    private CatalogPageCache catalogPageCache;
+
+    @Autowired
+    private ProductReadCache productReadCache;
+
+    @Value("${app.http-cache.catalog-max-age-seconds:60}")
+    private long catalogMaxAgeSeconds;
+
     @GetMapping
     public ResponseEntity<?> getAllProducts(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "20") int size) {
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String fields,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        String etag = catalogVersions.catalogETag();
+        if (CatalogVersions.matches(ifNoneMatch, etag)) {
+            return notModified(etag);
+        }
         try {
+            CatalogPageCache.Format format = CatalogPageCache.Format.negotiate(accept);
+            if (format != null && catalogPageCache.isCacheable(page, size)) {
+                CatalogPageCache.Entry entry = catalogPageCache.get("products", page, size, fields, format, etag,
+                        () -> productPage(productService.getAllProducts(PageRequest.of(page, size))));
+                return cachedPage(etag, entry, acceptEncoding);
+            }
+
             Pageable pageable = PageRequest.of(page, size);
             Page<Product> products = productService.getAllProducts(pageable);
-            
-            Map<String, Object> response = new HashMap<>();
-            response.put("products", products.getContent());
-            response.put("currentPage", products.getNumber());
-            response.put("totalItems", products.getTotalElements());
-            response.put("totalPages", products.getTotalPages());
+            Map<String, Object> response = productPage(products);
             
             logger.info("Retrieved {} products for page {} of {}", products.getContent().size(), page + 1, products.getTotalPages());
-            return ResponseEntity.ok(response);
+            return cacheable(etag).body(SparseFields.apply(response, fields));
         } catch (Exception e) {
             logger.error("Error retrieving products: {}", e.getMessage());
             return ResponseEntity.badRequest().body(Map.of("error", "Failed to retrieve products"));
@@ -63,31 +103,68 @@ public class ProductController {
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Product> getProductById(@PathVariable Long id) {
-        Optional<Product> product = productService.getProductById(id);
-        return product.map(ResponseEntity::ok)
-                     .orElse(ResponseEntity.notFound().build());
+    public ResponseEntity<?> getProductById(
+            @PathVariable Long id,
+            @RequestParam(required = false) String fields,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        // Answer revalidations from the version counter without touching the database
+        String etag = catalogVersions.productETag(id);
+        if (CatalogVersions.matches(ifNoneMatch, etag)) {
+            // An untouched product's tag is the same for every id, so only count ids known to exist
+            if (productReadCache.hasProduct(id)) {
+                trendingService.recordView(id);
+            }
+            return notModified(etag);
+        }
+        ProductView product = productReadCache.getProduct(id);
+        if (product == null) {
+            return ResponseEntity.notFound().build();
+        }
+        trendingService.recordView(id);
+        return cacheable(etag).body(SparseFields.apply(product, fields));
+    }
+
+    @GetMapping("/trending")
+    public ResponseEntity<?> getTrendingProducts(@RequestParam(defaultValue = "10") int limit,
+                                                 @RequestParam(required = false) String fields) {
+        int boundedLimit = Math.max(1, Math.min(limit, 50));
+        List<ProductView> trending = trendingService.getTrendingProducts(boundedLimit).stream()
+                .map(ProductView::from)
+                .toList();
+        return ResponseEntity.ok(SparseFields.apply(trending, fields));
     }
 
     @GetMapping("/category/{category}")
     public ResponseEntity<?> getProductsByCategory(
             @PathVariable String category,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "20") int size) {
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String fields,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        String etag = catalogVersions.catalogETag();
+        if (CatalogVersions.matches(ifNoneMatch, etag)) {
+            return notModified(etag);
+        }
         try {
+            CatalogPageCache.Format format = CatalogPageCache.Format.negotiate(accept);
+            if (format != null && catalogPageCache.isCacheable(page, size)) {
+                // Category lookups ignore case, so differently cased requests share an entry
+                String listing = "category:" + category.toLowerCase(Locale.ROOT);
+                CatalogPageCache.Entry entry = catalogPageCache.get(listing, page, size, fields, format, etag,
+                        () -> productPage(productService.getProductsByCategory(category, PageRequest.of(page, size))));
+                return cachedPage(etag, entry, acceptEncoding);
+            }
+
             // Always use paginated response
             Pageable pageable = PageRequest.of(page, size);
             Page<Product> products = productService.getProductsByCategory(category, pageable);
-            
-            Map<String, Object> response = new HashMap<>();
-            response.put("products", products.getContent());
-            response.put("currentPage", products.getNumber());
-            response.put("totalItems", products.getTotalElements());
-            response.put("totalPages", products.getTotalPages());
+            Map<String, Object> response = productPage(products);
             
             logger.info("Retrieved {} products for category {} page {} of {}", 
                 products.getContent().size(), category, page + 1, products.getTotalPages());
-            return ResponseEntity.ok(response);
+            return cacheable(etag).body(SparseFields.apply(response, fields));
         } catch (Exception e) {
             logger.error("Error retrieving products for category {}: {}", category, e.getMessage());
             return ResponseEntity.badRequest().body(Map.of("error", "Failed to retrieve products"));
@@ -95,11 +172,16 @@ public class ProductController {
     }
 
     @GetMapping("/categories")
-    public ResponseEntity<?> getAllCategories() {
+    public ResponseEntity<?> getAllCategories(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String etag = catalogVersions.catalogETag();
+        if (CatalogVersions.matches(ifNoneMatch, etag)) {
+            return notModified(etag);
+        }
         try {
             List<String> categories = productService.getAllCategories();
             logger.info("Retrieved {} categories", categories.size());
-            return ResponseEntity.ok(categories);
+            return cacheable(etag).body(categories);
         } catch (Exception e) {
             logger.error("Error retrieving categories: {}", e.getMessage());
             return ResponseEntity.badRequest().body(Map.of("error", "Failed to retrieve categories"));
@@ -107,14 +189,15 @@ public class ProductController {
     }
 
     @GetMapping("/{id}/related")
-    public ResponseEntity<List<Product>> getRelatedProducts(
+    public ResponseEntity<?> getRelatedProducts(
             @PathVariable Long id,
-            @RequestParam(defaultValue = "4") int limit) {
-        Optional<Product> product = productService.getProductById(id);
-        if (product.isPresent()) {
-            List<Product> relatedProducts = productService.getRelatedProducts(
-                product.get().getCategory(), id, limit);
-            return ResponseEntity.ok(relatedProducts);
+            @RequestParam(defaultValue = "4") int limit,
+            @RequestParam(required = false) String fields) {
+        // Each limit is its own cache entry, so keep it to a small range
+        int boundedLimit = Math.max(1, Math.min(limit, 20));
+        List<ProductView> relatedProducts = productReadCache.getRelated(id, boundedLimit);
+        if (relatedProducts != null) {
+            return ResponseEntity.ok(SparseFields.apply(relatedProducts, fields));
         }
         return ResponseEntity.notFound().build();
     }
@@ -156,9 +239,17 @@ public class ProductController {
             product.setRatingRate(ratingRate);
             product.setRatingCount(ratingCount);
 
-            Product savedProduct = productService.saveProduct(product);
+            Product savedProduct;
+            try {
+                savedProduct = productService.saveProduct(product);
+            } finally {
+                // The product holds its own reference now; if the save failed this deletes the upload
+                fileStorageService.release(imageUrl);
+            }
             logger.info("Product saved with ID: {}", savedProduct.getId());
             return ResponseEntity.ok(savedProduct);
+        } catch (UploadRejectedException e) {
+            return ResponseEntity.status(e.getStatus()).body(Map.of("error", e.getMessage()));
         } catch (IOException e) {
             logger.error("IO Error creating product: {}", e.getMessage());
             return ResponseEntity.badRequest().body(Map.of("error", "Failed to upload image"));
@@ -168,6 +259,20 @@ public class ProductController {
         }
     }
 
+    /**
+     * Replaces a product's image with the raw request body, streamed to storage as it arrives.
+     */
+    @PutMapping("/{id}/image")
+    @PreAuthorize("hasRole('ADMIN')")
+    public CompletableFuture<ResponseEntity<?>> streamProductImage(@PathVariable Long id,
+                                                                  HttpServletRequest request) throws IOException {
+        if (productService.getProductById(id).isEmpty()) {
+            return CompletableFuture.completedFuture(ResponseEntity.notFound().build());
+        }
+        return fileStorageService.storeUpload(request.getInputStream(), request.getContentLengthLong())
+                .thenApply(filename -> ResponseEntity.ok(productService.setProductImage(id, filename)));
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<Product> updateProduct(@PathVariable Long id, @RequestBody Product product) {
         Optional<Product> existingProduct = productService.getProductById(id);
@@ -190,10 +295,16 @@ public class ProductController {
     }
 
     @GetMapping("/{id}/rating")
-    public ResponseEntity<?> getProductRating(@PathVariable Long id) {
+    public ResponseEntity<?> getProductRating(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String etag = catalogVersions.productETag(id);
+        if (CatalogVersions.matches(ifNoneMatch, etag)) {
+            return notModified(etag);
+        }
         try {
-            Map<String, Object> ratingData = productRatingService.getProductRatingWithDistribution(id);
-            return ResponseEntity.ok(ratingData);
+            Map<String, Object> ratingData = productReadCache.getRating(id);
+            return cacheable(etag).body(ratingData);
         } catch (Exception e) {
             logger.error("Error getting product rating: {}", e.getMessage());
             return ResponseEntity.badRequest().build();
@@ -220,16 +331,62 @@ public class ProductController {
     }
 
     @GetMapping("/{id}/reviews")
-    public ResponseEntity<Page<ProductRating>> getProductReviews(
+    public ResponseEntity<?> getProductReviews(
             @PathVariable Long id,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String fields,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String etag = catalogVersions.productETag(id);
+        if (CatalogVersions.matches(ifNoneMatch, etag)) {
+            return notModified(etag);
+        }
         try {
-            Page<ProductRating> reviews = productRatingService.getProductReviews(id, page, size);
-            return ResponseEntity.ok(reviews);
+            Page<ReviewView> reviews = productRatingService.getProductReviews(id, page, size).map(ReviewView::from);
+            return cacheable(etag).body(SparseFields.apply(reviews, fields));
         } catch (Exception e) {
             logger.error("Error getting product reviews: {}", e.getMessage());
             return ResponseEntity.badRequest().build();
         }
     }
-}
\ No newline at end of file
+
+    private static Map<String, Object> productPage(Page<Product> products) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("products", products.getContent().stream().map(ProductView::from).toList());
+        response.put("currentPage", products.getNumber());
+        response.put("totalItems", products.getTotalElements());
+        response.put("totalPages", products.getTotalPages());
+        return response;
+    }
+
+    /**
+     * Writes a cached page as stored, gzipped when the client accepts it, so the container has
+     * nothing left to encode.
+     */
+    private ResponseEntity<byte[]> cachedPage(String etag, CatalogPageCache.Entry entry, String acceptEncoding) {
+        boolean gzip = entry.getGzipped() != null && CatalogPageCache.acceptsGzip(acceptEncoding);
+        ResponseEntity.BodyBuilder response = cacheable(etag)
+                .varyBy(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING)
+                .contentType(entry.getMediaType());
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(gzip ? entry.getGzipped() : entry.getBody());
+    }
+
+    private ResponseEntity.BodyBuilder cacheable(String etag) {
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.maxAge(catalogMaxAgeSeconds, TimeUnit.SECONDS).cachePublic())
+                // The same URL can be answered as JSON, Smile or CBOR
+                .varyBy(HttpHeaders.ACCEPT);
+    }
+
+    private <T> ResponseEntity<T> notModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(etag)
+                .cacheControl(CacheControl.maxAge(catalogMaxAgeSeconds, TimeUnit.SECONDS).cachePublic())
+                .varyBy(HttpHeaders.ACCEPT)
+                .build();
+    }
+}
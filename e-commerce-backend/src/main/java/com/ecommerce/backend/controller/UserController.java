@@ -3,7 +3,9 @@ package com.ecommerce.backend.controller;
 import com.ecommerce.backend.dto.ProfileRequest;
 import com.ecommerce.backend.dto.ProfileResponse;
 import com.ecommerce.backend.entity.User;
+import com.ecommerce.backend.service.FileStorageService;
 import com.ecommerce.backend.service.UserService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -14,6 +16,7 @@ import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/users")
@@ -23,6 +26,9 @@ public class UserController {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private FileStorageService fileStorageService;
+
     @GetMapping("/profile")
     public ResponseEntity<?> getCurrentUserProfile(Authentication authentication) {
         if (authentication == null) {
@@ -106,6 +112,25 @@ public class UserController {
         }
     }
 
+    /**
+     * Streaming variant of the profile image upload: the image is the raw request body, which is
+     * validated and stored as it arrives instead of being buffered by the multipart resolver first.
+     */
+    @PutMapping("/profile/image")
+    public CompletableFuture<ResponseEntity<?>> streamCurrentUserProfileImage(
+            HttpServletRequest request,
+            Authentication authentication) throws IOException {
+        if (authentication == null) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "User not authenticated");
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body(error));
+        }
+
+        String username = authentication.getName();
+        return fileStorageService.storeUpload(request.getInputStream(), request.getContentLengthLong())
+                .thenApply(filename -> ResponseEntity.ok(new ProfileResponse(userService.setUserProfileImage(username, filename))));
+    }
+
     @PostMapping("/{id}/profile-image")
     public ResponseEntity<?> updateProfileImage(
             @PathVariable Long id,
@@ -1,11 +1,14 @@
 package com.ecommerce.backend.dto;
 
 import com.ecommerce.backend.entity.Order;
+import com.ecommerce.backend.util.SparseFields;
+import com.fasterxml.jackson.annotation.JsonFilter;
 import com.fasterxml.jackson.annotation.JsonFormat;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.stream.Collectors;
 
+@JsonFilter(SparseFields.FILTER)
 public class OrderResponse {
     private Long id;
     private Double totalAmount;
@@ -27,6 +30,8 @@ public class OrderResponse {
     private String country;
     private List<OrderItemResponse> orderItems;
 
+    public OrderResponse() {}
+
     public OrderResponse(Order order) {
         this.id = order.getId();
         this.totalAmount = order.getTotalAmount();
@@ -107,6 +112,8 @@ public class OrderResponse {
         private String productTitle;
         private String productImage;
 
+        public OrderItemResponse() {}
+
         public OrderItemResponse(com.ecommerce.backend.entity.OrderItem orderItem) {
             this.id = orderItem.getId();
             this.quantity = orderItem.getQuantity();
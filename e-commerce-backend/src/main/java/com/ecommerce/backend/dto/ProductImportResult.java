@@ -0,0 +1,30 @@
+package com.ecommerce.backend.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ProductImportResult {
+    private long rowsRead;
+    private long upserted;
+    private long rejected;
+    private long durationMs;
+    private List<String> errors = new ArrayList<>();
+
+    public ProductImportResult() {}
+
+    // Getters and Setters
+    public long getRowsRead() { return rowsRead; }
+    public void setRowsRead(long rowsRead) { this.rowsRead = rowsRead; }
+
+    public long getUpserted() { return upserted; }
+    public void setUpserted(long upserted) { this.upserted = upserted; }
+
+    public long getRejected() { return rejected; }
+    public void setRejected(long rejected) { this.rejected = rejected; }
+
+    public long getDurationMs() { return durationMs; }
+    public void setDurationMs(long durationMs) { this.durationMs = durationMs; }
+
+    public List<String> getErrors() { return errors; }
+    public void setErrors(List<String> errors) { this.errors = errors; }
+}
@@ -0,0 +1,42 @@
+package com.ecommerce.backend.dto;
+
+import com.fasterxml.jackson.annotation.JsonAlias;
+
+public class ProductImportRow {
+    private String sku;
+    private String title;
+    private Double price;
+    private String description;
+    private String category;
+    @JsonAlias("imageUrl")
+    private String image;
+    private Double ratingRate;
+    private Integer ratingCount;
+
+    public ProductImportRow() {}
+
+    // Getters and Setters
+    public String getSku() { return sku; }
+    public void setSku(String sku) { this.sku = sku; }
+
+    public String getTitle() { return title; }
+    public void setTitle(String title) { this.title = title; }
+
+    public Double getPrice() { return price; }
+    public void setPrice(Double price) { this.price = price; }
+
+    public String getDescription() { return description; }
+    public void setDescription(String description) { this.description = description; }
+
+    public String getCategory() { return category; }
+    public void setCategory(String category) { this.category = category; }
+
+    public String getImage() { return image; }
+    public void setImage(String image) { this.image = image; }
+
+    public Double getRatingRate() { return ratingRate; }
+    public void setRatingRate(Double ratingRate) { this.ratingRate = ratingRate; }
+
+    public Integer getRatingCount() { return ratingCount; }
+    public void setRatingCount(Integer ratingCount) { this.ratingCount = ratingCount; }
+}
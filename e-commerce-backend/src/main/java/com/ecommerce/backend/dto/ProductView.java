@@ -0,0 +1,20 @@
+package com.ecommerce.backend.dto;
+
+import com.ecommerce.backend.entity.Product;
+import com.ecommerce.backend.util.SparseFields;
+import com.fasterxml.jackson.annotation.JsonFilter;
+
+/**
+ * Read-side shape of a product, with the same property names the entity has always been
+ * serialized with.
+ */
+@JsonFilter(SparseFields.FILTER)
+public record ProductView(Long id, String sku, String title, Double price, String description,
+                          String category, String image, Double ratingRate, Integer ratingCount) {
+
+    public static ProductView from(Product product) {
+        return new ProductView(product.getId(), product.getSku(), product.getTitle(), product.getPrice(),
+                product.getDescription(), product.getCategory(), product.getImage(),
+                product.getRatingRate(), product.getRatingCount());
+    }
+}
@@ -0,0 +1,28 @@
+package com.ecommerce.backend.dto;
+
+import com.ecommerce.backend.entity.ProductRating;
+import com.ecommerce.backend.entity.User;
+import com.ecommerce.backend.util.SparseFields;
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import java.time.LocalDateTime;
+
+/**
+ * A product review as listed under the product. Only the reviewer's display name is exposed.
+ */
+@JsonFilter(SparseFields.FILTER)
+public record ReviewView(Long id, Integer rating, String review,
+                         @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime createdAt,
+                         @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime updatedAt,
+                         Author user) {
+
+    public record Author(String username, String firstName, String lastName) {}
+
+    public static ReviewView from(ProductRating rating) {
+        User user = rating.getUser();
+        Author author = user == null ? null : new Author(user.getUsername(), user.getFirstName(), user.getLastName());
+        return new ReviewView(rating.getId(), rating.getRating(), rating.getReview(),
+                rating.getCreatedAt(), rating.getUpdatedAt(), author);
+    }
+}
@@ -0,0 +1,54 @@
+package com.ecommerce.backend.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Persisted stock checkpoint for one product. {@code onHand} lags behind deliveries until the
+ * committed reservations are applied by the inventory flusher; {@code reserved} is informational.
+ * Products without a row are not stock-tracked.
+ */
+@Entity
+@Table(name = "inventory")
+public class Inventory {
+    @Id
+    @Column(name = "product_id")
+    private Long productId;
+
+    @Column(name = "on_hand", nullable = false)
+    private Long onHand = 0L;
+
+    @Column(nullable = false)
+    private Long reserved = 0L;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    public Inventory() {
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    public Inventory(Long productId, Long onHand) {
+        this();
+        this.productId = productId;
+        this.onHand = onHand;
+    }
+
+    @PreUpdate
+    public void preUpdate() {
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public Long getProductId() { return productId; }
+    public void setProductId(Long productId) { this.productId = productId; }
+
+    public Long getOnHand() { return onHand; }
+    public void setOnHand(Long onHand) { this.onHand = onHand; }
+
+    public Long getReserved() { return reserved; }
+    public void setReserved(Long reserved) { this.reserved = reserved; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+}
@@ -5,12 +5,19 @@ import jakarta.validation.constraints.NotNull;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import com.fasterxml.jackson.annotation.JsonBackReference;
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = @Index(name = "idx_orders_order_date", columnList = "order_date"))
+@NamedEntityGraph(name = Order.WITH_ITEMS_AND_PRODUCTS,
+        attributeNodes = @NamedAttributeNode(value = "orderItems", subgraph = "items"),
+        subgraphs = @NamedSubgraph(name = "items", attributeNodes = @NamedAttributeNode("product")))
 public class Order {
+    // Fetch plan for the read paths that serialize orders with their items and products
+    public static final String WITH_ITEMS_AND_PRODUCTS = "Order.withItemsAndProducts";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -37,6 +44,11 @@ public class Order {
     @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
     private LocalDateTime deliveryDate;
 
+    // Set once the ordered lines have been taken out of the cart, so a redelivered event skips it
+    @Column(name = "cart_cleared")
+    @JsonIgnore
+    private Boolean cartCleared = false;
+
     // Address fields
     @Column(name = "full_name", nullable = false)
     private String fullName;
@@ -98,6 +110,9 @@ public class Order {
     public LocalDateTime getDeliveryDate() { return deliveryDate; }
     public void setDeliveryDate(LocalDateTime deliveryDate) { this.deliveryDate = deliveryDate; }
 
+    public Boolean getCartCleared() { return cartCleared; }
+    public void setCartCleared(Boolean cartCleared) { this.cartCleared = cartCleared; }
+
     public String getFullName() { return fullName; }
     public void setFullName(String fullName) { this.fullName = fullName; }
 
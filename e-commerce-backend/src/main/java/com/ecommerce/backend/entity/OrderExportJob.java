@@ -0,0 +1,113 @@
+package com.ecommerce.backend.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * A finance export of orders joined with their items over a date range. The export is written as
+ * a sequence of gzip parts; {@code lastOrderId}/{@code lastItemId} record the keyset position after
+ * the last completed part so an interrupted job resumes where it stopped.
+ */
+@Entity
+@Table(name = "order_export_jobs")
+public class OrderExportJob {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Format format;
+
+    @Column(name = "from_date", nullable = false)
+    private LocalDateTime fromDate;
+
+    @Column(name = "to_date", nullable = false)
+    private LocalDateTime toDate;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Status status = Status.QUEUED;
+
+    @Column(name = "rows_written", nullable = false)
+    private Long rowsWritten = 0L;
+
+    @Column(name = "parts_written", nullable = false)
+    private Integer partsWritten = 0;
+
+    @Column(name = "last_order_id", nullable = false)
+    private Long lastOrderId = 0L;
+
+    @Column(name = "last_item_id", nullable = false)
+    private Long lastItemId = 0L;
+
+    @Column(name = "file_path")
+    private String filePath;
+
+    @Column(length = 1000)
+    private String error;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    public OrderExportJob() {
+        this.createdAt = LocalDateTime.now();
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    @PreUpdate
+    public void preUpdate() {
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Format getFormat() { return format; }
+    public void setFormat(Format format) { this.format = format; }
+
+    public LocalDateTime getFromDate() { return fromDate; }
+    public void setFromDate(LocalDateTime fromDate) { this.fromDate = fromDate; }
+
+    public LocalDateTime getToDate() { return toDate; }
+    public void setToDate(LocalDateTime toDate) { this.toDate = toDate; }
+
+    public Status getStatus() { return status; }
+    public void setStatus(Status status) { this.status = status; }
+
+    public Long getRowsWritten() { return rowsWritten; }
+    public void setRowsWritten(Long rowsWritten) { this.rowsWritten = rowsWritten; }
+
+    public Integer getPartsWritten() { return partsWritten; }
+    public void setPartsWritten(Integer partsWritten) { this.partsWritten = partsWritten; }
+
+    public Long getLastOrderId() { return lastOrderId; }
+    public void setLastOrderId(Long lastOrderId) { this.lastOrderId = lastOrderId; }
+
+    public Long getLastItemId() { return lastItemId; }
+    public void setLastItemId(Long lastItemId) { this.lastItemId = lastItemId; }
+
+    public String getFilePath() { return filePath; }
+    public void setFilePath(String filePath) { this.filePath = filePath; }
+
+    public String getError() { return error; }
+    public void setError(String error) { this.error = error; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+
+    public enum Format {
+        CSV, NDJSON
+    }
+
+    public enum Status {
+        QUEUED, RUNNING, COMPLETED, FAILED
+    }
+}
@@ -12,6 +12,10 @@ public class Product {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    // Supplier key used by bulk imports to upsert; products created by hand may leave it empty
+    @Column(unique = true, length = 100)
+    private String sku;
+
     @NotBlank(message = "Title is required")
     @Column(nullable = false)
     private String title;
@@ -54,6 +58,9 @@ public class Product {
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
 
+    public String getSku() { return sku; }
+    public void setSku(String sku) { this.sku = sku; }
+
     public String getTitle() { return title; }
     public void setTitle(String title) { this.title = title; }
 
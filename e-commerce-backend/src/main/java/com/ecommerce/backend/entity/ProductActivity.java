@@ -0,0 +1,47 @@
+package com.ecommerce.backend.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Periodic snapshot of a product's in-memory activity counters: lifetime views and purchased
+ * units, plus the decayed trending score at the last flush.
+ */
+@Entity
+@Table(name = "product_activity")
+public class ProductActivity {
+    @Id
+    @Column(name = "product_id")
+    private Long productId;
+
+    @Column(name = "view_count", nullable = false)
+    private Long viewCount = 0L;
+
+    @Column(name = "purchase_count", nullable = false)
+    private Long purchaseCount = 0L;
+
+    @Column(name = "trending_score", nullable = false)
+    private Double trendingScore = 0.0;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    // Constructors
+    public ProductActivity() {}
+
+    // Getters and Setters
+    public Long getProductId() { return productId; }
+    public void setProductId(Long productId) { this.productId = productId; }
+
+    public Long getViewCount() { return viewCount; }
+    public void setViewCount(Long viewCount) { this.viewCount = viewCount; }
+
+    public Long getPurchaseCount() { return purchaseCount; }
+    public void setPurchaseCount(Long purchaseCount) { this.purchaseCount = purchaseCount; }
+
+    public Double getTrendingScore() { return trendingScore; }
+    public void setTrendingScore(Double trendingScore) { this.trendingScore = trendingScore; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+}
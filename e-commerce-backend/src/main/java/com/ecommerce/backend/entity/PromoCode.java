@@ -31,6 +31,17 @@ public class PromoCode {
     @Column(name = "is_active")
     private Boolean isActive = true;
 
+    // null means no cap
+    @Column(name = "max_redemptions")
+    private Integer maxRedemptions;
+
+    @Column(name = "max_redemptions_per_user")
+    private Integer maxRedemptionsPerUser;
+
+    // Reconciled periodically from promo_code_redemptions, not incremented per checkout
+    @Column(name = "redemption_count")
+    private Integer redemptionCount = 0;
+
     // Constructors
     public PromoCode() {}
 
@@ -60,4 +71,13 @@ public class PromoCode {
 
     public Boolean getIsActive() { return isActive; }
     public void setIsActive(Boolean isActive) { this.isActive = isActive; }
+
+    public Integer getMaxRedemptions() { return maxRedemptions; }
+    public void setMaxRedemptions(Integer maxRedemptions) { this.maxRedemptions = maxRedemptions; }
+
+    public Integer getMaxRedemptionsPerUser() { return maxRedemptionsPerUser; }
+    public void setMaxRedemptionsPerUser(Integer maxRedemptionsPerUser) { this.maxRedemptionsPerUser = maxRedemptionsPerUser; }
+
+    public Integer getRedemptionCount() { return redemptionCount; }
+    public void setRedemptionCount(Integer redemptionCount) { this.redemptionCount = redemptionCount; }
 }
\ No newline at end of file
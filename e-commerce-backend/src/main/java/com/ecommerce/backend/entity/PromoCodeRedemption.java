@@ -0,0 +1,57 @@
+package com.ecommerce.backend.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "promo_code_redemptions", indexes = {
+    @Index(name = "idx_redemption_code_user", columnList = "promo_code_id, user_id"),
+    @Index(name = "idx_redemption_order", columnList = "order_id")
+})
+public class PromoCodeRedemption {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "promo_code_id", nullable = false)
+    private PromoCode promoCode;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "order_id", nullable = false)
+    private Order order;
+
+    @Column(name = "redeemed_at", nullable = false)
+    private LocalDateTime redeemedAt;
+
+    public PromoCodeRedemption() {
+        this.redeemedAt = LocalDateTime.now();
+    }
+
+    public PromoCodeRedemption(PromoCode promoCode, User user, Order order) {
+        this();
+        this.promoCode = promoCode;
+        this.user = user;
+        this.order = order;
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public PromoCode getPromoCode() { return promoCode; }
+    public void setPromoCode(PromoCode promoCode) { this.promoCode = promoCode; }
+
+    public User getUser() { return user; }
+    public void setUser(User user) { this.user = user; }
+
+    public Order getOrder() { return order; }
+    public void setOrder(Order order) { this.order = order; }
+
+    public LocalDateTime getRedeemedAt() { return redeemedAt; }
+    public void setRedeemedAt(LocalDateTime redeemedAt) { this.redeemedAt = redeemedAt; }
+}
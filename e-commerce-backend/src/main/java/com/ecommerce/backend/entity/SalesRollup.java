@@ -0,0 +1,75 @@
+package com.ecommerce.backend.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Sales for one product in one hour or day bucket. Revenue is gross line value (unit price times
+ * quantity, before promo discounts) of orders that are not cancelled, bucketed by order date.
+ * Rows with {@link #ALL_PRODUCTS} as product id hold the bucket totals, where the order count is
+ * the number of distinct orders.
+ */
+@Entity
+@Table(name = "sales_rollups", uniqueConstraints = @UniqueConstraint(
+        name = "uk_sales_rollups_bucket_product", columnNames = {"granularity", "bucket_start", "product_id"}))
+public class SalesRollup {
+
+    public static final long ALL_PRODUCTS = 0L;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private Granularity granularity;
+
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    private String category;
+
+    @Column(name = "revenue_cents", nullable = false)
+    private Long revenueCents = 0L;
+
+    @Column(nullable = false)
+    private Long units = 0L;
+
+    @Column(name = "order_count", nullable = false)
+    private Long orderCount = 0L;
+
+    // Constructors
+    public SalesRollup() {}
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Granularity getGranularity() { return granularity; }
+    public void setGranularity(Granularity granularity) { this.granularity = granularity; }
+
+    public LocalDateTime getBucketStart() { return bucketStart; }
+    public void setBucketStart(LocalDateTime bucketStart) { this.bucketStart = bucketStart; }
+
+    public Long getProductId() { return productId; }
+    public void setProductId(Long productId) { this.productId = productId; }
+
+    public String getCategory() { return category; }
+    public void setCategory(String category) { this.category = category; }
+
+    public Long getRevenueCents() { return revenueCents; }
+    public void setRevenueCents(Long revenueCents) { this.revenueCents = revenueCents; }
+
+    public Long getUnits() { return units; }
+    public void setUnits(Long units) { this.units = units; }
+
+    public Long getOrderCount() { return orderCount; }
+    public void setOrderCount(Long orderCount) { this.orderCount = orderCount; }
+
+    public enum Granularity {
+        HOUR, DAY
+    }
+}
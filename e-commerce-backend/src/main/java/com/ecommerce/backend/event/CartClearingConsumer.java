@@ -0,0 +1,29 @@
+package com.ecommerce.backend.event;
+
+import com.ecommerce.backend.service.CartService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import java.util.HashMap;
+import java.util.Map;
+
+@Component
+public class CartClearingConsumer implements OrderEventConsumer {
+
+    @Autowired
+    private CartService cartService;
+
+    @Override
+    public String getName() {
+        return "cart-clear";
+    }
+
+    @Override
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        // Only what was ordered leaves the cart; redeliveries are skipped by the order's marker
+        Map<Long, Integer> quantities = new HashMap<>();
+        for (OrderPlacedEvent.Item item : event.getItems()) {
+            quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+        }
+        cartService.removeOrderedItems(event.getOrderId(), event.getUserId(), quantities);
+    }
+}
@@ -0,0 +1,22 @@
+package com.ecommerce.backend.event;
+
+import com.ecommerce.backend.service.EmailService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+@Component
+public class OrderConfirmationEmailConsumer implements OrderEventConsumer {
+
+    @Autowired
+    private EmailService emailService;
+
+    @Override
+    public String getName() {
+        return "confirmation-email";
+    }
+
+    @Override
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        emailService.sendOrderConfirmationEmail(event);
+    }
+}
@@ -0,0 +1,16 @@
+package com.ecommerce.backend.event;
+
+/**
+ * A post-commit stage of order placement. Each consumer runs on its own dispatcher thread and is
+ * delivered every event at least once, so implementations must tolerate duplicates. Throwing marks
+ * the delivery as failed and it is retried from the outbox.
+ */
+public interface OrderEventConsumer {
+
+    /**
+     * Stable name stored in the outbox; changing it orphans undelivered rows.
+     */
+    String getName();
+
+    void onOrderPlaced(OrderPlacedEvent event) throws Exception;
+}
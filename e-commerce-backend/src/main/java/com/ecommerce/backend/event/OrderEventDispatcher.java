@@ -0,0 +1,151 @@
+package com.ecommerce.backend.event;
+
+import com.ecommerce.backend.entity.OrderOutboxEvent;
+import com.ecommerce.backend.repository.OrderOutboxEventRepository;
+import com.ecommerce.backend.util.RingBuffer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fans order events out to every {@link OrderEventConsumer} through a bounded ring buffer, one
+ * worker thread per consumer. A slow consumer only delays itself until the buffer fills; after
+ * that new events wait in the outbox and are picked up by {@link OrderEventPublisher}.
+ */
+@Component
+public class OrderEventDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderEventDispatcher.class);
+
+    @Autowired
+    private List<OrderEventConsumer> consumers;
+
+    @Autowired
+    private OrderOutboxEventRepository outboxRepository;
+
+    @Value("${app.order-events.buffer-size:1024}")
+    private int bufferSize;
+
+    @Value("${app.order-events.max-attempts:10}")
+    private int maxAttempts;
+
+    private RingBuffer<OrderEventEnvelope> ringBuffer;
+
+    // Outbox rows currently sitting in the buffer, so the outbox poller does not queue them twice
+    private final Set<Long> queued = ConcurrentHashMap.newKeySet();
+
+    private final List<Thread> workers = new ArrayList<>();
+
+    private volatile boolean running;
+
+    @PostConstruct
+    public void start() {
+        ringBuffer = new RingBuffer<>(bufferSize);
+        running = true;
+        for (OrderEventConsumer consumer : consumers) {
+            RingBuffer.Cursor cursor = ringBuffer.addConsumer();
+            Thread worker = new Thread(() -> runConsumer(consumer, cursor), "order-events-" + consumer.getName());
+            worker.setDaemon(true);
+            worker.start();
+            workers.add(worker);
+        }
+        logger.info("Order event dispatcher started with {} consumers, buffer size {}", consumers.size(), ringBuffer.capacity());
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        for (Thread worker : workers) {
+            worker.interrupt();
+        }
+        for (Thread worker : workers) {
+            try {
+                worker.join(5000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Queues the envelope without blocking. Returns false if the buffer is full; the outbox still
+     * holds the event in that case.
+     */
+    public boolean dispatch(OrderEventEnvelope envelope) {
+        List<Long> newlyQueued = new ArrayList<>();
+        for (Long outboxId : envelope.getOutboxIds().values()) {
+            if (queued.add(outboxId)) {
+                newlyQueued.add(outboxId);
+            }
+        }
+        if (newlyQueued.isEmpty()) {
+            return true;
+        }
+        if (!ringBuffer.tryPublish(envelope)) {
+            queued.removeAll(newlyQueued);
+            return false;
+        }
+        return true;
+    }
+
+    public boolean isQueued(Long outboxId) {
+        return queued.contains(outboxId);
+    }
+
+    public long getBacklog() {
+        return ringBuffer.backlog();
+    }
+
+    private void runConsumer(OrderEventConsumer consumer, RingBuffer.Cursor cursor) {
+        while (running) {
+            OrderEventEnvelope envelope;
+            try {
+                envelope = ringBuffer.next(cursor, 1, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (envelope == null) {
+                continue;
+            }
+            Long outboxId = envelope.outboxIdFor(consumer.getName());
+            if (outboxId != null) {
+                deliver(consumer, envelope.getEvent(), outboxId);
+            }
+            ringBuffer.advance(cursor);
+        }
+    }
+
+    private void deliver(OrderEventConsumer consumer, OrderPlacedEvent event, Long outboxId) {
+        try {
+            consumer.onOrderPlaced(event);
+            outboxRepository.markProcessed(outboxId, OrderOutboxEvent.Status.DONE, LocalDateTime.now());
+        } catch (Exception e) {
+            logger.warn("Consumer {} failed for order {}: {}", consumer.getName(), event.getOrderId(), e.getMessage());
+            try {
+                String error = e.getMessage() != null && e.getMessage().length() > 500
+                        ? e.getMessage().substring(0, 500) : e.getMessage();
+                outboxRepository.recordFailure(outboxId, error);
+                if (outboxRepository.markIfAttemptsExhausted(outboxId, OrderOutboxEvent.Status.FAILED, maxAttempts) == 1) {
+                    logger.error("Giving up on consumer {} for order {} after {} attempts",
+                            consumer.getName(), event.getOrderId(), maxAttempts);
+                }
+            } catch (Exception recordError) {
+                logger.error("Could not record outbox failure for row {}: {}", outboxId, recordError.getMessage());
+            }
+        } finally {
+            queued.remove(outboxId);
+        }
+    }
+}
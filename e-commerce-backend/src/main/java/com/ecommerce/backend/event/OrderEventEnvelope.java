@@ -0,0 +1,25 @@
+package com.ecommerce.backend.event;
+
+import java.util.Map;
+
+/**
+ * An event plus the outbox row each consumer must acknowledge. Consumers without an entry skip
+ * the event, which is how single-consumer redeliveries from the outbox are routed.
+ */
+public class OrderEventEnvelope {
+    private final OrderPlacedEvent event;
+    private final Map<String, Long> outboxIds;
+
+    public OrderEventEnvelope(OrderPlacedEvent event, Map<String, Long> outboxIds) {
+        this.event = event;
+        this.outboxIds = outboxIds;
+    }
+
+    public OrderPlacedEvent getEvent() { return event; }
+
+    public Map<String, Long> getOutboxIds() { return outboxIds; }
+
+    public Long outboxIdFor(String consumer) {
+        return outboxIds.get(consumer);
+    }
+}
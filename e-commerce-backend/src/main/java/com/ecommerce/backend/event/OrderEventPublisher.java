@@ -0,0 +1,140 @@
+package com.ecommerce.backend.event;
+
+import com.ecommerce.backend.entity.Order;
+import com.ecommerce.backend.entity.OrderOutboxEvent;
+import com.ecommerce.backend.repository.OrderOutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Writes order events to the outbox inside the order transaction and hands them to the
+ * dispatcher once it commits. Rows that were not delivered, because the buffer was full, a
+ * consumer failed or the process restarted, are re-dispatched by {@link #redeliverPending}.
+ */
+@Service
+public class OrderEventPublisher {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderEventPublisher.class);
+
+    @Autowired
+    private List<OrderEventConsumer> consumers;
+
+    @Autowired
+    private OrderOutboxEventRepository outboxRepository;
+
+    @Autowired
+    private OrderEventDispatcher dispatcher;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${app.order-events.redelivery-delay-seconds:30}")
+    private long redeliveryDelaySeconds;
+
+    @Value("${app.order-events.redelivery-batch-size:500}")
+    private int redeliveryBatchSize;
+
+    @Value("${app.order-events.retention-days:7}")
+    private long retentionDays;
+
+    /**
+     * Must be called inside the transaction that writes the order.
+     */
+    public void publishOrderPlaced(Order order) {
+        OrderPlacedEvent event = OrderPlacedEvent.from(order);
+        String payload;
+        try {
+            payload = objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize order event: " + e.getMessage(), e);
+        }
+
+        Map<String, Long> outboxIds = new HashMap<>();
+        for (OrderEventConsumer consumer : consumers) {
+            OrderOutboxEvent row = outboxRepository.save(new OrderOutboxEvent(order.getId(), consumer.getName(), payload));
+            outboxIds.put(consumer.getName(), row.getId());
+        }
+
+        OrderEventEnvelope envelope = new OrderEventEnvelope(event, outboxIds);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    dispatchOrDefer(envelope);
+                }
+            });
+        } else {
+            dispatchOrDefer(envelope);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.order-events.redelivery-interval-ms:10000}")
+    public void redeliverPending() {
+        LocalDateTime cutoff = LocalDateTime.now().minusSeconds(redeliveryDelaySeconds);
+        List<OrderOutboxEvent> pending = outboxRepository.findByStatusAndCreatedAtBeforeOrderByIdAsc(
+                OrderOutboxEvent.Status.PENDING, cutoff, PageRequest.of(0, redeliveryBatchSize));
+
+        Set<String> consumerNames = new HashSet<>();
+        for (OrderEventConsumer consumer : consumers) {
+            consumerNames.add(consumer.getName());
+        }
+
+        int dispatched = 0;
+        for (OrderOutboxEvent row : pending) {
+            if (dispatcher.isQueued(row.getId())) {
+                continue;
+            }
+            if (!consumerNames.contains(row.getConsumer())) {
+                // Left by a consumer that has since been removed; nothing will ever take it
+                outboxRepository.markProcessed(row.getId(), OrderOutboxEvent.Status.FAILED, LocalDateTime.now());
+                logger.warn("Retired outbox row {} for removed consumer {}", row.getId(), row.getConsumer());
+                continue;
+            }
+            OrderPlacedEvent event;
+            try {
+                event = objectMapper.readValue(row.getPayload(), OrderPlacedEvent.class);
+            } catch (JsonProcessingException e) {
+                logger.error("Unreadable outbox payload in row {}: {}", row.getId(), e.getMessage());
+                continue;
+            }
+            if (!dispatcher.dispatch(new OrderEventEnvelope(event, Map.of(row.getConsumer(), row.getId())))) {
+                break;
+            }
+            dispatched++;
+        }
+        if (dispatched > 0) {
+            logger.info("Re-dispatched {} pending order events from the outbox", dispatched);
+        }
+    }
+
+    @Scheduled(cron = "${app.order-events.cleanup-cron:0 30 3 * * *}")
+    public void purgeProcessed() {
+        int deleted = outboxRepository.deleteProcessedBefore(OrderOutboxEvent.Status.DONE,
+                LocalDateTime.now().minusDays(retentionDays));
+        if (deleted > 0) {
+            logger.info("Purged {} processed outbox rows", deleted);
+        }
+    }
+
+    private void dispatchOrDefer(OrderEventEnvelope envelope) {
+        if (!dispatcher.dispatch(envelope)) {
+            logger.warn("Order event buffer full; order {} will be delivered from the outbox",
+                    envelope.getEvent().getOrderId());
+        }
+    }
+}
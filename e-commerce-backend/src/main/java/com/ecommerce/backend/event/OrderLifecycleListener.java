@@ -0,0 +1,17 @@
+package com.ecommerce.backend.event;
+
+import com.ecommerce.backend.entity.Order;
+
+/**
+ * Notified by {@link com.ecommerce.backend.service.OrderService} whenever an order is created or
+ * its status changes. Calls happen synchronously, inside the transaction that made the change when
+ * there is one; listeners that keep in-memory state should defer their update until commit.
+ */
+public interface OrderLifecycleListener {
+
+    default void onOrderCreated(Order order) {
+    }
+
+    default void onOrderStatusChanged(Order order, Order.OrderStatus previousStatus) {
+    }
+}
@@ -0,0 +1,105 @@
+package com.ecommerce.backend.event;
+
+import com.ecommerce.backend.entity.Order;
+import com.ecommerce.backend.entity.OrderItem;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Snapshot of a committed order, detached from JPA so consumers can run on other threads.
+ */
+public class OrderPlacedEvent {
+    private Long orderId;
+    private Long userId;
+    private String username;
+    private String email;
+    private String fullName;
+    private Double totalAmount;
+    private Double discountAmount;
+    private String promoCode;
+    private LocalDateTime orderDate;
+    private List<Item> items = new ArrayList<>();
+
+    public OrderPlacedEvent() {}
+
+    public static OrderPlacedEvent from(Order order) {
+        OrderPlacedEvent event = new OrderPlacedEvent();
+        event.orderId = order.getId();
+        event.userId = order.getUser().getId();
+        event.username = order.getUser().getUsername();
+        event.email = order.getEmail();
+        event.fullName = order.getFullName();
+        event.totalAmount = order.getTotalAmount();
+        event.discountAmount = order.getDiscountAmount();
+        event.promoCode = order.getPromoCode();
+        event.orderDate = order.getOrderDate();
+        if (order.getOrderItems() != null) {
+            for (OrderItem orderItem : order.getOrderItems()) {
+                event.items.add(new Item(orderItem.getProduct().getId(), orderItem.getProduct().getTitle(),
+                        orderItem.getQuantity(), orderItem.getPrice()));
+            }
+        }
+        return event;
+    }
+
+    // Getters and Setters
+    public Long getOrderId() { return orderId; }
+    public void setOrderId(Long orderId) { this.orderId = orderId; }
+
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+
+    public String getUsername() { return username; }
+    public void setUsername(String username) { this.username = username; }
+
+    public String getEmail() { return email; }
+    public void setEmail(String email) { this.email = email; }
+
+    public String getFullName() { return fullName; }
+    public void setFullName(String fullName) { this.fullName = fullName; }
+
+    public Double getTotalAmount() { return totalAmount; }
+    public void setTotalAmount(Double totalAmount) { this.totalAmount = totalAmount; }
+
+    public Double getDiscountAmount() { return discountAmount; }
+    public void setDiscountAmount(Double discountAmount) { this.discountAmount = discountAmount; }
+
+    public String getPromoCode() { return promoCode; }
+    public void setPromoCode(String promoCode) { this.promoCode = promoCode; }
+
+    public LocalDateTime getOrderDate() { return orderDate; }
+    public void setOrderDate(LocalDateTime orderDate) { this.orderDate = orderDate; }
+
+    public List<Item> getItems() { return items; }
+    public void setItems(List<Item> items) { this.items = items; }
+
+    public static class Item {
+        private Long productId;
+        private String title;
+        private Integer quantity;
+        private Double price;
+
+        public Item() {}
+
+        public Item(Long productId, String title, Integer quantity, Double price) {
+            this.productId = productId;
+            this.title = title;
+            this.quantity = quantity;
+            this.price = price;
+        }
+
+        // Getters and Setters
+        public Long getProductId() { return productId; }
+        public void setProductId(Long productId) { this.productId = productId; }
+
+        public String getTitle() { return title; }
+        public void setTitle(String title) { this.title = title; }
+
+        public Integer getQuantity() { return quantity; }
+        public void setQuantity(Integer quantity) { this.quantity = quantity; }
+
+        public Double getPrice() { return price; }
+        public void setPrice(Double price) { this.price = price; }
+    }
+}
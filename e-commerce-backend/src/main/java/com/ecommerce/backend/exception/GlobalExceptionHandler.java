@@ -1,17 +1,30 @@
 package com.ecommerce.backend.exception;
 
+import com.ecommerce.backend.util.ErrorSampler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
 
 @RestControllerAdvice
 public class GlobalExceptionHandler {
 
+    private static final Logger logger = LoggerFactory.getLogger(GlobalExceptionHandler.class);
+
+    private final ErrorSampler errorSampler;
+
+    public GlobalExceptionHandler(@Value("${app.logging.error-sample-window-seconds:60}") long sampleWindowSeconds) {
+        this.errorSampler = new ErrorSampler(Duration.ofSeconds(sampleWindowSeconds), 1000);
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<Map<String, String>> handleValidationExceptions(MethodArgumentNotValidException ex) {
         Map<String, String> errors = new HashMap<>();
@@ -23,10 +36,23 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(errors, HttpStatus.BAD_REQUEST);
     }
 
+    @ExceptionHandler(UploadRejectedException.class)
+    public ResponseEntity<Map<String, String>> handleUploadRejected(UploadRejectedException ex) {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", ex.getMessage());
+        return new ResponseEntity<>(error, ex.getStatus());
+    }
+
+    @ExceptionHandler(InvalidStatusTransitionException.class)
+    public ResponseEntity<Map<String, String>> handleInvalidStatusTransition(InvalidStatusTransitionException ex) {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", ex.getMessage());
+        return new ResponseEntity<>(error, HttpStatus.CONFLICT);
+    }
+
     @ExceptionHandler(RuntimeException.class)
     public ResponseEntity<Map<String, String>> handleRuntimeException(RuntimeException ex) {
-        System.err.println("Runtime Exception: " + ex.getMessage());
-        ex.printStackTrace();
+        logSampled("Runtime Exception", ex);
         Map<String, String> error = new HashMap<>();
         error.put("error", ex.getMessage());
         return new ResponseEntity<>(error, HttpStatus.INTERNAL_SERVER_ERROR);
@@ -34,10 +60,20 @@ public class GlobalExceptionHandler {
 
     @ExceptionHandler(Exception.class)
     public ResponseEntity<Map<String, String>> handleGenericException(Exception ex) {
-        System.err.println("Generic Exception: " + ex.getMessage());
-        ex.printStackTrace();
+        logSampled("Generic Exception", ex);
         Map<String, String> error = new HashMap<>();
         error.put("error", "An unexpected error occurred: " + ex.getMessage());
         return new ResponseEntity<>(error, HttpStatus.INTERNAL_SERVER_ERROR);
     }
-}
\ No newline at end of file
+
+    /**
+     * Logs the stack trace of the first occurrence of each distinct failure per window; repeats in
+     * between are counted and the count is reported with the next one logged.
+     */
+    private void logSampled(String message, Exception ex) {
+        long suppressed = errorSampler.sample(ErrorSampler.keyOf(ex));
+        if (suppressed >= 0) {
+            logger.error("{}: {} ({} identical errors since last reported)", message, ex.getMessage(), suppressed, ex);
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.ecommerce.backend.exception;
+
+/**
+ * Thrown when an order is asked to move to a status it cannot reach from its current one.
+ */
+public class InvalidStatusTransitionException extends RuntimeException {
+
+    public InvalidStatusTransitionException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,11 @@
+package com.ecommerce.backend.exception;
+
+/**
+ * Thrown in fail mode when a request issues more SQL statements than its budget allows.
+ */
+public class QueryBudgetExceededException extends RuntimeException {
+
+    public QueryBudgetExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,21 @@
+package com.ecommerce.backend.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * An upload refused before it was stored: not a supported image, over the size limit, or arriving
+ * while every upload worker is busy.
+ */
+public class UploadRejectedException extends RuntimeException {
+
+    private final HttpStatus status;
+
+    public UploadRejectedException(HttpStatus status, String message) {
+        super(message);
+        this.status = status;
+    }
+
+    public HttpStatus getStatus() {
+        return status;
+    }
+}
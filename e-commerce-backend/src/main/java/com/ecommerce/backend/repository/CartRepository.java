@@ -4,6 +4,7 @@ import com.ecommerce.backend.entity.Cart;
 import com.ecommerce.backend.entity.User;
 import com.ecommerce.backend.entity.Product;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -17,6 +18,14 @@ public interface CartRepository extends JpaRepository<Cart, Long> {
     void deleteByUserAndProduct(User user, Product product);
     void deleteByUser(User user);
     
+    @Modifying
+    @Query("UPDATE Cart c SET c.quantity = c.quantity - :quantity WHERE c.user.id = :userId AND c.product.id = :productId")
+    int decreaseQuantity(@Param("userId") Long userId, @Param("productId") Long productId, @Param("quantity") int quantity);
+
+    @Modifying
+    @Query("DELETE FROM Cart c WHERE c.user.id = :userId AND c.quantity <= 0")
+    int deleteEmptyLines(@Param("userId") Long userId);
+
     @Query("SELECT COUNT(c) FROM Cart c WHERE c.user = :user")
     Long getCartItemCount(@Param("user") User user);
 }
\ No newline at end of file
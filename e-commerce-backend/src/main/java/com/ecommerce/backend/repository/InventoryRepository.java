@@ -0,0 +1,20 @@
+package com.ecommerce.backend.repository;
+
+import com.ecommerce.backend.entity.Inventory;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface InventoryRepository extends JpaRepository<Inventory, Long> {
+
+    @Modifying
+    @Query("UPDATE Inventory i SET i.onHand = i.onHand + :delta WHERE i.productId = :productId")
+    int adjustOnHand(@Param("productId") Long productId, @Param("delta") Long delta);
+
+    @Modifying
+    @Query("UPDATE Inventory i SET i.reserved = :reserved WHERE i.productId = :productId")
+    int updateReserved(@Param("productId") Long productId, @Param("reserved") Long reserved);
+}
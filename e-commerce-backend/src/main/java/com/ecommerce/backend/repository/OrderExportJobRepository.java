@@ -0,0 +1,11 @@
+package com.ecommerce.backend.repository;
+
+import com.ecommerce.backend.entity.OrderExportJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import java.util.List;
+
+@Repository
+public interface OrderExportJobRepository extends JpaRepository<OrderExportJob, Long> {
+    List<OrderExportJob> findByStatusIn(List<OrderExportJob.Status> statuses);
+}
@@ -0,0 +1,39 @@
+package com.ecommerce.backend.repository;
+
+import com.ecommerce.backend.entity.OrderOutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OrderOutboxEventRepository extends JpaRepository<OrderOutboxEvent, Long> {
+    List<OrderOutboxEvent> findByStatusAndCreatedAtBeforeOrderByIdAsc(OrderOutboxEvent.Status status, LocalDateTime cutoff, Pageable pageable);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE OrderOutboxEvent e SET e.status = :status, e.processedAt = :processedAt WHERE e.id = :id")
+    int markProcessed(@Param("id") Long id, @Param("status") OrderOutboxEvent.Status status,
+                      @Param("processedAt") LocalDateTime processedAt);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE OrderOutboxEvent e SET e.attempts = e.attempts + 1, e.lastError = :error WHERE e.id = :id")
+    int recordFailure(@Param("id") Long id, @Param("error") String error);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE OrderOutboxEvent e SET e.status = :status WHERE e.id = :id AND e.attempts >= :maxAttempts")
+    int markIfAttemptsExhausted(@Param("id") Long id, @Param("status") OrderOutboxEvent.Status status,
+                                @Param("maxAttempts") int maxAttempts);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM OrderOutboxEvent e WHERE e.status = :status AND e.processedAt < :cutoff")
+    int deleteProcessedBefore(@Param("status") OrderOutboxEvent.Status status, @Param("cutoff") LocalDateTime cutoff);
+}
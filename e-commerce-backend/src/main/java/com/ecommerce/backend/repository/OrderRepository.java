@@ -2,17 +2,73 @@ package com.ecommerce.backend.repository;
 
 import com.ecommerce.backend.entity.Order;
 import com.ecommerce.backend.entity.User;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
-    List<Order> findAllByOrderByOrderDateDesc();
+    @EntityGraph(Order.WITH_ITEMS_AND_PRODUCTS)
     List<Order> findByUserOrderByOrderDateDesc(User user);
-    
-    @Query("SELECT o FROM Order o WHERE o.status = 'PENDING' AND o.orderDate <= :cutoffTime")
-    List<Order> findPendingOrdersOlderThan(LocalDateTime cutoffTime);
-}
\ No newline at end of file
+
+    @EntityGraph(Order.WITH_ITEMS_AND_PRODUCTS)
+    Optional<Order> findWithItemsById(Long id);
+
+    // Ids only: paging a query that fetches a collection would paginate in memory
+    @Query(value = "SELECT o.id FROM Order o", countQuery = "SELECT COUNT(o) FROM Order o")
+    Page<Long> findOrderIds(Pageable pageable);
+
+    // Claims the cart clean-up for an order; 0 when it has already been done
+    @Modifying
+    @Query("UPDATE Order o SET o.cartCleared = true WHERE o.id = :id AND (o.cartCleared IS NULL OR o.cartCleared = false)")
+    int markCartCleared(@Param("id") Long id);
+
+    // Status changes lock the row, so two of them cannot both start from the same status
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM Order o WHERE o.id = :id")
+    Optional<Order> findByIdForUpdate(@Param("id") Long id);
+
+    // Ids only, in id order after a cursor, so the delivery sweep can page without holding locks
+    @Query("SELECT o.id FROM Order o WHERE o.status = 'PENDING' AND o.orderDate <= :cutoffTime AND o.id > :afterId ORDER BY o.id")
+    List<Long> findPendingOrderIdsOlderThan(@Param("cutoffTime") LocalDateTime cutoffTime,
+                                            @Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("SELECT o.status, COUNT(o), COALESCE(SUM(o.totalAmount), 0) FROM Order o GROUP BY o.status")
+    List<Object[]> countAndSumByStatus();
+
+    @Query("SELECT o.id FROM Order o ORDER BY o.orderDate DESC, o.id DESC")
+    List<Long> findRecentOrderIds(Pageable pageable);
+
+    @Query("SELECT DISTINCT o FROM Order o LEFT JOIN FETCH o.orderItems i LEFT JOIN FETCH i.product WHERE o.id IN :ids")
+    List<Order> findWithItemsByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * One flat row per order item (or per order without items), newest orders first and each
+     * order's rows contiguous. Scalar rows are never added to the persistence context, so reading
+     * the stream inside a read-only transaction uses constant memory.
+     */
+    @QueryHints({
+        @QueryHint(name = "org.hibernate.fetchSize", value = "500"),
+        @QueryHint(name = "org.hibernate.readOnly", value = "true")
+    })
+    @Query("SELECT o.id, o.totalAmount, o.discountAmount, o.promoCode, o.status, o.orderDate, o.deliveryDate, " +
+           "o.fullName, o.email, o.phone, o.street, o.city, o.state, o.zipCode, o.country, " +
+           "i.id, i.quantity, i.price, p.title, p.image " +
+           "FROM Order o LEFT JOIN o.orderItems i LEFT JOIN i.product p " +
+           "ORDER BY o.orderDate DESC, o.id DESC, i.id ASC")
+    Stream<Object[]> streamAllWithItems();
+}
@@ -0,0 +1,15 @@
+package com.ecommerce.backend.repository;
+
+import com.ecommerce.backend.entity.ProductActivity;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import java.util.List;
+
+@Repository
+public interface ProductActivityRepository extends JpaRepository<ProductActivity, Long> {
+
+    @Query("SELECT a FROM ProductActivity a WHERE a.trendingScore > 0 ORDER BY a.trendingScore DESC")
+    List<ProductActivity> findTopByTrendingScore(Pageable pageable);
+}
@@ -4,8 +4,11 @@ import com.ecommerce.backend.entity.Product;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
@@ -13,4 +16,13 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     List<Product> findByCategoryIgnoreCase(String category);
     Page<Product> findByCategoryIgnoreCase(String category, Pageable pageable);
     List<Product> findByCategoryIgnoreCaseAndIdNot(String category, Long id);
+
+    @Query("SELECT p.id, p.price FROM Product p")
+    List<Object[]> findAllPrices();
+
+    @Query("SELECT DISTINCT p.category FROM Product p ORDER BY p.category")
+    List<String> findDistinctCategories();
+
+    @Query("SELECT p.image FROM Product p WHERE p.id = :id")
+    Optional<String> findImageById(@Param("id") Long id);
 }
\ No newline at end of file
@@ -0,0 +1,18 @@
+package com.ecommerce.backend.repository;
+
+import com.ecommerce.backend.entity.PromoCodeRedemption;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface PromoCodeRedemptionRepository extends JpaRepository<PromoCodeRedemption, Long> {
+    long countByPromoCodeId(Long promoCodeId);
+    long countByPromoCodeIdAndUserId(Long promoCodeId, Long userId);
+    Optional<PromoCodeRedemption> findByOrderId(Long orderId);
+
+    @Query("SELECT r.promoCode.id, COUNT(r) FROM PromoCodeRedemption r GROUP BY r.promoCode.id")
+    List<Object[]> countRedemptionsByPromoCode();
+}
@@ -2,10 +2,19 @@ package com.ecommerce.backend.repository;
 
 import com.ecommerce.backend.entity.PromoCode;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface PromoCodeRepository extends JpaRepository<PromoCode, Long> {
     Optional<PromoCode> findByCodeAndIsActiveTrue(String code);
-}
\ No newline at end of file
+    List<PromoCode> findByIsActiveTrue();
+
+    @Modifying
+    @Query("UPDATE PromoCode p SET p.redemptionCount = :count WHERE p.id = :id")
+    int updateRedemptionCount(@Param("id") Long id, @Param("count") Integer count);
+}
@@ -0,0 +1,40 @@
+package com.ecommerce.backend.repository;
+
+import com.ecommerce.backend.entity.SalesRollup;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface SalesRollupRepository extends JpaRepository<SalesRollup, Long> {
+
+    @Query("SELECT r FROM SalesRollup r WHERE r.granularity = :granularity AND r.productId = :productId " +
+           "AND r.bucketStart >= :from AND r.bucketStart < :to ORDER BY r.bucketStart")
+    List<SalesRollup> findSeries(@Param("granularity") SalesRollup.Granularity granularity,
+                                 @Param("productId") Long productId,
+                                 @Param("from") LocalDateTime from,
+                                 @Param("to") LocalDateTime to);
+
+    @Query("SELECT r.bucketStart, r.category, SUM(r.revenueCents), SUM(r.units) FROM SalesRollup r " +
+           "WHERE r.granularity = :granularity AND r.productId <> :allProducts " +
+           "AND r.bucketStart >= :from AND r.bucketStart < :to " +
+           "GROUP BY r.bucketStart, r.category ORDER BY r.bucketStart, r.category")
+    List<Object[]> sumByCategory(@Param("granularity") SalesRollup.Granularity granularity,
+                                 @Param("allProducts") Long allProducts,
+                                 @Param("from") LocalDateTime from,
+                                 @Param("to") LocalDateTime to);
+
+    @Query("SELECT r.productId, MAX(r.category), SUM(r.revenueCents), SUM(r.units), SUM(r.orderCount) FROM SalesRollup r " +
+           "WHERE r.granularity = :granularity AND r.productId <> :allProducts " +
+           "AND r.bucketStart >= :from AND r.bucketStart < :to " +
+           "GROUP BY r.productId ORDER BY SUM(r.revenueCents) DESC")
+    List<Object[]> topProducts(@Param("granularity") SalesRollup.Granularity granularity,
+                               @Param("allProducts") Long allProducts,
+                               @Param("from") LocalDateTime from,
+                               @Param("to") LocalDateTime to,
+                               Pageable pageable);
+}
@@ -0,0 +1,31 @@
+package com.ecommerce.backend.repository;
+
+import com.ecommerce.backend.entity.StockReservation;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface StockReservationRepository extends JpaRepository<StockReservation, Long> {
+    List<StockReservation> findByOrderIdAndStatus(Long orderId, StockReservation.Status status);
+    List<StockReservation> findByStatusOrderByIdAsc(StockReservation.Status status, Pageable pageable);
+    List<StockReservation> findByStatusAndExpiresAtBefore(StockReservation.Status status, LocalDateTime cutoff, Pageable pageable);
+
+    @Query("SELECT r.productId, r.status, SUM(r.quantity) FROM StockReservation r " +
+           "WHERE r.status IN :statuses GROUP BY r.productId, r.status")
+    List<Object[]> sumQuantitiesByProductAndStatus(@Param("statuses") Collection<StockReservation.Status> statuses);
+
+    @Modifying
+    @Query("UPDATE StockReservation r SET r.status = :to WHERE r.id = :id AND r.status = :from")
+    int transition(@Param("id") Long id, @Param("from") StockReservation.Status from, @Param("to") StockReservation.Status to);
+
+    @Modifying
+    @Query("UPDATE StockReservation r SET r.status = :to WHERE r.id IN :ids AND r.status = :from")
+    int transitionAll(@Param("ids") Collection<Long> ids, @Param("from") StockReservation.Status from, @Param("to") StockReservation.Status to);
+}
@@ -0,0 +1,55 @@
+package com.ecommerce.backend.repository;
+
+import com.ecommerce.backend.entity.StoredFile;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
+
+@Repository
+public interface StoredFileRepository extends JpaRepository<StoredFile, String> {
+
+    /**
+     * Registers content, or adds {@code references} to it if it is already stored.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO stored_files (content_hash, filename, size, ref_count, created_at) " +
+                   "VALUES (:hash, :filename, :size, :references, :now) " +
+                   "ON CONFLICT (content_hash) DO UPDATE SET ref_count = stored_files.ref_count + :references",
+           nativeQuery = true)
+    int acquire(@Param("hash") String hash,
+                @Param("filename") String filename,
+                @Param("size") long size,
+                @Param("references") int references,
+                @Param("now") LocalDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE StoredFile f SET f.refCount = f.refCount + 1 WHERE f.filename = :filename")
+    int retain(@Param("filename") String filename);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE StoredFile f SET f.refCount = f.refCount - 1 WHERE f.filename = :filename AND f.refCount > 0")
+    int release(@Param("filename") String filename);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM StoredFile f WHERE f.filename = :filename AND f.refCount = 0")
+    int deleteIfUnreferenced(@Param("filename") String filename);
+
+    /**
+     * Recomputes every reference count from the products and users that point at the file.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE stored_files s SET ref_count = " +
+                   "(SELECT COUNT(*) FROM products p WHERE p.image_url = '/uploads/' || s.filename) + " +
+                   "(SELECT COUNT(*) FROM users u WHERE u.profile_image = '/uploads/' || s.filename)",
+           nativeQuery = true)
+    int recountReferences();
+}
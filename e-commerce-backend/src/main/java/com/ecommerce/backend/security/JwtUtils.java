@@ -1,15 +1,28 @@
 package com.ecommerce.backend.security;
 
 import io.jsonwebtoken.*;
+import com.ecommerce.backend.util.ErrorSampler;
 import io.jsonwebtoken.security.Keys;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import java.security.Key;
+import java.time.Duration;
 import java.util.Date;
 
 @Component
 public class JwtUtils {
-    
+
+    private static final Logger logger = LoggerFactory.getLogger(JwtUtils.class);
+
+    // Clients retry with the same bad token, so each kind of rejection is logged once per window
+    private final ErrorSampler rejectionSampler;
+
+    public JwtUtils(@Value("${app.logging.error-sample-window-seconds:60}") long sampleWindowSeconds) {
+        this.rejectionSampler = new ErrorSampler(Duration.ofSeconds(sampleWindowSeconds), 16);
+    }
+
     @Value("${app.jwtSecret:mySecretKey}")
     private String jwtSecret;
 
@@ -53,14 +66,21 @@ public class JwtUtils {
             Jwts.parserBuilder().setSigningKey(getSigningKey()).build().parseClaimsJws(authToken);
             return true;
         } catch (MalformedJwtException e) {
-            System.err.println("Invalid JWT token: " + e.getMessage());
+            logRejection("Invalid JWT token", e);
         } catch (ExpiredJwtException e) {
-            System.err.println("JWT token is expired: " + e.getMessage());
+            logger.debug("JWT token is expired: {}", e.getMessage());
         } catch (UnsupportedJwtException e) {
-            System.err.println("JWT token is unsupported: " + e.getMessage());
+            logRejection("JWT token is unsupported", e);
         } catch (IllegalArgumentException e) {
-            System.err.println("JWT claims string is empty: " + e.getMessage());
+            logRejection("JWT claims string is empty", e);
         }
         return false;
     }
+
+    private void logRejection(String message, Exception e) {
+        long suppressed = rejectionSampler.sample(e.getClass().getName());
+        if (suppressed >= 0) {
+            logger.warn("{}: {} ({} more since last reported)", message, e.getMessage(), suppressed);
+        }
+    }
 }
\ No newline at end of file
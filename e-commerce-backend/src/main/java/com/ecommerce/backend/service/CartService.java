@@ -4,6 +4,7 @@ import com.ecommerce.backend.entity.Cart;
 import com.ecommerce.backend.entity.Product;
 import com.ecommerce.backend.entity.User;
 import com.ecommerce.backend.repository.CartRepository;
+import com.ecommerce.backend.repository.OrderRepository;
 import com.ecommerce.backend.repository.ProductRepository;
 import com.ecommerce.backend.repository.UserRepository;
 import org.slf4j.Logger;
@@ -12,6 +13,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
@@ -28,6 +30,9 @@ public class CartService {
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private OrderRepository orderRepository;
+
     @Transactional(readOnly = true)
     public List<Cart> getUserCart(String username) {
         Optional<User> userOpt = userRepository.findByUsername(username);
@@ -115,6 +120,22 @@ public class CartService {
         }
     }
 
+    /**
+     * Takes an order's lines out of the buyer's cart: each ordered quantity is subtracted and lines
+     * left empty are removed, so anything added after checkout stays. The order is marked in the
+     * same transaction, which makes a second call for the same order a no-op.
+     */
+    @Transactional
+    public void removeOrderedItems(Long orderId, Long userId, Map<Long, Integer> quantities) {
+        if (orderRepository.markCartCleared(orderId) == 0) {
+            logger.debug("Cart already cleared for order {}", orderId);
+            return;
+        }
+        quantities.forEach((productId, quantity) -> cartRepository.decreaseQuantity(userId, productId, quantity));
+        cartRepository.deleteEmptyLines(userId);
+        logger.info("Removed {} ordered products from the cart of user {}", quantities.size(), userId);
+    }
+
     public Long getCartItemCount(String username) {
         Optional<User> userOpt = userRepository.findByUsername(username);
         if (userOpt.isPresent()) {
@@ -0,0 +1,255 @@
+package com.ecommerce.backend.service;
+
+import com.ecommerce.backend.dto.ProductView;
+import com.ecommerce.backend.util.SparseFields;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.ser.FilterProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.reflect.RecordComponent;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serialized bodies of the first catalog listing pages, kept both as-is and gzipped, keyed by
+ * listing, page, size, fields and format. Fields are keyed in canonical form, reduced to
+ * {@link ProductView} properties, so clients cannot grow the cache by varying the parameter.
+ *
+ * Every entry is stamped with the catalog ETag current when its query started. A lookup whose stamp
+ * differs from the current tag is a miss, so the version bumps {@link ProductService} and the
+ * bulk import already make through {@link CatalogVersions} invalidate the whole cache at once,
+ * without a purge. A hit hands back stored bytes: no query, no serialization, no compression.
+ */
+@Component
+public class CatalogPageCache {
+
+    public static final MediaType APPLICATION_SMILE = new MediaType("application", "x-jackson-smile");
+
+    private static final Set<String> VIEW_PROPERTIES = Arrays.stream(ProductView.class.getRecordComponents())
+            .map(RecordComponent::getName)
+            .collect(Collectors.toUnmodifiableSet());
+
+    public enum Format {
+        JSON(MediaType.APPLICATION_JSON), SMILE(APPLICATION_SMILE), CBOR(MediaType.APPLICATION_CBOR);
+
+        private final MediaType mediaType;
+
+        Format(MediaType mediaType) {
+            this.mediaType = mediaType;
+        }
+
+        public MediaType getMediaType() { return mediaType; }
+
+        /**
+         * The format an Accept header asks for, preferring higher quality values, or null when it
+         * asks for none of them and the request should go through normal negotiation.
+         */
+        public static Format negotiate(String accept) {
+            if (accept == null || accept.isBlank()) {
+                return JSON;
+            }
+            List<MediaType> types;
+            try {
+                types = new ArrayList<>(MediaType.parseMediaTypes(accept));
+            } catch (InvalidMediaTypeException e) {
+                return null;
+            }
+            types.sort(Comparator.comparingDouble(MediaType::getQualityValue).reversed());
+            for (MediaType type : types) {
+                if (type.getQualityValue() == 0) {
+                    break;
+                }
+                if (type.equalsTypeAndSubtype(APPLICATION_SMILE)) {
+                    return SMILE;
+                }
+                if (type.equalsTypeAndSubtype(MediaType.APPLICATION_CBOR)) {
+                    return CBOR;
+                }
+                if (type.includes(MediaType.APPLICATION_JSON)) {
+                    return JSON;
+                }
+            }
+            return null;
+        }
+    }
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MappingJackson2SmileHttpMessageConverter smileConverter;
+
+    @Autowired
+    private MappingJackson2CborHttpMessageConverter cborConverter;
+
+    @Value("${app.catalog-page-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.catalog-page-cache.max-pages:3}")
+    private int maxPages;
+
+    @Value("${app.catalog-page-cache.max-page-size:100}")
+    private int maxPageSize;
+
+    @Value("${app.catalog-page-cache.max-entries:512}")
+    private int maxEntries;
+
+    @Value("${app.catalog-page-cache.compress-min-bytes:2048}")
+    private int compressMinBytes;
+
+    private final ConcurrentHashMap<Key, Entry> entries = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Only the leading pages of ordinary sizes are worth keeping; deep pages go to the database.
+     */
+    public boolean isCacheable(int page, int size) {
+        return enabled && page >= 0 && page < maxPages && size > 0 && size <= maxPageSize;
+    }
+
+    /**
+     * The cached page, or the page built from {@code body} and stored under {@code etag}. The tag
+     * must be read before the body's query runs, so a bump racing with the build leaves an entry
+     * that is already stale rather than one that hides the change.
+     */
+    public Entry get(String listing, int page, int size, String fields, Format format, String etag,
+                     Supplier<Object> body) throws IOException {
+        String canonicalFields = SparseFields.canonical(fields, VIEW_PROPERTIES);
+        if (canonicalFields == null) {
+            // Names no product property; rare enough to build every time rather than keep
+            misses.increment();
+            return build(etag, format, body.get(), fields);
+        }
+        Key key = new Key(listing, page, size, canonicalFields, format);
+        Entry entry = entries.get(key);
+        if (entry != null && entry.etag.equals(etag)) {
+            hits.increment();
+            return entry;
+        }
+        misses.increment();
+        entry = build(etag, format, body.get(), canonicalFields);
+        store(key, entry);
+        return entry;
+    }
+
+    public int size() { return entries.size(); }
+
+    public long getHits() { return hits.sum(); }
+
+    public long getMisses() { return misses.sum(); }
+
+    /**
+     * Whether an Accept-Encoding header allows gzip, either by name or through a wildcard.
+     */
+    public static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        // An explicit gzip entry overrides the wildcard, so "gzip;q=0, *" still refuses gzip
+        double gzip = -1;
+        double wildcard = -1;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim();
+            double quality = 1.0;
+            for (int i = 1; i < parts.length; i++) {
+                String param = parts[i].trim();
+                if (param.startsWith("q=")) {
+                    try {
+                        quality = Double.parseDouble(param.substring(2));
+                    } catch (NumberFormatException e) {
+                        quality = 0;
+                    }
+                }
+            }
+            if (name.equalsIgnoreCase("gzip")) {
+                gzip = quality;
+            } else if (name.equals("*")) {
+                wildcard = quality;
+            }
+        }
+        return gzip >= 0 ? gzip > 0 : wildcard > 0;
+    }
+
+    private Entry build(String etag, Format format, Object body, String fields) throws IOException {
+        ObjectWriter writer = mapperFor(format).writer();
+        FilterProvider filters = SparseFields.filters(fields);
+        if (filters != null) {
+            writer = writer.with(filters);
+        }
+        byte[] bytes = writer.writeValueAsBytes(body);
+        byte[] gzipped = null;
+        if (bytes.length >= compressMinBytes) {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream(bytes.length / 4);
+            try (GZIPOutputStream gzip = new GZIPOutputStream(buffer)) {
+                gzip.write(bytes);
+            }
+            if (buffer.size() < bytes.length) {
+                gzipped = buffer.toByteArray();
+            }
+        }
+        return new Entry(etag, format.mediaType, bytes, gzipped);
+    }
+
+    private void store(Key key, Entry entry) {
+        if (!entries.containsKey(key) && entries.size() >= maxEntries) {
+            // Entries from before the last bump can never hit again
+            entries.values().removeIf(existing -> !existing.etag.equals(entry.etag));
+            if (entries.size() >= maxEntries) {
+                return;
+            }
+        }
+        entries.put(key, entry);
+    }
+
+    private ObjectMapper mapperFor(Format format) {
+        return switch (format) {
+            case SMILE -> smileConverter.getObjectMapper();
+            case CBOR -> cborConverter.getObjectMapper();
+            default -> objectMapper;
+        };
+    }
+
+    public static class Entry {
+        private final String etag;
+        private final MediaType mediaType;
+        private final byte[] body;
+        private final byte[] gzipped;
+
+        Entry(String etag, MediaType mediaType, byte[] body, byte[] gzipped) {
+            this.etag = etag;
+            this.mediaType = mediaType;
+            this.body = body;
+            this.gzipped = gzipped;
+        }
+
+        public MediaType getMediaType() { return mediaType; }
+
+        public byte[] getBody() { return body; }
+
+        // Null when the body is too small for compression to pay off
+        public byte[] getGzipped() { return gzipped; }
+    }
+
+    private record Key(String listing, int page, int size, String fields, Format format) {}
+}
@@ -0,0 +1,211 @@
+package com.ecommerce.backend.service;
+
+import com.ecommerce.backend.entity.Product;
+import com.ecommerce.backend.repository.ProductRepository;
+import com.ecommerce.backend.util.LongLongMap;
+import com.ecommerce.backend.util.Money;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Catalog prices in cents keyed by product id, held as immutable primitive maps.
+ *
+ * Readers take the current {@link Prices} from a volatile field and never lock. It is a full base
+ * map plus a small overlay of recent changes. Writers copy only the overlay, so a single product
+ * save costs the size of the overlay rather than the catalog; once the overlay reaches
+ * {@code overlay-max-entries} it is folded into a new base in one full copy. {@link ProductService}
+ * pushes single-product changes; a scheduled full reload covers anything written around it.
+ */
+@Component
+public class CatalogPriceSnapshot {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogPriceSnapshot.class);
+
+    public static final long MISSING = -1L;
+
+    // Overlay value for ids the overlay says nothing about; MISSING there marks a removal
+    private static final long ABSENT = -2L;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Value("${app.pricing.snapshot-overlay-max-entries:256}")
+    private int overlayMaxEntries;
+
+    private volatile Prices prices = new Prices(new LongLongMap(0), new LongLongMap(0));
+
+    private final Object writeLock = new Object();
+
+    // Bumped by every incremental write so a full reload never overwrites a newer change
+    private long writeVersion;
+
+    private final LongAdder lookupHits = new LongAdder();
+
+    private final LongAdder lookupMisses = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        try {
+            refresh();
+        } catch (Exception e) {
+            logger.warn("Initial catalog price load failed, prices will be loaded on demand: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.pricing.snapshot-refresh-interval-ms:300000}")
+    public void scheduledRefresh() {
+        try {
+            refresh();
+        } catch (Exception e) {
+            logger.warn("Catalog price refresh failed, keeping previous snapshot: {}", e.getMessage());
+        }
+    }
+
+    public void refresh() {
+        long startVersion;
+        synchronized (writeLock) {
+            startVersion = writeVersion;
+        }
+        List<Object[]> rows = productRepository.findAllPrices();
+        LongLongMap next = new LongLongMap(rows.size());
+        for (Object[] row : rows) {
+            next.put((Long) row[0], Money.toCents((Double) row[1]));
+        }
+        synchronized (writeLock) {
+            if (writeVersion != startVersion) {
+                logger.debug("Catalog changed during reload, keeping incrementally updated snapshot");
+                return;
+            }
+            prices = new Prices(next, new LongLongMap(0));
+        }
+        logger.debug("Loaded {} catalog prices", next.size());
+    }
+
+    public Prices current() {
+        return prices;
+    }
+
+    public long priceCents(long productId) {
+        return prices.get(productId);
+    }
+
+    /**
+     * Loads any of the given products that are not in the snapshot with a single query.
+     */
+    public void ensureLoaded(long[] productIds, int count) {
+        Prices current = prices;
+        List<Long> missing = null;
+        for (int i = 0; i < count; i++) {
+            if (!current.containsKey(productIds[i])) {
+                if (missing == null) {
+                    missing = new ArrayList<>();
+                }
+                missing.add(productIds[i]);
+            }
+        }
+        int missed = missing != null ? missing.size() : 0;
+        lookupHits.add(count - missed);
+        if (missing != null) {
+            lookupMisses.add(missed);
+            putAll(productRepository.findAllById(missing));
+        }
+    }
+
+    public long getLookupHits() { return lookupHits.sum(); }
+
+    public long getLookupMisses() { return lookupMisses.sum(); }
+
+    public void update(Product product) {
+        if (product.getId() == null || product.getPrice() == null) {
+            return;
+        }
+        synchronized (writeLock) {
+            LongLongMap overlay = prices.overlay.copy(1);
+            overlay.put(product.getId(), Money.toCents(product.getPrice()));
+            publish(overlay);
+        }
+    }
+
+    public void putAll(Iterable<Product> products) {
+        synchronized (writeLock) {
+            List<Product> changed = new ArrayList<>();
+            products.forEach(changed::add);
+            if (changed.isEmpty()) {
+                return;
+            }
+            LongLongMap overlay = prices.overlay.copy(changed.size());
+            for (Product product : changed) {
+                if (product.getId() != null && product.getPrice() != null) {
+                    overlay.put(product.getId(), Money.toCents(product.getPrice()));
+                }
+            }
+            publish(overlay);
+        }
+    }
+
+    public void remove(Long productId) {
+        synchronized (writeLock) {
+            LongLongMap overlay = prices.overlay.copy(1);
+            overlay.put(productId, MISSING);
+            publish(overlay);
+        }
+    }
+
+    // Called under writeLock with the new overlay; folds it into the base once it grows too large
+    private void publish(LongLongMap overlay) {
+        LongLongMap base = prices.base;
+        if (overlay.size() >= overlayMaxEntries) {
+            base = base.copy(overlay.size());
+            LongLongMap folded = base;
+            overlay.forEach((id, cents) -> {
+                if (cents == MISSING) {
+                    folded.remove(id);
+                } else {
+                    folded.put(id, cents);
+                }
+            });
+            overlay = new LongLongMap(0);
+        }
+        prices = new Prices(base, overlay);
+        writeVersion++;
+    }
+
+    /**
+     * One consistent view of the catalog prices. Lookups are allocation-free: the overlay first,
+     * then the base.
+     */
+    public static final class Prices {
+        private final LongLongMap base;
+        private final LongLongMap overlay;
+
+        private Prices(LongLongMap base, LongLongMap overlay) {
+            this.base = base;
+            this.overlay = overlay;
+        }
+
+        /**
+         * The price in cents, or {@link #MISSING}.
+         */
+        public long get(long productId) {
+            long cents = overlay.get(productId, ABSENT);
+            return cents != ABSENT ? cents : base.get(productId, MISSING);
+        }
+
+        public boolean containsKey(long productId) {
+            return get(productId) != MISSING;
+        }
+
+        // Base entries plus pending changes; a change to a product already in the base counts twice
+        public int size() {
+            return base.size() + overlay.size();
+        }
+    }
+}
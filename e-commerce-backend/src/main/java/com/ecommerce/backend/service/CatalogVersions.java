@@ -0,0 +1,96 @@
+package com.ecommerce.backend.service;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Version counters behind the catalog ETags. The catalog version moves on any product write; a
+ * product's version moves when that product or its ratings change; the generation moves on bulk
+ * writes that touch products without naming them. Counters live in memory, so every tag carries
+ * this instance's start time and tags from before a restart never match.
+ *
+ * Bumps run after commit, so a tag is never paired with content older than the tag.
+ *
+ * The tags are weak: the same version is served as JSON, Smile or CBOR, gzipped or not, and the
+ * container only compresses responses whose validators allow it.
+ */
+@Component
+public class CatalogVersions {
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+    private final AtomicLong catalogVersion = new AtomicLong();
+
+    private final AtomicLong generation = new AtomicLong();
+
+    private final ConcurrentHashMap<Long, Long> productVersions = new ConcurrentHashMap<>();
+
+    public String catalogETag() {
+        return "W/\"c-" + epoch + "-" + catalogVersion.get() + "\"";
+    }
+
+    public String productETag(Long productId) {
+        return "W/\"p-" + epoch + "-" + generation.get() + "-" + productVersions.getOrDefault(productId, 0L) + "\"";
+    }
+
+    public void productChanged(Long productId) {
+        afterCommit(() -> {
+            productVersions.merge(productId, 1L, Long::sum);
+            catalogVersion.incrementAndGet();
+        });
+    }
+
+    public void ratingsChanged(Long productId) {
+        afterCommit(() -> productVersions.merge(productId, 1L, Long::sum));
+    }
+
+    public void catalogChanged() {
+        afterCommit(() -> {
+            generation.incrementAndGet();
+            catalogVersion.incrementAndGet();
+        });
+    }
+
+    /**
+     * Whether an {@code If-None-Match} header value matches the given tag. Weak comparison is
+     * used, as RFC 9110 requires for If-None-Match.
+     */
+    public static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isEmpty()) {
+            return false;
+        }
+        if (etag.startsWith("W/")) {
+            etag = etag.substring(2);
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*")) {
+                return true;
+            }
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void afterCommit(Runnable bump) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    bump.run();
+                }
+            });
+        } else {
+            bump.run();
+        }
+    }
+}
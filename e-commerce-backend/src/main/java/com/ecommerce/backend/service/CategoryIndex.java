@@ -0,0 +1,72 @@
+package com.ecommerce.backend.service;
+
+import com.ecommerce.backend.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Sorted list of distinct product categories, loaded on first use and republished as a new
+ * immutable list on change. Single-product writes add their category; deletes and bulk imports
+ * reload it with one DISTINCT query.
+ */
+@Component
+public class CategoryIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(CategoryIndex.class);
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private volatile List<String> categories;
+
+    // A lock rather than synchronized: refresh() queries the database, which would pin a virtual thread
+    private final ReentrantLock lock = new ReentrantLock();
+
+    public List<String> getCategories() {
+        List<String> current = categories;
+        if (current == null) {
+            refresh();
+            current = categories;
+        }
+        return current;
+    }
+
+    public void refresh() {
+        lock.lock();
+        try {
+            // Sorted in Java so binary searches in add() agree with the order regardless of database collation
+            List<String> loaded = new ArrayList<>(productRepository.findDistinctCategories());
+            Collections.sort(loaded);
+            categories = Collections.unmodifiableList(loaded);
+            logger.debug("Loaded {} categories", categories.size());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void add(String category) {
+        lock.lock();
+        try {
+            List<String> current = categories;
+            if (current == null || category == null) {
+                return;
+            }
+            int index = Collections.binarySearch(current, category);
+            if (index >= 0) {
+                return;
+            }
+            List<String> next = new ArrayList<>(current.size() + 1);
+            next.addAll(current);
+            next.add(-index - 1, category);
+            categories = Collections.unmodifiableList(next);
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package com.ecommerce.backend.service;
+
+import com.ecommerce.backend.entity.Order;
+import com.ecommerce.backend.event.OrderLifecycleListener;
+import com.ecommerce.backend.repository.OrderRepository;
+import com.ecommerce.backend.repository.ProductRepository;
+import com.ecommerce.backend.repository.UserRepository;
+import com.ecommerce.backend.util.Money;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Admin dashboard totals kept in memory so the dashboard never scans a table.
+ *
+ * The figures are a baseline loaded from the database plus deltas counted from service events
+ * after their transaction commits. A scheduled reconciliation reloads the baseline with one count
+ * per table and one grouped query over orders, then starts a fresh set of deltas. An event whose
+ * commit races with that reload may be counted twice or not at all until the next pass.
+ */
+@Service
+public class DashboardMetricsService implements OrderLifecycleListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(DashboardMetricsService.class);
+
+    private static final Order.OrderStatus[] STATUSES = Order.OrderStatus.values();
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    // Held across three queries; a synchronized method would pin a virtual thread to its carrier for all of them
+    private final ReentrantLock reconcileLock = new ReentrantLock();
+
+    private volatile State state = new State(new Baseline(0, 0, 0, 0, new long[STATUSES.length], null), null, new Deltas());
+
+    @PostConstruct
+    public void init() {
+        try {
+            reconcile();
+        } catch (Exception e) {
+            logger.warn("Initial dashboard metrics load failed, retrying on the next reconciliation: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.dashboard.reconcile-interval-ms:300000}")
+    public void scheduledReconcile() {
+        try {
+            reconcile();
+        } catch (Exception e) {
+            logger.warn("Dashboard metrics reconciliation failed, keeping running counters: {}", e.getMessage());
+        }
+    }
+
+    public void reconcile() {
+        reconcileLock.lock();
+        try {
+            // New events go to a fresh set of deltas; the old set stays visible until the reload replaces it
+            State current = state;
+            Deltas next = new Deltas();
+            state = new State(current.baseline, current.live, next);
+
+            long users = userRepository.count();
+            long products = productRepository.count();
+            long orders = 0;
+            long revenueCents = 0;
+            long[] byStatus = new long[STATUSES.length];
+            for (Object[] row : orderRepository.countAndSumByStatus()) {
+                Order.OrderStatus status = (Order.OrderStatus) row[0];
+                long count = ((Number) row[1]).longValue();
+                byStatus[status.ordinal()] = count;
+                orders += count;
+                if (status != Order.OrderStatus.CANCELLED) {
+                    revenueCents += Money.toCents(((Number) row[2]).doubleValue());
+                }
+            }
+
+            Baseline baseline = new Baseline(users, products, orders, revenueCents, byStatus, LocalDateTime.now());
+            state = new State(baseline, null, next);
+            logger.debug("Dashboard metrics reconciled: {} users, {} products, {} orders", users, products, orders);
+        } finally {
+            reconcileLock.unlock();
+        }
+    }
+
+    public Map<String, Object> getMetrics() {
+        State current = state;
+        Baseline baseline = current.baseline;
+
+        Map<String, Long> byStatus = new LinkedHashMap<>();
+        for (Order.OrderStatus status : STATUSES) {
+            int i = status.ordinal();
+            byStatus.put(status.name(), baseline.ordersByStatus[i] + current.sum(d -> d.ordersByStatus[i]));
+        }
+
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("totalUsers", baseline.users + current.sum(d -> d.users));
+        metrics.put("totalProducts", baseline.products + current.sum(d -> d.products));
+        metrics.put("totalOrders", baseline.orders + current.sum(d -> d.orders));
+        metrics.put("totalRevenue", Money.toDouble(baseline.revenueCents + current.sum(d -> d.revenueCents)));
+        metrics.put("ordersByStatus", byStatus);
+        metrics.put("metricsReconciledAt", baseline.reconciledAt);
+        return metrics;
+    }
+
+    public void userCreated() {
+        afterCommit(() -> state.live.users.increment());
+    }
+
+    public void userDeleted() {
+        afterCommit(() -> state.live.users.decrement());
+    }
+
+    public void productCreated() {
+        afterCommit(() -> state.live.products.increment());
+    }
+
+    public void productDeleted() {
+        afterCommit(() -> state.live.products.decrement());
+    }
+
+    @Override
+    public void onOrderCreated(Order order) {
+        Order.OrderStatus status = order.getStatus();
+        long cents = Money.toCents(order.getTotalAmount());
+        afterCommit(() -> {
+            Deltas live = state.live;
+            live.orders.increment();
+            live.ordersByStatus[status.ordinal()].increment();
+            if (status != Order.OrderStatus.CANCELLED) {
+                live.revenueCents.add(cents);
+            }
+        });
+    }
+
+    @Override
+    public void onOrderStatusChanged(Order order, Order.OrderStatus previousStatus) {
+        Order.OrderStatus status = order.getStatus();
+        if (status == previousStatus) {
+            return;
+        }
+        long cents = Money.toCents(order.getTotalAmount());
+        afterCommit(() -> {
+            Deltas live = state.live;
+            live.ordersByStatus[previousStatus.ordinal()].decrement();
+            live.ordersByStatus[status.ordinal()].increment();
+            if (status == Order.OrderStatus.CANCELLED) {
+                live.revenueCents.add(-cents);
+            } else if (previousStatus == Order.OrderStatus.CANCELLED) {
+                live.revenueCents.add(cents);
+            }
+        });
+    }
+
+    private void afterCommit(Runnable update) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    update.run();
+                }
+            });
+        } else {
+            update.run();
+        }
+    }
+
+    private static class Baseline {
+        final long users;
+        final long products;
+        final long orders;
+        final long revenueCents;
+        final long[] ordersByStatus;
+        final LocalDateTime reconciledAt;
+
+        Baseline(long users, long products, long orders, long revenueCents, long[] ordersByStatus, LocalDateTime reconciledAt) {
+            this.users = users;
+            this.products = products;
+            this.orders = orders;
+            this.revenueCents = revenueCents;
+            this.ordersByStatus = ordersByStatus;
+            this.reconciledAt = reconciledAt;
+        }
+    }
+
+    private static class Deltas {
+        final LongAdder users = new LongAdder();
+        final LongAdder products = new LongAdder();
+        final LongAdder orders = new LongAdder();
+        final LongAdder revenueCents = new LongAdder();
+        final LongAdder[] ordersByStatus = new LongAdder[STATUSES.length];
+
+        Deltas() {
+            for (int i = 0; i < ordersByStatus.length; i++) {
+                ordersByStatus[i] = new LongAdder();
+            }
+        }
+    }
+
+    private static class State {
+        final Baseline baseline;
+        // Deltas from before a reconciliation in progress; null otherwise
+        final Deltas previous;
+        final Deltas live;
+
+        State(Baseline baseline, Deltas previous, Deltas live) {
+            this.baseline = baseline;
+            this.previous = previous;
+            this.live = live;
+        }
+
+        long sum(Function<Deltas, LongAdder> counter) {
+            long total = counter.apply(live).sum();
+            if (previous != null) {
+                total += counter.apply(previous).sum();
+            }
+            return total;
+        }
+    }
+}
@@ -1,5 +1,8 @@
 package com.ecommerce.backend.service;
 
+import com.ecommerce.backend.event.OrderPlacedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSender;
@@ -8,6 +11,8 @@ import org.springframework.stereotype.Service;
 @Service
 public class EmailService {
 
+    private static final Logger logger = LoggerFactory.getLogger(EmailService.class);
+
     @Autowired
     private JavaMailSender mailSender;
 
@@ -24,8 +29,34 @@ public class EmailService {
         try {
             mailSender.send(message);
         } catch (Exception e) {
-            System.err.println("Failed to send email: " + e.getMessage());
+            logger.error("Failed to send email: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Unlike {@link #sendOtpEmail}, failures propagate so the order event pipeline can retry.
+     */
+    public void sendOrderConfirmationEmail(OrderPlacedEvent event) {
+        SimpleMailMessage message = new SimpleMailMessage();
+        message.setTo(event.getEmail());
+        message.setSubject("Order Confirmation - Order #" + event.getOrderId());
+
+        StringBuilder body = new StringBuilder();
+        body.append("Hi ").append(event.getFullName()).append(",\n\n");
+        body.append("Thank you for your order! Here is a summary:\n\n");
+        for (OrderPlacedEvent.Item item : event.getItems()) {
+            body.append(item.getQuantity()).append(" x ").append(item.getTitle())
+                .append(" @ $").append(String.format("%.2f", item.getPrice())).append("\n");
         }
+        if (event.getDiscountAmount() != null && event.getDiscountAmount() > 0) {
+            body.append("\nDiscount (").append(event.getPromoCode()).append("): -$")
+                .append(String.format("%.2f", event.getDiscountAmount())).append("\n");
+        }
+        body.append("Total: $").append(String.format("%.2f", event.getTotalAmount())).append("\n\n");
+        body.append("Best regards,\nE-Commerce Team");
+
+        message.setText(body.toString());
+        mailSender.send(message);
     }
 
     private String getSubjectByType(String type) {
@@ -1,62 +1,411 @@
 package com.ecommerce.backend.service;
 
+import com.ecommerce.backend.entity.StoredFile;
+import com.ecommerce.backend.exception.UploadRejectedException;
+import com.ecommerce.backend.repository.StoredFileRepository;
+import com.ecommerce.backend.util.FileHandleCache;
+import com.ecommerce.backend.util.ImageFormat;
+import com.ecommerce.backend.util.UploadPaths;
+import jakarta.annotation.PreDestroy;
 import org.apache.commons.io.FilenameUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
-import java.util.UUID;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
 
 @Service
 public class FileStorageService {
 
+    private static final Logger logger = LoggerFactory.getLogger(FileStorageService.class);
+
+    // Stored names are generated here, so anything else (path separators, "..") is rejected outright
+    private static final Pattern STORED_NAME = Pattern.compile("[A-Za-z0-9][A-Za-z0-9._-]{0,254}");
+
+    private static final String UPLOAD_PREFIX = "/uploads/";
+
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
     @Value("${file.upload-dir}")
     private String uploadDir;
 
+    private final FileHandleCache fileHandleCache;
+
+    @Autowired
+    private ImageDerivativeService imageDerivativeService;
+
+    @Autowired
+    private StoredFileRepository storedFileRepository;
+
+    // Striped by content hash: storing and deleting the same content must not interleave
+    private final Lock[] locks = new Lock[64];
+
+    @Value("${file.max-upload-bytes:10485760}")
+    private long maxUploadBytes;
+
+    private final ThreadPoolExecutor uploadWorkers;
+
+    public FileStorageService(@Value("${file.open-handle-cache-size:512}") int openHandleCacheSize,
+                              @Value("${file.upload-threads:8}") int uploadThreads,
+                              @Value("${file.upload-queue-capacity:64}") int uploadQueueCapacity,
+                              @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.fileHandleCache = new FileHandleCache(openHandleCacheSize);
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        AtomicInteger threadCount = new AtomicInteger();
+        int poolSize = Math.max(1, uploadThreads);
+        // Upload workers mostly wait on the client; in virtual-thread mode the pool only bounds concurrency
+        ThreadFactory threadFactory = virtualThreads
+                ? Thread.ofVirtual().name("uploads-", 1).factory()
+                : runnable -> {
+                    Thread thread = new Thread(runnable, "uploads-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                };
+        this.uploadWorkers = new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, uploadQueueCapacity)), threadFactory);
+    }
+
+    /**
+     * Stores a multipart upload. The part has already been buffered by the multipart resolver; the
+     * streaming endpoints use {@link #storeUpload} instead and skip that copy.
+     */
     public String storeFile(MultipartFile file) throws IOException {
+        try (InputStream in = file.getInputStream()) {
+            return storeStream(in);
+        }
+    }
+
+    /**
+     * Receives an upload streamed as a raw request body on the upload worker pool, so servlet
+     * threads never wait on the client or the disk. The declared length, when known, is checked
+     * before anything is read.
+     */
+    public CompletableFuture<String> storeUpload(InputStream in, long contentLength) {
+        if (contentLength > maxUploadBytes) {
+            return CompletableFuture.failedFuture(tooLarge());
+        }
+        // Carries the request's correlation id over to the worker's log lines
+        Map<String, String> logContext = MDC.getCopyOfContextMap();
         try {
-            // Create upload directory if it doesn't exist
-            Path uploadPath = Paths.get(uploadDir);
-            System.out.println("Upload directory: " + uploadPath.toAbsolutePath());
-            
-            if (!Files.exists(uploadPath)) {
-                Files.createDirectories(uploadPath);
-                System.out.println("Created upload directory");
-            }
+            return CompletableFuture.supplyAsync(() -> {
+                if (logContext != null) {
+                    MDC.setContextMap(logContext);
+                }
+                try {
+                    return storeStream(in);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                } finally {
+                    MDC.clear();
+                }
+            }, uploadWorkers);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(new UploadRejectedException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "Too many uploads in progress, please retry"));
+        }
+    }
 
-            // Generate unique filename
-            String originalFilename = file.getOriginalFilename();
-            if (originalFilename == null || originalFilename.isEmpty()) {
-                throw new IOException("Original filename is null or empty");
-            }
-            
-            String extension = FilenameUtils.getExtension(originalFilename);
-            if (extension == null || extension.isEmpty()) {
-                extension = "jpg"; // Default extension
+    /**
+     * Stores an image under the SHA-256 of its content and returns its stored name. The first bytes
+     * decide whether it is an image at all and which extension it gets; the rest is copied through
+     * one buffer into a file under the upload root while being hashed, and the size limit is
+     * enforced as the bytes arrive. The file is then renamed into its shard, so the content is
+     * written once. Content that is already stored is not kept twice. The returned name carries one
+     * reference, which the caller hands to whatever points at it.
+     */
+    private String storeStream(InputStream in) throws IOException {
+        ReadableByteChannel source = Channels.newChannel(in);
+        ByteBuffer buffer = ByteBuffer.allocate(COPY_BUFFER_SIZE);
+        boolean more = fill(source, buffer);
+        buffer.flip();
+        ImageFormat format = ImageFormat.detect(buffer);
+        if (format == null) {
+            throw new UploadRejectedException(HttpStatus.UNSUPPORTED_MEDIA_TYPE,
+                    "Only JPEG, PNG, GIF, WebP and BMP images are allowed");
+        }
+
+        Path tmp = newTempFile();
+        try {
+            MessageDigest digest = newDigest();
+            long size = 0;
+            try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                while (buffer.hasRemaining()) {
+                    size += buffer.remaining();
+                    if (size > maxUploadBytes) {
+                        throw tooLarge();
+                    }
+                    digest.update(buffer.duplicate());
+                    while (buffer.hasRemaining()) {
+                        out.write(buffer);
+                    }
+                    buffer.clear();
+                    if (more) {
+                        more = fill(source, buffer);
+                    }
+                    buffer.flip();
+                }
             }
-            
-            String filename = UUID.randomUUID().toString() + "." + extension;
-            System.out.println("Generated filename: " + filename);
+            String filename = commit(tmp, UploadPaths.toHex(digest.digest()), format.getExtension(), size, 1, false);
+            logger.info("Stored upload {} ({} bytes)", filename, size);
+            return filename;
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
 
-            // Store file
-            Path targetLocation = uploadPath.resolve(filename);
-            Files.copy(file.getInputStream(), targetLocation, StandardCopyOption.REPLACE_EXISTING);
-            System.out.println("File stored at: " + targetLocation.toAbsolutePath());
+    /**
+     * Moves a file stored under a random name into content-addressed storage without registering
+     * any references; the migration recounts them once every path has been rewritten. The old file
+     * is left in place so a crash before the database is updated loses nothing.
+     */
+    public String importLegacyFile(String legacyName) throws IOException {
+        Path legacy = legacyPath(legacyName);
+        MessageDigest digest = newDigest();
+        long size;
+        try (InputStream in = new DigestInputStream(Files.newInputStream(legacy), digest)) {
+            size = in.transferTo(OutputStream.nullOutputStream());
+        }
+        return commit(legacy, UploadPaths.toHex(digest.digest()), extensionOf(legacyName), size, 0, true);
+    }
 
-            return filename;
-        } catch (Exception e) {
-            System.err.println("Error storing file: " + e.getMessage());
-            e.printStackTrace();
-            throw new IOException("Failed to store file: " + e.getMessage(), e);
+    /**
+     * Deletes a file stored under a random name, and any derivatives generated next to it.
+     */
+    public void deleteLegacyFile(String legacyName) throws IOException {
+        if (UploadPaths.isContentAddressed(legacyName)) {
+            return;
+        }
+        Path path = legacyPath(legacyName);
+        fileHandleCache.invalidate(path);
+        Files.deleteIfExists(path);
+        imageDerivativeService.deleteDerivatives(legacyName);
+    }
+
+    /**
+     * Whether a name read from a product or user row can be a file stored directly in the upload
+     * directory. Those columns are writable through the API, so anything else is never touched.
+     */
+    public boolean isLegacyName(String legacyName) {
+        if (legacyName == null || !STORED_NAME.matcher(legacyName).matches()) {
+            return false;
         }
+        Path root = uploadRoot().toAbsolutePath().normalize();
+        Path path = root.resolve(legacyName).normalize();
+        return path.startsWith(root) && path.getParent().equals(root);
+    }
+
+    private Path legacyPath(String legacyName) {
+        if (!isLegacyName(legacyName)) {
+            throw new RuntimeException("Not a stored upload name: " + legacyName);
+        }
+        return uploadRoot().toAbsolutePath().normalize().resolve(legacyName);
+    }
+
+    /**
+     * Adds a reference to a stored upload, for example when a product is pointed at an image that
+     * is already in use elsewhere. Anything that is not a content-addressed upload is ignored.
+     */
+    public void retain(String imageUrl) {
+        String filename = storedName(imageUrl);
+        if (filename != null) {
+            storedFileRepository.retain(filename);
+        }
+    }
+
+    /**
+     * Drops a reference to a stored upload. The last reference deletes the file, its derivatives and
+     * any cached open handle.
+     */
+    public void release(String imageUrl) {
+        String filename = storedName(imageUrl);
+        if (filename == null) {
+            return;
+        }
+        Lock lock = lockFor(filename);
+        lock.lock();
+        try {
+            storedFileRepository.release(filename);
+            if (storedFileRepository.deleteIfUnreferenced(filename) == 0) {
+                return;
+            }
+            Path path = UploadPaths.resolve(uploadRoot(), filename);
+            fileHandleCache.invalidate(path.toAbsolutePath().normalize());
+            Files.deleteIfExists(path);
+            imageDerivativeService.deleteDerivatives(filename);
+            logger.info("Deleted unreferenced upload {}", filename);
+        } catch (IOException e) {
+            logger.warn("Failed to delete unreferenced upload {}: {}", filename, e.getMessage());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Opens a stored upload for serving. Uploads are never rewritten in place, so the open channel
+     * is cached and shared; the caller must close the handle.
+     */
+    public Optional<FileHandleCache.Handle> openStoredFile(String filename) throws IOException {
+        if (!STORED_NAME.matcher(filename).matches()) {
+            return Optional.empty();
+        }
+        Path path = UploadPaths.resolve(uploadRoot(), filename).toAbsolutePath().normalize();
+        try {
+            return Optional.of(fileHandleCache.acquire(path));
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        uploadWorkers.shutdownNow();
+        fileHandleCache.clear();
+    }
+
+    public FileHandleCache getOpenFileCache() {
+        return fileHandleCache;
     }
 
     public boolean isValidImageFile(MultipartFile file) {
         String contentType = file.getContentType();
         return contentType != null && contentType.startsWith("image/");
     }
+
+    /**
+     * Registers content under its hash and puts it in place, unless identical content is already
+     * stored. The stripe lock keeps this from racing a release that is deleting the same content.
+     */
+    private String commit(Path source, String hash, String extension, long size, int references,
+                          boolean keepSource) throws IOException {
+        Lock lock = lockFor(hash);
+        lock.lock();
+        try {
+            storedFileRepository.acquire(hash, hash + "." + extension, size, references, LocalDateTime.now());
+            // Identical content uploaded earlier keeps the name, and so the extension, it was first stored with
+            String filename = storedFileRepository.findById(hash)
+                    .map(StoredFile::getFilename)
+                    .orElseThrow(() -> new IOException("Stored file record missing for " + hash));
+            Path target = UploadPaths.resolve(uploadRoot(), filename);
+            if (!Files.exists(target)) {
+                Files.createDirectories(target.getParent());
+                if (keepSource) {
+                    linkOrCopy(source, target);
+                } else {
+                    Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+                }
+            }
+            // Thumbnails and other sizes are produced in the background
+            imageDerivativeService.schedule(filename);
+            return filename;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void linkOrCopy(Path source, Path target) throws IOException {
+        Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
+        try {
+            try {
+                Files.createLink(tmp, source);
+            } catch (UnsupportedOperationException | IOException e) {
+                Files.copy(source, tmp, StandardCopyOption.REPLACE_EXISTING);
+            }
+            Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /**
+     * Reads until the buffer is full or the body ends, so the disk sees whole buffers rather than
+     * whatever each socket read returned. False once the body has ended.
+     */
+    private static boolean fill(ReadableByteChannel source, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (source.read(buffer) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private UploadRejectedException tooLarge() {
+        return new UploadRejectedException(HttpStatus.PAYLOAD_TOO_LARGE,
+                "Image is larger than the " + (maxUploadBytes / 1024) + " KB limit");
+    }
+
+    private Path newTempFile() throws IOException {
+        // Kept under the upload root so the final move is a rename on the same file system
+        Path tmpDir = uploadRoot().resolve("tmp");
+        Files.createDirectories(tmpDir);
+        return Files.createTempFile(tmpDir, "upload-", ".part");
+    }
+
+    private Path uploadRoot() {
+        return Paths.get(uploadDir);
+    }
+
+    private Lock lockFor(String name) {
+        return locks[Math.floorMod(name.substring(0, Math.min(64, name.length())).hashCode(), locks.length)];
+    }
+
+    private static String storedName(String imageUrl) {
+        if (imageUrl == null || !imageUrl.startsWith(UPLOAD_PREFIX)) {
+            return null;
+        }
+        String filename = imageUrl.substring(UPLOAD_PREFIX.length());
+        return UploadPaths.isContentAddressed(filename) ? filename : null;
+    }
+
+    private static String extensionOf(String filename) {
+        String extension = FilenameUtils.getExtension(filename);
+        if (extension == null || extension.isEmpty() || !STORED_NAME.matcher(extension).matches()) {
+            return "jpg"; // Default extension
+        }
+        return extension.toLowerCase(Locale.ROOT);
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
 }
\ No newline at end of file
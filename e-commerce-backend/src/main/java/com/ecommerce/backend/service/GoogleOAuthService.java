@@ -4,6 +4,8 @@ import com.google.api.client.googleapis.auth.oauth2.GoogleIdToken;
 import com.google.api.client.googleapis.auth.oauth2.GoogleIdTokenVerifier;
 import com.google.api.client.http.javanet.NetHttpTransport;
 import com.google.api.client.json.gson.GsonFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import java.util.Collections;
@@ -11,14 +13,15 @@ import java.util.Collections;
 @Service
 public class GoogleOAuthService {
 
+    private static final Logger logger = LoggerFactory.getLogger(GoogleOAuthService.class);
+
     @Value("${spring.security.oauth2.client.registration.google.client-id}")
     private String googleClientId;
 
     public GoogleIdToken.Payload verifyGoogleToken(String token) {
         try {
-            System.out.println("Verifying Google token with client ID: " + googleClientId);
-            System.out.println("Token length: " + (token != null ? token.length() : "null"));
-            
+            logger.debug("Verifying Google token of length {}", token != null ? token.length() : null);
+
             GoogleIdTokenVerifier verifier = new GoogleIdTokenVerifier.Builder(
                     new NetHttpTransport(), 
                     GsonFactory.getDefaultInstance())
@@ -29,21 +32,14 @@ public class GoogleOAuthService {
             if (idToken != null) {
                 GoogleIdToken.Payload payload = idToken.getPayload();
                 
-                // Log for debugging
-                System.out.println("✅ Google token verification successful!");
-                System.out.println("Google user email: " + payload.getEmail());
-                System.out.println("Google user name: " + payload.get("name"));
-                System.out.println("Google user verified: " + payload.getEmailVerified());
-                
+                logger.debug("Google token verified for {} (email verified: {})", payload.getEmail(), payload.getEmailVerified());
+
                 return payload;
             } else {
-                System.err.println("❌ Invalid Google token - verification failed");
-                System.err.println("Expected client ID: " + googleClientId);
+                logger.warn("Invalid Google token - verification failed for client ID {}", googleClientId);
             }
         } catch (Exception e) {
-            System.err.println("❌ Error verifying Google token: " + e.getMessage());
-            System.err.println("Client ID being used: " + googleClientId);
-            e.printStackTrace();
+            logger.error("Error verifying Google token for client ID {}", googleClientId, e);
         }
         return null;
     }
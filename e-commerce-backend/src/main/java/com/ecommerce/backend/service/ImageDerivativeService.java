@@ -0,0 +1,317 @@
+package com.ecommerce.backend.service;
+
+import com.ecommerce.backend.util.UploadPaths;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Produces downscaled copies of uploaded images (thumbnail, card, detail) with the JDK's ImageIO,
+ * on a small bounded worker pool so uploads never wait for resizing. Derivatives are stored next to
+ * the original, in the same hash-prefix directory, as {@code <name>_<variant>.<jpg|png>}: JPEG normally, PNG when the source has
+ * transparency. A derivative that does not exist yet is generated on first request, so images
+ * uploaded before this pipeline existed catch up by themselves.
+ */
+@Service
+public class ImageDerivativeService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageDerivativeService.class);
+
+    private static final Set<String> SOURCE_EXTENSIONS = Set.of("jpg", "jpeg", "png", "gif", "bmp");
+
+    // Refuse to decode anything larger; a hostile upload could otherwise exhaust the heap
+    private static final long MAX_SOURCE_PIXELS = 50_000_000L;
+
+    public enum Variant {
+        THUMBNAIL(200), CARD(400), DETAIL(1000);
+
+        private final int maxDimension;
+
+        Variant(int maxDimension) {
+            this.maxDimension = maxDimension;
+        }
+
+        public int getMaxDimension() { return maxDimension; }
+
+        /**
+         * Parses a size parameter: a variant name, or a pixel width answered by the smallest
+         * variant at least that wide. Null when the original should be served.
+         */
+        public static Variant forSize(String size) {
+            if (size == null || size.isBlank()) {
+                return null;
+            }
+            try {
+                int pixels = Integer.parseInt(size.trim());
+                for (Variant variant : values()) {
+                    if (variant.maxDimension >= pixels) {
+                        return variant;
+                    }
+                }
+                return null;
+            } catch (NumberFormatException e) {
+                try {
+                    return valueOf(size.trim().toUpperCase(Locale.ROOT));
+                } catch (IllegalArgumentException unknown) {
+                    return null;
+                }
+            }
+        }
+    }
+
+    @Value("${file.upload-dir}")
+    private String uploadDir;
+
+    @Value("${app.images.jpeg-quality:0.82}")
+    private float jpegQuality;
+
+    private final ThreadPoolExecutor workers;
+
+    // Originals with a generation queued or running, so bursts of requests enqueue each image once
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+
+    private final LongAdder variantHits = new LongAdder();
+
+    private final LongAdder variantMisses = new LongAdder();
+
+    public ImageDerivativeService(@Value("${app.images.worker-threads:2}") int threads,
+                                  @Value("${app.images.queue-capacity:1000}") int queueCapacity) {
+        AtomicInteger threadCount = new AtomicInteger();
+        int poolSize = Math.max(1, threads);
+        this.workers = new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)), runnable -> {
+                    Thread thread = new Thread(runnable, "image-derivatives-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.NORM_PRIORITY - 1);
+                    return thread;
+                });
+    }
+
+    /**
+     * Queues derivative generation for a stored original. When the queue is full the request is
+     * dropped; the derivatives will be generated the next time one is requested.
+     */
+    public void schedule(String filename) {
+        if (!isSource(filename) || !pending.add(filename)) {
+            return;
+        }
+        try {
+            workers.execute(() -> {
+                try {
+                    generate(filename);
+                } finally {
+                    pending.remove(filename);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            pending.remove(filename);
+            logger.warn("Image derivative queue full, skipping {} for now", filename);
+        }
+    }
+
+    /**
+     * The stored name of a variant of an original, whichever of JPEG or PNG was written, or null
+     * when it does not exist yet.
+     */
+    public String findDerivative(String filename, Variant variant) {
+        if (!isSource(filename)) {
+            return null;
+        }
+        Path dir = Paths.get(uploadDir);
+        for (String extension : new String[] { "jpg", "png" }) {
+            String name = derivativeName(filename, variant, extension);
+            if (Files.exists(UploadPaths.resolve(dir, name))) {
+                variantHits.increment();
+                return name;
+            }
+        }
+        variantMisses.increment();
+        return null;
+    }
+
+    public long getVariantHits() { return variantHits.sum(); }
+
+    public long getVariantMisses() { return variantMisses.sum(); }
+
+    public int getPendingCount() { return pending.size(); }
+
+    /**
+     * Removes every variant of an original that is being deleted.
+     */
+    public void deleteDerivatives(String filename) throws IOException {
+        Path dir = Paths.get(uploadDir);
+        for (Variant variant : Variant.values()) {
+            for (String extension : new String[] { "jpg", "png" }) {
+                Files.deleteIfExists(UploadPaths.resolve(dir, derivativeName(filename, variant, extension)));
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    private void generate(String filename) {
+        Path source = UploadPaths.resolve(Paths.get(uploadDir), filename);
+        try (ImageInputStream input = ImageIO.createImageInputStream(source.toFile())) {
+            if (input == null) {
+                return;
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                logger.warn("No image reader for {}", filename);
+                return;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > MAX_SOURCE_PIXELS) {
+                    logger.warn("Skipping derivatives for {}: {}x{} is too large", filename, width, height);
+                    return;
+                }
+
+                // Subsample while decoding when the source is far larger than the largest variant
+                ImageReadParam param = reader.getDefaultReadParam();
+                int largest = Variant.DETAIL.maxDimension;
+                int subsampling = Math.max(1, Math.min(width, height) >= 2 * largest
+                        ? Math.max(width, height) / (2 * largest) : 1);
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                BufferedImage image = reader.read(0, param);
+
+                boolean alpha = image.getColorModel().hasAlpha();
+                for (Variant variant : Variant.values()) {
+                    writeVariant(filename, image, width, height, variant, alpha);
+                }
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Failed to generate derivatives for {}: {}", filename, e.getMessage());
+        }
+    }
+
+    private void writeVariant(String filename, BufferedImage image, int sourceWidth, int sourceHeight,
+                              Variant variant, boolean alpha) throws IOException {
+        String extension = alpha ? "png" : "jpg";
+        Path target = UploadPaths.resolve(Paths.get(uploadDir), derivativeName(filename, variant, extension));
+        if (Files.exists(target)) {
+            return;
+        }
+
+        // Never upscale: a small original is simply re-encoded at its own size
+        double scale = Math.min(1.0, (double) variant.maxDimension / Math.max(sourceWidth, sourceHeight));
+        int width = Math.max(1, (int) Math.round(sourceWidth * scale));
+        int height = Math.max(1, (int) Math.round(sourceHeight * scale));
+        BufferedImage resized = resize(image, width, height, alpha);
+
+        Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
+        try {
+            if (alpha) {
+                ImageIO.write(resized, "png", tmp.toFile());
+            } else {
+                writeJpeg(resized, tmp);
+            }
+            Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /**
+     * Downscales in steps of at most one half with bilinear filtering, which keeps quality close to
+     * an area-averaging resample at a fraction of its cost.
+     */
+    private BufferedImage resize(BufferedImage source, int targetWidth, int targetHeight, boolean alpha) {
+        int type = alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        BufferedImage current = source;
+        int width = source.getWidth();
+        int height = source.getHeight();
+        do {
+            width = Math.max(targetWidth, width / 2);
+            height = Math.max(targetHeight, height / 2);
+            BufferedImage step = new BufferedImage(width, height, type);
+            Graphics2D graphics = step.createGraphics();
+            try {
+                graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                if (!alpha) {
+                    // JPEG has no alpha; flatten anything transparent onto white
+                    graphics.setColor(java.awt.Color.WHITE);
+                    graphics.fillRect(0, 0, width, height);
+                }
+                graphics.drawImage(current, 0, 0, width, height, null);
+            } finally {
+                graphics.dispose();
+            }
+            current = step;
+        } while (width != targetWidth || height != targetHeight);
+        return current;
+    }
+
+    private void writeJpeg(BufferedImage image, Path target) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(target.toFile())) {
+            writer.setOutput(output);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(jpegQuality);
+            param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    private boolean isSource(String filename) {
+        int dot = filename.lastIndexOf('.');
+        if (dot <= 0) {
+            return false;
+        }
+        // Derivatives are not sources themselves
+        String base = filename.substring(0, dot);
+        for (Variant variant : Variant.values()) {
+            if (base.endsWith("_" + variant.name().toLowerCase(Locale.ROOT))) {
+                return false;
+            }
+        }
+        return SOURCE_EXTENSIONS.contains(filename.substring(dot + 1).toLowerCase(Locale.ROOT));
+    }
+
+    private static String derivativeName(String filename, Variant variant, String extension) {
+        int dot = filename.lastIndexOf('.');
+        String base = dot > 0 ? filename.substring(0, dot) : filename;
+        return base + "_" + variant.name().toLowerCase(Locale.ROOT) + "." + extension;
+    }
+}
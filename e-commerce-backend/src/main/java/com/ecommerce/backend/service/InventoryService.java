@@ -0,0 +1,414 @@
+package com.ecommerce.backend.service;
+
+import com.ecommerce.backend.entity.Inventory;
+import com.ecommerce.backend.entity.Order;
+import com.ecommerce.backend.entity.StockReservation;
+import com.ecommerce.backend.repository.InventoryRepository;
+import com.ecommerce.backend.repository.ProductRepository;
+import com.ecommerce.backend.repository.StockReservationRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Stock reservation with in-memory CAS counters and a write-ahead reservation log.
+ *
+ * Admission is a compare-and-set on the product's available count, so hot SKUs never wait on a
+ * row lock and multi-line orders cannot deadlock. Every hold is inserted into
+ * {@code stock_reservations} in the order transaction; {@code inventory.on_hand} is only a
+ * checkpoint that the flusher advances in batches. On startup the counters are rebuilt from the
+ * checkpoint plus the outstanding reservations.
+ */
+@Service
+public class InventoryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(InventoryService.class);
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private StockReservationRepository reservationRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Value("${app.inventory.reservation-ttl-minutes:1440}")
+    private long reservationTtlMinutes;
+
+    @Value("${app.inventory.batch-size:1000}")
+    private int batchSize;
+
+    // Only products with an inventory row are tracked; anything else can always be ordered
+    private final ConcurrentHashMap<Long, StockCounter> counters = new ConcurrentHashMap<>();
+
+    // Until the counters are loaded every product would look untracked, so nothing is reserved
+    private volatile boolean loaded;
+
+    @PostConstruct
+    public void init() {
+        try {
+            load();
+        } catch (Exception e) {
+            logger.warn("Initial inventory load failed, refusing reservations until a retry succeeds: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.inventory.load-retry-interval-ms:10000}")
+    public void retryLoad() {
+        if (loaded) {
+            return;
+        }
+        try {
+            load();
+        } catch (Exception e) {
+            logger.warn("Inventory load failed, reservations are still refused: {}", e.getMessage());
+        }
+    }
+
+    public void load() {
+        Map<Long, StockCounter> loadedCounters = new HashMap<>();
+        for (Inventory inventory : inventoryRepository.findAll()) {
+            loadedCounters.put(inventory.getProductId(), new StockCounter(inventory.getOnHand()));
+        }
+        applyOutstanding(loadedCounters);
+        counters.clear();
+        counters.putAll(loadedCounters);
+        loaded = true;
+        logger.info("Loaded stock counters for {} products", loadedCounters.size());
+    }
+
+    /**
+     * Takes outstanding reservations off freshly built counters: reserved holds from what is
+     * available, delivered ones not yet flushed from the on_hand checkpoint as well.
+     */
+    private void applyOutstanding(Map<Long, StockCounter> loadedCounters) {
+        List<Object[]> outstanding = reservationRepository.sumQuantitiesByProductAndStatus(
+                List.of(StockReservation.Status.RESERVED, StockReservation.Status.COMMITTED));
+        for (Object[] row : outstanding) {
+            StockCounter counter = loadedCounters.get((Long) row[0]);
+            if (counter == null) {
+                continue;
+            }
+            long quantity = ((Number) row[2]).longValue();
+            if (row[1] == StockReservation.Status.RESERVED) {
+                counter.reserved.addAndGet(quantity);
+            } else {
+                // Delivered but not yet subtracted from the on_hand checkpoint
+                counter.onHand.addAndGet(-quantity);
+            }
+            counter.available.addAndGet(-quantity);
+        }
+    }
+
+    /**
+     * Builds the counter for one product whose inventory row exists but was not loaded, for
+     * example because another instance started tracking it.
+     */
+    private StockCounter loadCounter(Long productId) {
+        Inventory inventory = inventoryRepository.findById(productId)
+                .orElseThrow(() -> new RuntimeException("Product " + productId + " is not stock-tracked"));
+        Map<Long, StockCounter> single = new HashMap<>();
+        single.put(productId, new StockCounter(inventory.getOnHand()));
+        applyOutstanding(single);
+        StockCounter existing = counters.putIfAbsent(productId, single.get(productId));
+        return existing != null ? existing : single.get(productId);
+    }
+
+    private void requireLoaded() {
+        if (!loaded) {
+            throw new RuntimeException("Stock levels are not available yet, please try again shortly");
+        }
+    }
+
+    /**
+     * Holds stock for every tracked line of the order, all or nothing. The hold is returned
+     * automatically if the surrounding transaction does not commit.
+     */
+    public Hold reserve(PricingService.PricedOrder priced) {
+        requireLoaded();
+        Hold hold = new Hold();
+        for (int i = 0; i < priced.getLineCount(); i++) {
+            long productId = priced.getProductId(i);
+            StockCounter counter = counters.get(productId);
+            if (counter == null) {
+                continue;
+            }
+            int quantity = priced.getQuantity(i);
+            if (!counter.tryReserve(quantity)) {
+                hold.release();
+                throw new RuntimeException("Insufficient stock for product " + productId);
+            }
+            hold.add(productId, counter, quantity);
+        }
+
+        if (!hold.isEmpty() && TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        hold.release();
+                    }
+                }
+            });
+        }
+        return hold;
+    }
+
+    /**
+     * Appends the hold to the reservation log. Must run in the same transaction as the order.
+     */
+    public void record(Hold hold, Order order) {
+        if (hold.isEmpty()) {
+            return;
+        }
+        LocalDateTime expiresAt = LocalDateTime.now().plusMinutes(reservationTtlMinutes);
+        List<StockReservation> rows = new ArrayList<>(hold.productIds.size());
+        for (int i = 0; i < hold.productIds.size(); i++) {
+            rows.add(new StockReservation(hold.productIds.get(i), order.getId(), hold.quantities.get(i), expiresAt));
+        }
+        reservationRepository.saveAll(rows);
+    }
+
+    @Transactional
+    public void releaseForOrder(Long orderId) {
+        for (StockReservation reservation : reservationRepository.findByOrderIdAndStatus(orderId, StockReservation.Status.RESERVED)) {
+            release(reservation);
+        }
+    }
+
+    @Transactional
+    public void commitForOrder(Long orderId) {
+        for (StockReservation reservation : reservationRepository.findByOrderIdAndStatus(orderId, StockReservation.Status.RESERVED)) {
+            if (reservationRepository.transition(reservation.getId(),
+                    StockReservation.Status.RESERVED, StockReservation.Status.COMMITTED) == 1) {
+                StockCounter counter = counters.get(reservation.getProductId());
+                if (counter != null) {
+                    long quantity = reservation.getQuantity();
+                    afterCommit(() -> counter.consume(quantity));
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns holds that outlived their TTL, e.g. for orders stuck outside the normal lifecycle.
+     */
+    @Scheduled(fixedDelayString = "${app.inventory.sweep-interval-ms:60000}")
+    @Transactional
+    public void expireReservations() {
+        List<StockReservation> expired = reservationRepository.findByStatusAndExpiresAtBefore(
+                StockReservation.Status.RESERVED, LocalDateTime.now(), PageRequest.of(0, batchSize));
+        for (StockReservation reservation : expired) {
+            release(reservation);
+        }
+        if (!expired.isEmpty()) {
+            logger.info("Released {} expired stock reservations", expired.size());
+        }
+    }
+
+    /**
+     * Applies delivered reservations to the on_hand checkpoint, one UPDATE per product per batch.
+     */
+    @Scheduled(fixedDelayString = "${app.inventory.flush-interval-ms:5000}")
+    @Transactional
+    public void flush() {
+        List<StockReservation> committed = reservationRepository.findByStatusOrderByIdAsc(
+                StockReservation.Status.COMMITTED, PageRequest.of(0, batchSize));
+        if (!committed.isEmpty()) {
+            Map<Long, Long> consumed = new HashMap<>();
+            List<Long> ids = new ArrayList<>(committed.size());
+            for (StockReservation reservation : committed) {
+                consumed.merge(reservation.getProductId(), (long) reservation.getQuantity(), Long::sum);
+                ids.add(reservation.getId());
+            }
+            reservationRepository.transitionAll(ids, StockReservation.Status.COMMITTED, StockReservation.Status.APPLIED);
+            consumed.forEach((productId, quantity) -> inventoryRepository.adjustOnHand(productId, -quantity));
+        }
+
+        for (Map.Entry<Long, StockCounter> entry : counters.entrySet()) {
+            StockCounter counter = entry.getValue();
+            long reserved = counter.reserved.get();
+            if (reserved != counter.lastFlushedReserved) {
+                inventoryRepository.updateReserved(entry.getKey(), reserved);
+                counter.lastFlushedReserved = reserved;
+            }
+        }
+    }
+
+    /**
+     * Sets the physical stock for a product, starting to track it if it was untracked.
+     */
+    @Transactional
+    public void setStock(Long productId, long onHand) {
+        if (onHand < 0) {
+            throw new RuntimeException("Stock cannot be negative");
+        }
+        if (!productRepository.existsById(productId)) {
+            throw new RuntimeException("Product not found");
+        }
+        requireLoaded();
+        StockCounter counter = counters.get(productId);
+        if (counter == null && !inventoryRepository.existsById(productId)) {
+            inventoryRepository.save(new Inventory(productId, onHand));
+            afterCommit(() -> counters.putIfAbsent(productId, new StockCounter(onHand)));
+            return;
+        }
+        if (counter == null) {
+            counter = loadCounter(productId);
+        }
+        adjust(productId, counter, onHand - counter.onHand.get());
+    }
+
+    /**
+     * Adds received units to a tracked product. Corrections downwards go through {@link #setStock}.
+     */
+    @Transactional
+    public void restock(Long productId, long quantity) {
+        if (quantity <= 0) {
+            throw new RuntimeException("Restock quantity must be positive");
+        }
+        requireLoaded();
+        StockCounter counter = counters.get(productId);
+        if (counter == null) {
+            throw new RuntimeException("Product " + productId + " is not stock-tracked");
+        }
+        adjust(productId, counter, quantity);
+    }
+
+    public Map<String, Object> getStock(Long productId) {
+        Map<String, Object> stock = new HashMap<>();
+        StockCounter counter = counters.get(productId);
+        stock.put("productId", productId);
+        stock.put("tracked", counter != null);
+        if (counter != null) {
+            stock.put("onHand", counter.onHand.get());
+            stock.put("available", counter.available.get());
+            stock.put("reserved", counter.reserved.get());
+        }
+        return stock;
+    }
+
+    /**
+     * Units that can still be ordered, or -1 if the product is not stock-tracked.
+     */
+    public long getAvailable(Long productId) {
+        StockCounter counter = counters.get(productId);
+        return counter != null ? Math.max(0, counter.available.get()) : -1;
+    }
+
+    private void adjust(Long productId, StockCounter counter, long delta) {
+        if (delta == 0) {
+            return;
+        }
+        inventoryRepository.adjustOnHand(productId, delta);
+        afterCommit(() -> counter.adjust(delta));
+    }
+
+    private void release(StockReservation reservation) {
+        if (reservationRepository.transition(reservation.getId(),
+                StockReservation.Status.RESERVED, StockReservation.Status.RELEASED) == 1) {
+            StockCounter counter = counters.get(reservation.getProductId());
+            if (counter != null) {
+                long quantity = reservation.getQuantity();
+                afterCommit(() -> counter.release(quantity));
+            }
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static final class StockCounter {
+        private final AtomicLong onHand;
+        private final AtomicLong available;
+        private final AtomicLong reserved = new AtomicLong();
+        private volatile long lastFlushedReserved = -1;
+
+        StockCounter(long onHand) {
+            this.onHand = new AtomicLong(onHand);
+            this.available = new AtomicLong(onHand);
+        }
+
+        boolean tryReserve(int quantity) {
+            long current = available.get();
+            while (current >= quantity) {
+                if (available.compareAndSet(current, current - quantity)) {
+                    reserved.addAndGet(quantity);
+                    return true;
+                }
+                current = available.get();
+            }
+            return false;
+        }
+
+        void release(long quantity) {
+            reserved.addAndGet(-quantity);
+            available.addAndGet(quantity);
+        }
+
+        void consume(long quantity) {
+            reserved.addAndGet(-quantity);
+            onHand.addAndGet(-quantity);
+        }
+
+        void adjust(long delta) {
+            onHand.addAndGet(delta);
+            available.addAndGet(delta);
+        }
+    }
+
+    /**
+     * Stock taken in memory for one order, before it is written to the reservation log.
+     */
+    public static final class Hold {
+        private final List<Long> productIds = new ArrayList<>();
+        private final List<Integer> quantities = new ArrayList<>();
+        private final List<StockCounter> heldCounters = new ArrayList<>();
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private void add(long productId, StockCounter counter, int quantity) {
+            productIds.add(productId);
+            quantities.add(quantity);
+            heldCounters.add(counter);
+        }
+
+        public boolean isEmpty() {
+            return productIds.isEmpty();
+        }
+
+        private void release() {
+            if (released.compareAndSet(false, true)) {
+                for (int i = 0; i < heldCounters.size(); i++) {
+                    heldCounters.get(i).release(quantities.get(i));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,433 @@
+package com.ecommerce.backend.service;
+
+import com.ecommerce.backend.entity.OrderExportJob;
+import com.ecommerce.backend.repository.OrderExportJobRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes orders joined with their items over a date range to a gzip CSV or NDJSON file for finance.
+ *
+ * Rows are read with a forward-only JDBC cursor and written straight to the compressor, so memory
+ * stays flat regardless of the range. The export is produced in parts of {@code rows-per-part} rows,
+ * each read by its own keyset query on (order id, item id). After a part is on disk the job row is
+ * checkpointed, so a job interrupted by a failure or restart resumes from the last completed part.
+ * Finished parts are concatenated into a single file; concatenated gzip members are a valid gzip stream.
+ */
+@Service
+public class OrderExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderExportService.class);
+
+    private static final String EXPORT_SQL =
+            "SELECT o.id, o.order_date, o.status, o.user_id, o.full_name, o.email, o.city, o.state, " +
+            "o.zip_code, o.country, o.promo_code, o.total_amount, o.discount_amount, " +
+            "i.id, i.product_id, p.title, i.quantity, i.price " +
+            "FROM orders o " +
+            "LEFT JOIN order_items i ON i.order_id = o.id " +
+            "LEFT JOIN products p ON p.id = i.product_id " +
+            "WHERE o.order_date >= ? AND o.order_date < ? " +
+            "AND (o.id > ? OR (o.id = ? AND COALESCE(i.id, 0) > ?)) " +
+            "ORDER BY o.id, i.id NULLS FIRST " +
+            "LIMIT ?";
+
+    private static final String[] COLUMNS = {
+            "order_id", "order_date", "status", "user_id", "full_name", "email", "city", "state",
+            "zip_code", "country", "promo_code", "order_total", "order_discount",
+            "item_id", "product_id", "product_title", "quantity", "unit_price"
+    };
+
+    @Autowired
+    private OrderExportJobRepository exportJobRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${app.export.dir:./exports}")
+    private String exportDir;
+
+    @Value("${app.export.rows-per-part:250000}")
+    private int rowsPerPart;
+
+    @Value("${app.export.fetch-size:5000}")
+    private int fetchSize;
+
+    private final ExecutorService executor;
+
+    // Live row counts for running jobs; the job row only advances at part checkpoints
+    private final Map<Long, AtomicLong> progress = new ConcurrentHashMap<>();
+
+    public OrderExportService(@Value("${app.export.max-concurrent:2}") int maxConcurrent) {
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(Math.max(1, maxConcurrent), runnable -> {
+            Thread thread = new Thread(runnable, "order-export-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public OrderExportJob startExport(LocalDateTime from, LocalDateTime to, String format) {
+        if (from == null || to == null || !from.isBefore(to)) {
+            throw new RuntimeException("Export range must have from before to");
+        }
+        OrderExportJob.Format exportFormat;
+        try {
+            exportFormat = OrderExportJob.Format.valueOf(format.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Unsupported export format: " + format);
+        }
+
+        OrderExportJob job = new OrderExportJob();
+        job.setFormat(exportFormat);
+        job.setFromDate(from);
+        job.setToDate(to);
+        job = exportJobRepository.save(job);
+        submit(job.getId());
+        return job;
+    }
+
+    public OrderExportJob resumeExport(Long jobId) {
+        OrderExportJob job = getJob(jobId);
+        if (job.getStatus() == OrderExportJob.Status.COMPLETED) {
+            throw new RuntimeException("Export already completed");
+        }
+        if (progress.containsKey(jobId)) {
+            throw new RuntimeException("Export is already running");
+        }
+        job.setStatus(OrderExportJob.Status.QUEUED);
+        job.setError(null);
+        job = exportJobRepository.save(job);
+        submit(jobId);
+        return job;
+    }
+
+    public OrderExportJob getJob(Long jobId) {
+        return exportJobRepository.findById(jobId)
+                .orElseThrow(() -> new RuntimeException("Export job not found"));
+    }
+
+    public List<OrderExportJob> getJobs() {
+        return exportJobRepository.findAll();
+    }
+
+    public Map<String, Object> getProgress(Long jobId) {
+        OrderExportJob job = getJob(jobId);
+        AtomicLong live = progress.get(jobId);
+        Map<String, Object> status = new HashMap<>();
+        status.put("id", job.getId());
+        status.put("format", job.getFormat());
+        status.put("from", job.getFromDate());
+        status.put("to", job.getToDate());
+        status.put("status", job.getStatus());
+        status.put("rowsWritten", live != null ? live.get() : job.getRowsWritten());
+        status.put("partsWritten", job.getPartsWritten());
+        status.put("createdAt", job.getCreatedAt());
+        status.put("updatedAt", job.getUpdatedAt());
+        if (job.getError() != null) {
+            status.put("error", job.getError());
+        }
+        return status;
+    }
+
+    public Optional<Path> getExportFile(Long jobId) {
+        OrderExportJob job = getJob(jobId);
+        if (job.getStatus() != OrderExportJob.Status.COMPLETED || job.getFilePath() == null) {
+            return Optional.empty();
+        }
+        Path file = Paths.get(job.getFilePath());
+        return Files.exists(file) ? Optional.of(file) : Optional.empty();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeInterruptedExports() {
+        List<OrderExportJob> interrupted = exportJobRepository.findByStatusIn(
+                List.of(OrderExportJob.Status.QUEUED, OrderExportJob.Status.RUNNING));
+        for (OrderExportJob job : interrupted) {
+            logger.info("Resuming order export {} after {} rows", job.getId(), job.getRowsWritten());
+            submit(job.getId());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Running jobs stay RUNNING and pick up from their last checkpoint on the next start
+        executor.shutdownNow();
+    }
+
+    private void submit(Long jobId) {
+        executor.execute(() -> run(jobId));
+    }
+
+    private void run(Long jobId) {
+        OrderExportJob job = exportJobRepository.findById(jobId).orElse(null);
+        if (job == null || job.getStatus() == OrderExportJob.Status.COMPLETED) {
+            return;
+        }
+        AtomicLong live = new AtomicLong(job.getRowsWritten());
+        if (progress.putIfAbsent(jobId, live) != null) {
+            return;
+        }
+
+        try {
+            job.setStatus(OrderExportJob.Status.RUNNING);
+            job = exportJobRepository.save(job);
+            Path dir = Paths.get(exportDir).toAbsolutePath();
+            Files.createDirectories(dir);
+
+            while (!Thread.currentThread().isInterrupted()) {
+                int part = job.getPartsWritten();
+                PartResult result = writePart(job, dir, part, live);
+                job.setLastOrderId(result.lastOrderId);
+                job.setLastItemId(result.lastItemId);
+                job.setRowsWritten(job.getRowsWritten() + result.rows);
+                job.setPartsWritten(part + 1);
+                job = exportJobRepository.save(job);
+                if (result.rows < rowsPerPart) {
+                    break;
+                }
+            }
+            if (Thread.currentThread().isInterrupted()) {
+                return;
+            }
+
+            Path file = assemble(job, dir);
+            job.setFilePath(file.toString());
+            job.setStatus(OrderExportJob.Status.COMPLETED);
+            exportJobRepository.save(job);
+            logger.info("Order export {} completed: {} rows in {}", jobId, job.getRowsWritten(), file);
+        } catch (Exception e) {
+            logger.error("Order export {} failed after {} rows", jobId, live.get(), e);
+            job.setStatus(OrderExportJob.Status.FAILED);
+            String message = e.getMessage() != null ? e.getMessage() : e.getClass().getName();
+            job.setError(message.length() > 1000 ? message.substring(0, 1000) : message);
+            exportJobRepository.save(job);
+        } finally {
+            progress.remove(jobId);
+        }
+    }
+
+    private PartResult writePart(OrderExportJob job, Path dir, int part, AtomicLong live) throws IOException {
+        Path target = partPath(dir, job, part);
+        Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
+        PartResult result = new PartResult(job.getLastOrderId(), job.getLastItemId());
+        boolean csv = job.getFormat() == OrderExportJob.Format.CSV;
+
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(
+                new FastGZIPOutputStream(Files.newOutputStream(tmp)), StandardCharsets.UTF_8), 1 << 16)) {
+            JsonGenerator generator = null;
+            if (csv) {
+                if (part == 0) {
+                    writer.write(String.join(",", COLUMNS));
+                    writer.write('\n');
+                }
+            } else {
+                generator = objectMapper.getFactory().createGenerator(writer);
+                generator.setRootValueSeparator(null);
+            }
+            JsonGenerator json = generator;
+
+            // The cursor only streams inside a transaction; with autocommit on the driver buffers every row
+            TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+            readOnly.setReadOnly(true);
+            readOnly.executeWithoutResult(status -> jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(EXPORT_SQL,
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                statement.setFetchSize(fetchSize);
+                statement.setTimestamp(1, Timestamp.valueOf(job.getFromDate()));
+                statement.setTimestamp(2, Timestamp.valueOf(job.getToDate()));
+                statement.setLong(3, job.getLastOrderId());
+                statement.setLong(4, job.getLastOrderId());
+                statement.setLong(5, job.getLastItemId());
+                statement.setInt(6, rowsPerPart);
+                return statement;
+            }, (RowCallbackHandler) rs -> {
+                try {
+                    if (csv) {
+                        writeCsvRow(rs, writer);
+                    } else {
+                        writeJsonRow(rs, json);
+                    }
+                } catch (IOException e) {
+                    throw new SQLException("Failed to write export row", e);
+                }
+                result.lastOrderId = rs.getLong(1);
+                long itemId = rs.getLong(14);
+                result.lastItemId = rs.wasNull() ? 0L : itemId;
+                result.rows++;
+                live.incrementAndGet();
+            }));
+
+            if (generator != null) {
+                generator.flush();
+            }
+        }
+
+        Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return result;
+    }
+
+    private Path assemble(OrderExportJob job, Path dir) throws IOException {
+        String extension = job.getFormat() == OrderExportJob.Format.CSV ? "csv" : "ndjson";
+        Path file = dir.resolve("orders-" + job.getId() + "-"
+                + job.getFromDate().toLocalDate() + "-" + job.getToDate().toLocalDate() + "." + extension + ".gz");
+
+        try (FileChannel out = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            for (int part = 0; part < job.getPartsWritten(); part++) {
+                try (FileChannel in = FileChannel.open(partPath(dir, job, part), StandardOpenOption.READ)) {
+                    long position = 0;
+                    long size = in.size();
+                    while (position < size) {
+                        position += in.transferTo(position, size - position, out);
+                    }
+                }
+            }
+            out.force(true);
+        }
+        for (int part = 0; part < job.getPartsWritten(); part++) {
+            Files.deleteIfExists(partPath(dir, job, part));
+        }
+        return file;
+    }
+
+    private Path partPath(Path dir, OrderExportJob job, int part) {
+        return dir.resolve(String.format("orders-%d.part-%05d.gz", job.getId(), part));
+    }
+
+    private void writeCsvRow(ResultSet rs, Writer writer) throws SQLException, IOException {
+        for (int column = 1; column <= COLUMNS.length; column++) {
+            if (column > 1) {
+                writer.write(',');
+            }
+            Object value = rs.getObject(column);
+            if (value instanceof Timestamp timestamp) {
+                writer.write(timestamp.toLocalDateTime().toString());
+            } else if (value instanceof String text) {
+                writeCsvValue(neutralizeFormula(text), writer);
+            } else if (value != null) {
+                writeCsvValue(value.toString(), writer);
+            }
+        }
+        writer.write('\n');
+    }
+
+    /**
+     * Customer-entered text (names, addresses, product titles) starting with a character a
+     * spreadsheet reads as a formula gets a leading apostrophe, so opening the export never
+     * evaluates it. Numeric columns are written as numbers and left alone.
+     */
+    static String neutralizeFormula(String value) {
+        if (value.isEmpty()) {
+            return value;
+        }
+        char first = value.charAt(0);
+        if (first == '=' || first == '+' || first == '-' || first == '@' || first == '\t' || first == '\r') {
+            return "'" + value;
+        }
+        return value;
+    }
+
+    private void writeCsvValue(String value, Writer writer) throws IOException {
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    private void writeJsonRow(ResultSet rs, JsonGenerator generator) throws SQLException, IOException {
+        generator.writeStartObject();
+        for (int column = 1; column <= COLUMNS.length; column++) {
+            Object value = rs.getObject(column);
+            generator.writeFieldName(COLUMNS[column - 1]);
+            if (value == null) {
+                generator.writeNull();
+            } else if (value instanceof Timestamp timestamp) {
+                generator.writeString(timestamp.toLocalDateTime().toString());
+            } else if (value instanceof Long longValue) {
+                generator.writeNumber(longValue);
+            } else if (value instanceof Integer intValue) {
+                generator.writeNumber(intValue);
+            } else if (value instanceof Double doubleValue) {
+                generator.writeNumber(doubleValue);
+            } else {
+                generator.writeString(value.toString());
+            }
+        }
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+    }
+
+    private static class PartResult {
+        long lastOrderId;
+        long lastItemId;
+        int rows;
+
+        PartResult(long lastOrderId, long lastItemId) {
+            this.lastOrderId = lastOrderId;
+            this.lastItemId = lastItemId;
+        }
+    }
+
+    // Finance exports are large and read once; trading ratio for speed keeps compression off the critical path
+    private static class FastGZIPOutputStream extends GZIPOutputStream {
+        FastGZIPOutputStream(OutputStream out) throws IOException {
+            super(out, 1 << 16);
+            def.setLevel(Deflater.BEST_SPEED);
+        }
+    }
+}
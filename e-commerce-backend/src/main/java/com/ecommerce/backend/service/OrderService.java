@@ -1,28 +1,60 @@
 package com.ecommerce.backend.service;
 
 import com.ecommerce.backend.dto.OrderRequest;
+import com.ecommerce.backend.dto.OrderResponse;
 import com.ecommerce.backend.entity.Order;
 import com.ecommerce.backend.entity.OrderItem;
 import com.ecommerce.backend.entity.Product;
 import com.ecommerce.backend.entity.User;
+import com.ecommerce.backend.event.OrderEventPublisher;
+import com.ecommerce.backend.event.OrderLifecycleListener;
+import com.ecommerce.backend.exception.InvalidStatusTransitionException;
 import com.ecommerce.backend.repository.OrderRepository;
 import com.ecommerce.backend.repository.ProductRepository;
 import com.ecommerce.backend.repository.UserRepository;
+import com.ecommerce.backend.util.Money;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 @Service
 public class OrderService {
 
+    private static final Logger logger = LoggerFactory.getLogger(OrderService.class);
+
+    // Delivered and cancelled are final: stock has been consumed or returned and the promo released,
+    // and nothing re-reserves them, so an order never leaves either status
+    private static final Map<Order.OrderStatus, Set<Order.OrderStatus>> ALLOWED_TRANSITIONS = Map.of(
+            Order.OrderStatus.PENDING, EnumSet.of(Order.OrderStatus.DELIVERED, Order.OrderStatus.CANCELLED),
+            Order.OrderStatus.DELIVERED, EnumSet.noneOf(Order.OrderStatus.class),
+            Order.OrderStatus.CANCELLED, EnumSet.noneOf(Order.OrderStatus.class));
+
     @Autowired
     private OrderRepository orderRepository;
 
@@ -32,31 +64,143 @@ public class OrderService {
     @Autowired
     private UserRepository userRepository;
 
-    public List<Order> getAllOrders() {
-        try {
-            List<Order> orders = orderRepository.findAllByOrderByOrderDateDesc();
-            System.out.println("OrderService: Retrieved " + orders.size() + " orders from repository");
-            return orders;
-        } catch (Exception e) {
-            System.err.println("OrderService error: " + e.getMessage());
-            e.printStackTrace();
+    @Autowired
+    private PromoCodeRedemptionService promoCodeRedemptionService;
+
+    @Autowired
+    private PricingService pricingService;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private OrderEventPublisher orderEventPublisher;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private List<OrderLifecycleListener> lifecycleListeners;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${app.orders.delivery-sweep-batch-size:100}")
+    private int deliverySweepBatchSize;
+
+    private static final int STREAM_FLUSH_INTERVAL = 100;
+
+    /**
+     * The newest {@code limit} orders with their items and products, in two queries.
+     */
+    @Transactional(readOnly = true)
+    public List<Order> getLatestOrders(int limit) {
+        return findWithItemsInOrder(orderRepository.findRecentOrderIds(PageRequest.of(0, limit)));
+    }
+
+    /**
+     * Loads the orders with their items and products in one query, in the order of {@code ids}.
+     */
+    private List<Order> findWithItemsInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
             return List.of();
         }
+        Map<Long, Order> byId = new HashMap<>();
+        for (Order order : orderRepository.findWithItemsByIdIn(ids)) {
+            byId.put(order.getId(), order);
+        }
+        List<Order> orders = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Order order = byId.get(id);
+            if (order != null) {
+                orders.add(order);
+            }
+        }
+        return orders;
+    }
+
+    /**
+     * Writes every order with its items to {@code out} as newline-delimited JSON, reading from a
+     * server-side cursor so memory use does not grow with the number of orders.
+     */
+    @Transactional(readOnly = true)
+    public void streamAllOrders(OutputStream out) throws IOException {
+        ObjectWriter writer = objectMapper.writerFor(OrderResponse.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        // Lines are separated explicitly; drop Jackson's default space between root values
+        generator.setRootValueSeparator(null);
+
+        int written = 0;
+        try (Stream<Object[]> rows = orderRepository.streamAllWithItems()) {
+            Iterator<Object[]> iterator = rows.iterator();
+            OrderResponse current = null;
+            while (iterator.hasNext()) {
+                Object[] row = iterator.next();
+                Long orderId = (Long) row[0];
+                if (current == null || !current.getId().equals(orderId)) {
+                    if (current != null) {
+                        writer.writeValue(generator, current);
+                        generator.writeRaw('\n');
+                        if (++written % STREAM_FLUSH_INTERVAL == 0) {
+                            generator.flush();
+                        }
+                    }
+                    current = toOrderResponse(row);
+                }
+                if (row[15] != null) {
+                    current.getOrderItems().add(toOrderItemResponse(row));
+                }
+            }
+            if (current != null) {
+                writer.writeValue(generator, current);
+                generator.writeRaw('\n');
+            }
+        }
+        generator.flush();
+    }
+
+    private OrderResponse toOrderResponse(Object[] row) {
+        OrderResponse response = new OrderResponse();
+        response.setId((Long) row[0]);
+        response.setTotalAmount((Double) row[1]);
+        response.setDiscountAmount((Double) row[2]);
+        response.setPromoCode((String) row[3]);
+        response.setStatus(row[4].toString());
+        response.setOrderDate((LocalDateTime) row[5]);
+        response.setDeliveryDate((LocalDateTime) row[6]);
+        response.setFullName((String) row[7]);
+        response.setEmail((String) row[8]);
+        response.setPhone((String) row[9]);
+        response.setStreet((String) row[10]);
+        response.setCity((String) row[11]);
+        response.setState((String) row[12]);
+        response.setZipCode((String) row[13]);
+        response.setCountry((String) row[14]);
+        response.setOrderItems(new ArrayList<>());
+        return response;
+    }
+
+    private OrderResponse.OrderItemResponse toOrderItemResponse(Object[] row) {
+        OrderResponse.OrderItemResponse item = new OrderResponse.OrderItemResponse();
+        item.setId((Long) row[15]);
+        item.setQuantity((Integer) row[16]);
+        item.setPrice((Double) row[17]);
+        item.setProductTitle((String) row[18]);
+        item.setProductImage((String) row[19]);
+        return item;
     }
 
     public Optional<Order> getOrderById(Long id) {
-        return orderRepository.findById(id);
+        return orderRepository.findWithItemsById(id);
     }
 
+    @Transactional
     public Order updateOrderStatus(Long orderId, Order.OrderStatus newStatus) {
-        Optional<Order> orderOpt = orderRepository.findById(orderId);
+        Optional<Order> orderOpt = orderRepository.findByIdForUpdate(orderId);
         if (orderOpt.isPresent()) {
-            Order order = orderOpt.get();
-            order.setStatus(newStatus);
-            if (newStatus == Order.OrderStatus.DELIVERED) {
-                order.setDeliveryDate(LocalDateTime.now());
-            }
-            return orderRepository.save(order);
+            return changeStatus(orderOpt.get(), newStatus);
         }
         throw new RuntimeException("Order not found with id: " + orderId);
     }
@@ -69,57 +213,50 @@ public class OrderService {
             throw new RuntimeException("User not found: " + username);
         }
 
-        Order order = new Order();
-        order.setUser(userOpt.get());
-        order.setTotalAmount(orderRequest.getTotalAmount());
-        order.setDiscountAmount(orderRequest.getDiscountAmount());
-        order.setPromoCode(orderRequest.getPromoCode());
-        
-        // Set address fields
-        order.setFullName(orderRequest.getFullName());
-        order.setEmail(orderRequest.getEmail());
-        order.setPhone(orderRequest.getPhone());
-        order.setStreet(orderRequest.getStreet());
-        order.setCity(orderRequest.getCity());
-        order.setState(orderRequest.getState());
-        order.setZipCode(orderRequest.getZipCode());
-        order.setCountry(orderRequest.getCountry());
-
-        // Save order first to get ID
-        order = orderRepository.save(order);
-
-        // Create order items
-        List<OrderItem> orderItems = new ArrayList<>();
-        for (OrderRequest.OrderItemRequest itemRequest : orderRequest.getItems()) {
-            Optional<Product> productOpt = productRepository.findById(itemRequest.getProductId());
-            if (productOpt.isPresent()) {
-                OrderItem orderItem = new OrderItem();
-                orderItem.setOrder(order);
-                orderItem.setProduct(productOpt.get());
-                orderItem.setQuantity(itemRequest.getQuantity());
-                orderItem.setPrice(itemRequest.getPrice());
-                orderItems.add(orderItem);
-            }
-        }
-        
-        order.setOrderItems(orderItems);
-        return orderRepository.save(order);
+        return placeOrder(orderRequest, userOpt.get());
     }
 
+    /**
+     * Marks pending orders older than six hours as delivered. Ids are read in pages without locks,
+     * and each order is locked and delivered in its own transaction, so a cancel waits on one order
+     * at most and a failing order is skipped instead of rolling back the whole sweep.
+     */
     @Scheduled(fixedRate = 300000) // Run every 5 minutes
     public void updateOrderStatusToDelivered() {
         LocalDateTime sixHoursAgo = LocalDateTime.now().minusHours(6);
-        List<Order> pendingOrders = orderRepository.findPendingOrdersOlderThan(sixHoursAgo);
-        
-        for (Order order : pendingOrders) {
-            order.setStatus(Order.OrderStatus.DELIVERED);
-            order.setDeliveryDate(LocalDateTime.now());
-            orderRepository.save(order);
-            System.out.println("Order #" + order.getId() + " status updated to DELIVERED");
-        }
-        
-        if (!pendingOrders.isEmpty()) {
-            System.out.println("Updated " + pendingOrders.size() + " orders to DELIVERED status");
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        PageRequest page = PageRequest.of(0, Math.max(1, deliverySweepBatchSize));
+        int delivered = 0;
+        Long afterId = 0L;
+        List<Long> ids;
+        do {
+            ids = orderRepository.findPendingOrderIdsOlderThan(sixHoursAgo, afterId, page);
+            for (Long id : ids) {
+                try {
+                    Boolean changed = transaction.execute(status -> {
+                        Order order = orderRepository.findByIdForUpdate(id).orElse(null);
+                        // Cancelled since the page was read
+                        if (order == null || order.getStatus() != Order.OrderStatus.PENDING) {
+                            return false;
+                        }
+                        changeStatus(order, Order.OrderStatus.DELIVERED);
+                        return true;
+                    });
+                    if (Boolean.TRUE.equals(changed)) {
+                        delivered++;
+                        logger.debug("Order #{} status updated to DELIVERED", id);
+                    }
+                } catch (RuntimeException e) {
+                    logger.warn("Failed to mark order #{} as delivered: {}", id, e.getMessage());
+                }
+            }
+            if (!ids.isEmpty()) {
+                afterId = ids.get(ids.size() - 1);
+            }
+        } while (ids.size() == page.getPageSize());
+
+        if (delivered > 0) {
+            logger.info("Updated {} orders to DELIVERED status", delivered);
         }
     }
 
@@ -131,13 +268,14 @@ public class OrderService {
         return orderRepository.findByUserOrderByOrderDateDesc(userOpt.get());
     }
 
+    @Transactional
     public void cancelOrder(Long orderId, String username) {
         Optional<User> userOpt = userRepository.findByUsername(username);
         if (userOpt.isEmpty()) {
             throw new RuntimeException("User not found: " + username);
         }
         
-        Optional<Order> orderOpt = orderRepository.findById(orderId);
+        Optional<Order> orderOpt = orderRepository.findByIdForUpdate(orderId);
         if (orderOpt.isEmpty()) {
             throw new RuntimeException("Order not found");
         }
@@ -151,8 +289,7 @@ public class OrderService {
             throw new RuntimeException("Only pending orders can be cancelled");
         }
         
-        order.setStatus(Order.OrderStatus.CANCELLED);
-        orderRepository.save(order);
+        changeStatus(order, Order.OrderStatus.CANCELLED);
     }
 
     @Transactional
@@ -163,10 +300,25 @@ public class OrderService {
             throw new RuntimeException("User not found with id: " + orderRequest.getUserId());
         }
 
+        return placeOrder(orderRequest, userOpt.get());
+    }
+
+    private Order placeOrder(OrderRequest orderRequest, User user) {
+        // Amounts come from the catalog and promo registry, never from the client
+        PricingService.PricedOrder priced = pricingService.priceOrder(orderRequest.getItems(), orderRequest.getPromoCode());
+        pricingService.checkClientTotals(orderRequest, priced);
+
+        // Reserve the promo redemption up front; it is returned if this transaction rolls back
+        PromoCodeRedemptionService.Reservation promoReservation =
+                promoCodeRedemptionService.reserve(orderRequest.getPromoCode(), user);
+
+        // Hold stock in memory; the hold is logged with the order and returned on rollback
+        InventoryService.Hold stockHold = inventoryService.reserve(priced);
+
         Order order = new Order();
-        order.setUser(userOpt.get());
-        order.setTotalAmount(orderRequest.getTotalAmount());
-        order.setDiscountAmount(orderRequest.getDiscountAmount());
+        order.setUser(user);
+        order.setTotalAmount(Money.toDouble(priced.getTotalCents()));
+        order.setDiscountAmount(Money.toDouble(priced.getDiscountCents()));
         order.setPromoCode(orderRequest.getPromoCode());
         
         // Set address fields
@@ -179,25 +331,81 @@ public class OrderService {
         order.setZipCode(orderRequest.getZipCode());
         order.setCountry(orderRequest.getCountry());
 
-        // Save order first to get ID
-        order = orderRepository.save(order);
+        // Load all products in one query instead of one per line
+        List<Long> productIds = new ArrayList<>(priced.getLineCount());
+        for (int i = 0; i < priced.getLineCount(); i++) {
+            productIds.add(priced.getProductId(i));
+        }
+        Map<Long, Product> products = new HashMap<>();
+        for (Product product : productRepository.findAllById(productIds)) {
+            products.put(product.getId(), product);
+        }
 
         // Create order items
         List<OrderItem> orderItems = new ArrayList<>();
-        for (OrderRequest.OrderItemRequest itemRequest : orderRequest.getItems()) {
-            Optional<Product> productOpt = productRepository.findById(itemRequest.getProductId());
-            if (productOpt.isPresent()) {
-                OrderItem orderItem = new OrderItem();
-                orderItem.setOrder(order);
-                orderItem.setProduct(productOpt.get());
-                orderItem.setQuantity(itemRequest.getQuantity());
-                orderItem.setPrice(itemRequest.getPrice());
-                orderItems.add(orderItem);
+        for (int i = 0; i < priced.getLineCount(); i++) {
+            Product product = products.get(priced.getProductId(i));
+            if (product == null) {
+                throw new RuntimeException("Product not found with id: " + priced.getProductId(i));
             }
+            OrderItem orderItem = new OrderItem();
+            orderItem.setOrder(order);
+            orderItem.setProduct(product);
+            orderItem.setQuantity(priced.getQuantity(i));
+            orderItem.setPrice(Money.toDouble(priced.getUnitCents(i)));
+            orderItems.add(orderItem);
         }
         
+        // Items cascade with the order, so a single save writes everything
         order.setOrderItems(orderItems);
-        return orderRepository.save(order);
+        order = orderRepository.save(order);
+
+        inventoryService.record(stockHold, order);
+        if (promoReservation != null) {
+            promoCodeRedemptionService.record(promoReservation, user, order);
+        }
+
+        for (OrderLifecycleListener listener : lifecycleListeners) {
+            listener.onOrderCreated(order);
+        }
+
+        // Cart clearing and the confirmation email run after commit, off the request thread
+        orderEventPublisher.publishOrderPlaced(order);
+        return order;
+    }
+
+    /**
+     * Moves an order to a new status and runs what that move implies. Only the transitions in
+     * {@link #ALLOWED_TRANSITIONS} are accepted; setting the status an order already has is a no-op.
+     */
+    private Order changeStatus(Order order, Order.OrderStatus newStatus) {
+        Order.OrderStatus previousStatus = order.getStatus();
+        if (previousStatus == newStatus) {
+            return order;
+        }
+        if (!ALLOWED_TRANSITIONS.get(previousStatus).contains(newStatus)) {
+            throw new InvalidStatusTransitionException(
+                    "Order #" + order.getId() + " cannot move from " + previousStatus + " to " + newStatus);
+        }
+        order.setStatus(newStatus);
+        if (newStatus == Order.OrderStatus.DELIVERED) {
+            order.setDeliveryDate(LocalDateTime.now());
+        }
+        order = orderRepository.save(order);
+        applyStatusSideEffects(order, previousStatus);
+        return order;
+    }
+
+    private void applyStatusSideEffects(Order order, Order.OrderStatus previousStatus) {
+        for (OrderLifecycleListener listener : lifecycleListeners) {
+            listener.onOrderStatusChanged(order, previousStatus);
+        }
+        if (order.getStatus() == Order.OrderStatus.DELIVERED) {
+            inventoryService.commitForOrder(order.getId());
+        } else if (order.getStatus() == Order.OrderStatus.CANCELLED) {
+            inventoryService.releaseForOrder(order.getId());
+            promoCodeRedemptionService.releaseForOrder(order);
+        }
     }
 
     public long getTotalOrders() {
@@ -205,25 +413,25 @@ public class OrderService {
     }
 
     public List<Order> getRecentOrders(int limit) {
-        return orderRepository.findAllByOrderByOrderDateDesc()
-                .stream()
-                .limit(limit)
-                .collect(java.util.stream.Collectors.toList());
+        return getLatestOrders(limit);
     }
 
+    /**
+     * A page of orders with their items and products: the page of ids and its count, then one
+     * query for the orders themselves.
+     */
+    @Transactional(readOnly = true)
     public Page<Order> getAllOrders(Pageable pageable) {
-        return orderRepository.findAll(pageable);
+        Page<Long> ids = orderRepository.findOrderIds(pageable);
+        return new PageImpl<>(findWithItemsInOrder(ids.getContent()), pageable, ids.getTotalElements());
     }
 
+    @Transactional
     public Order updateOrderStatus(Long id, String status) {
-        Optional<Order> orderOpt = orderRepository.findById(id);
+        Order.OrderStatus newStatus = Order.OrderStatus.valueOf(status.toUpperCase());
+        Optional<Order> orderOpt = orderRepository.findByIdForUpdate(id);
         if (orderOpt.isPresent()) {
-            Order order = orderOpt.get();
-            order.setStatus(Order.OrderStatus.valueOf(status.toUpperCase()));
-            if (Order.OrderStatus.valueOf(status.toUpperCase()) == Order.OrderStatus.DELIVERED) {
-                order.setDeliveryDate(LocalDateTime.now());
-            }
-            return orderRepository.save(order);
+            return changeStatus(orderOpt.get(), newStatus);
         }
         throw new RuntimeException("Order not found");
     }
@@ -2,6 +2,8 @@ package com.ecommerce.backend.service;
 
 import com.ecommerce.backend.entity.OtpVerification;
 import com.ecommerce.backend.repository.OtpVerificationRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
@@ -13,6 +15,8 @@ import java.util.Optional;
 @Service
 public class OtpService {
 
+    private static final Logger logger = LoggerFactory.getLogger(OtpService.class);
+
     @Autowired
     private OtpVerificationRepository otpRepository;
 
@@ -48,14 +52,10 @@ public class OtpService {
         if (identifier.contains("@")) {
             // Email - send via email service
             emailService.sendOtpEmail(identifier, otp, type);
-            System.out.println("Email OTP sent to: " + identifier + " | OTP: " + otp);
+            logger.info("Email OTP ({}) sent to {}", type, identifier);
         } else {
-            // Mobile - show in console for now
-            System.out.println("=== MOBILE OTP ===");
-            System.out.println("Phone: " + identifier);
-            System.out.println("OTP: " + otp);
-            System.out.println("Type: " + type);
-            System.out.println("==================");
+            // Mobile - show in the log for now
+            logger.info("Mobile OTP ({}) for {}: {}", type, identifier, otp);
         }
     }
 
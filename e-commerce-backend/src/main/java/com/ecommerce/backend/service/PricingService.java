@@ -0,0 +1,115 @@
+package com.ecommerce.backend.service;
+
+import com.ecommerce.backend.dto.OrderRequest;
+import com.ecommerce.backend.dto.PromoCodeValidationResponse;
+import com.ecommerce.backend.util.Money;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import java.util.List;
+
+/**
+ * Prices a checkout on the server from catalog prices and the promo code registry.
+ *
+ * All arithmetic is in whole cents on {@code long}, with overflow checked. Line pricing works on
+ * parallel primitive arrays so that the per-line loop does not allocate; the only allocations are
+ * the arrays for the cart itself.
+ */
+@Service
+public class PricingService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PricingService.class);
+
+    @Autowired
+    private CatalogPriceSnapshot catalogPriceSnapshot;
+
+    @Autowired
+    private PromoCodeService promoCodeService;
+
+    public PricedOrder priceOrder(List<OrderRequest.OrderItemRequest> items, String promoCode) {
+        int count = items.size();
+        PricedOrder priced = new PricedOrder(count);
+        for (int i = 0; i < count; i++) {
+            OrderRequest.OrderItemRequest item = items.get(i);
+            priced.productIds[i] = item.getProductId();
+            priced.quantities[i] = item.getQuantity();
+        }
+
+        // One query for anything not yet in the snapshot, then price the whole cart in one pass
+        catalogPriceSnapshot.ensureLoaded(priced.productIds, count);
+        priced.subtotalCents = priceLines(catalogPriceSnapshot.current(),
+                priced.productIds, priced.quantities, priced.unitCents, priced.lineCents, count);
+
+        if (promoCode != null && !promoCode.isBlank()) {
+            PromoCodeValidationResponse promo = promoCodeService.validatePromoCode(promoCode);
+            if (!promo.isValid()) {
+                throw new RuntimeException(promo.getMessage());
+            }
+            long basisPoints = Money.percentToBasisPoints(promo.getDiscountPercentage());
+            priced.discountCents = Math.min(priced.subtotalCents, Money.applyBasisPoints(priced.subtotalCents, basisPoints));
+        }
+        priced.totalCents = priced.subtotalCents - priced.discountCents;
+        return priced;
+    }
+
+    /**
+     * Fills {@code unitCents} and {@code lineCents} for the first {@code count} lines and returns
+     * the subtotal. Allocation-free unless a line is invalid.
+     */
+    public long priceLines(CatalogPriceSnapshot.Prices prices, long[] productIds, int[] quantities,
+                           long[] unitCents, long[] lineCents, int count) {
+        long subtotal = 0;
+        for (int i = 0; i < count; i++) {
+            long unit = prices.get(productIds[i]);
+            if (unit == CatalogPriceSnapshot.MISSING) {
+                throw new RuntimeException("Product not found with id: " + productIds[i]);
+            }
+            if (quantities[i] <= 0) {
+                throw new RuntimeException("Quantity must be positive for product " + productIds[i]);
+            }
+            long line = Math.multiplyExact(unit, quantities[i]);
+            unitCents[i] = unit;
+            lineCents[i] = line;
+            subtotal = Math.addExact(subtotal, line);
+        }
+        return subtotal;
+    }
+
+    /**
+     * Logs when the amounts the client displayed differ from what the server charged.
+     */
+    public void checkClientTotals(OrderRequest orderRequest, PricedOrder priced) {
+        long clientTotal = Money.toCents(orderRequest.getTotalAmount());
+        if (Math.abs(clientTotal - priced.totalCents) > 1) {
+            logger.warn("Client total {} differs from server total {}; charging server total",
+                    orderRequest.getTotalAmount(), Money.toDouble(priced.totalCents));
+        }
+    }
+
+    public static final class PricedOrder {
+        private final long[] productIds;
+        private final int[] quantities;
+        private final long[] unitCents;
+        private final long[] lineCents;
+        private long subtotalCents;
+        private long discountCents;
+        private long totalCents;
+
+        PricedOrder(int count) {
+            this.productIds = new long[count];
+            this.quantities = new int[count];
+            this.unitCents = new long[count];
+            this.lineCents = new long[count];
+        }
+
+        public int getLineCount() { return productIds.length; }
+        public long getProductId(int line) { return productIds[line]; }
+        public int getQuantity(int line) { return quantities[line]; }
+        public long getUnitCents(int line) { return unitCents[line]; }
+        public long getLineCents(int line) { return lineCents[line]; }
+        public long getSubtotalCents() { return subtotalCents; }
+        public long getDiscountCents() { return discountCents; }
+        public long getTotalCents() { return totalCents; }
+    }
+}
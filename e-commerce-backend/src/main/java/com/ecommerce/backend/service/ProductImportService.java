@@ -0,0 +1,407 @@
+package com.ecommerce.backend.service;
+
+import com.ecommerce.backend.dto.ProductImportResult;
+import com.ecommerce.backend.dto.ProductImportRow;
+import com.ecommerce.backend.util.CsvReader;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Types;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bulk catalog import keyed by supplier SKU.
+ *
+ * The request body is parsed as a stream (CSV with a header row, or JSON as an array or
+ * newline-delimited objects) into batches. Batches are validated on a worker pool while the next
+ * ones are being parsed, then written in input order with one JDBC batch upsert each
+ * ({@code INSERT ... ON CONFLICT (sku) DO UPDATE}). At most a few batches are held at once, so memory
+ * does not grow with the file. The price snapshot and category index are reloaded once at the end
+ * instead of per product.
+ */
+@Service
+public class ProductImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductImportService.class);
+
+    private static final int MAX_REPORTED_ERRORS = 100;
+
+    private static final String UPSERT_SQL =
+            "INSERT INTO products (sku, title, price, description, category, image_url, rating_rate, rating_count) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT (sku) DO UPDATE SET " +
+            "title = EXCLUDED.title, price = EXCLUDED.price, description = EXCLUDED.description, " +
+            "category = EXCLUDED.category, " +
+            "image_url = COALESCE(EXCLUDED.image_url, products.image_url), " +
+            "rating_rate = COALESCE(EXCLUDED.rating_rate, products.rating_rate), " +
+            "rating_count = COALESCE(EXCLUDED.rating_count, products.rating_count)";
+
+    private static final int[] UPSERT_TYPES = {
+            Types.VARCHAR, Types.VARCHAR, Types.DOUBLE, Types.VARCHAR,
+            Types.VARCHAR, Types.VARCHAR, Types.DOUBLE, Types.INTEGER
+    };
+
+    public enum Format {
+        CSV, JSON
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private CatalogPriceSnapshot catalogPriceSnapshot;
+
+    @Autowired
+    private CategoryIndex categoryIndex;
+
+    @Autowired
+    private DashboardMetricsService dashboardMetricsService;
+
+    @Autowired
+    private CatalogVersions catalogVersions;
+
+    @Autowired
+    private FileStorageService fileStorageService;
+
+    @Value("${app.product-import.batch-size:1000}")
+    private int batchSize;
+
+    private final int workers;
+
+    private final ExecutorService validationPool;
+
+    private final ReentrantLock importLock = new ReentrantLock();
+
+    public ProductImportService(@Value("${app.product-import.validation-threads:0}") int validationThreads) {
+        this.workers = validationThreads > 0 ? validationThreads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadCount = new AtomicInteger();
+        this.validationPool = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "product-import-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public ProductImportResult importProducts(InputStream input, Format format) {
+        if (!importLock.tryLock()) {
+            throw new RuntimeException("A product import is already running");
+        }
+        long start = System.currentTimeMillis();
+        ProductImportResult result = new ProductImportResult();
+        try (RowSource source = format == Format.CSV ? new CsvSource(input) : new JsonSource(input)) {
+            Deque<CompletableFuture<ValidatedBatch>> inFlight = new ArrayDeque<>();
+            List<Candidate> batch = new ArrayList<>(batchSize);
+            try {
+                Candidate candidate;
+                while ((candidate = source.next()) != null) {
+                    result.setRowsRead(result.getRowsRead() + 1);
+                    batch.add(candidate);
+                    if (batch.size() >= batchSize) {
+                        inFlight.addLast(submit(batch));
+                        batch = new ArrayList<>(batchSize);
+                        // Keep every worker busy but stop parsing ahead once they are all occupied
+                        if (inFlight.size() > workers) {
+                            write(inFlight.removeFirst().join(), result);
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                addError(result, "Import stopped at row " + (result.getRowsRead() + 1) + ": " + e.getMessage());
+            }
+            if (!batch.isEmpty()) {
+                inFlight.addLast(submit(batch));
+            }
+            while (!inFlight.isEmpty()) {
+                write(inFlight.removeFirst().join(), result);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read import: " + e.getMessage());
+        } finally {
+            try {
+                if (result.getUpserted() > 0) {
+                    catalogPriceSnapshot.refresh();
+                    categoryIndex.refresh();
+                    dashboardMetricsService.reconcile();
+                    catalogVersions.catalogChanged();
+                }
+            } finally {
+                importLock.unlock();
+            }
+        }
+        result.setDurationMs(System.currentTimeMillis() - start);
+        logger.info("Product import finished: {} rows read, {} upserted, {} rejected in {} ms",
+                result.getRowsRead(), result.getUpserted(), result.getRejected(), result.getDurationMs());
+        return result;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        validationPool.shutdownNow();
+    }
+
+    private CompletableFuture<ValidatedBatch> submit(List<Candidate> batch) {
+        return CompletableFuture.supplyAsync(() -> validate(batch), validationPool);
+    }
+
+    private void write(ValidatedBatch batch, ProductImportResult result) {
+        for (String error : batch.errors) {
+            addError(result, error);
+        }
+        if (batch.rows.isEmpty()) {
+            return;
+        }
+        Map<String, String> previousImages = currentImages(batch.rows);
+        jdbcTemplate.batchUpdate(UPSERT_SQL, batch.rows, UPSERT_TYPES);
+        result.setUpserted(result.getUpserted() + batch.rows.size());
+        // Imported rows point at uploads like any other product, so they hold references the same way
+        for (Object[] row : batch.rows) {
+            String image = (String) row[5];
+            String previous = previousImages.get((String) row[0]);
+            if (image != null && !image.equals(previous)) {
+                fileStorageService.retain(image);
+                fileStorageService.release(previous);
+            }
+        }
+    }
+
+    private Map<String, String> currentImages(List<Object[]> rows) {
+        List<Object> skus = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            skus.add(row[0]);
+        }
+        String placeholders = String.join(",", Collections.nCopies(skus.size(), "?"));
+        Map<String, String> images = new HashMap<>();
+        jdbcTemplate.query("SELECT sku, image_url FROM products WHERE sku IN (" + placeholders + ")",
+                rs -> { images.put(rs.getString(1), rs.getString(2)); }, skus.toArray());
+        return images;
+    }
+
+    private void addError(ProductImportResult result, String error) {
+        result.setRejected(result.getRejected() + 1);
+        if (result.getErrors().size() < MAX_REPORTED_ERRORS) {
+            result.getErrors().add(error);
+        }
+    }
+
+    private ValidatedBatch validate(List<Candidate> batch) {
+        ValidatedBatch validated = new ValidatedBatch();
+        // A multi-row upsert may not touch the same row twice, so a SKU repeated within a batch keeps its last row
+        Map<String, Object[]> bySku = new LinkedHashMap<>();
+        for (Candidate candidate : batch) {
+            try {
+                ProductImportRow row = candidate.row != null ? candidate.row : candidate.source.toRow(candidate.fields);
+                String sku = trim(row.getSku());
+                String title = trim(row.getTitle());
+                String category = trim(row.getCategory());
+                String description = trim(row.getDescription());
+                String image = trim(row.getImage());
+
+                String error = null;
+                if (sku == null) {
+                    error = "sku is required";
+                } else if (sku.length() > 100) {
+                    error = "sku must be at most 100 characters";
+                } else if (title == null) {
+                    error = "title is required";
+                } else if (title.length() > 255) {
+                    error = "title must be at most 255 characters";
+                } else if (row.getPrice() == null || !(row.getPrice() > 0) || row.getPrice().isInfinite()) {
+                    error = "price must be positive";
+                } else if (category == null) {
+                    error = "category is required";
+                } else if (category.length() > 255) {
+                    error = "category must be at most 255 characters";
+                } else if (description != null && description.length() > 1000) {
+                    error = "description must be at most 1000 characters";
+                } else if (image != null && image.length() > 255) {
+                    error = "image must be at most 255 characters";
+                } else if (row.getRatingRate() != null && (row.getRatingRate() < 0 || row.getRatingRate() > 5)) {
+                    error = "ratingRate must be between 0 and 5";
+                } else if (row.getRatingCount() != null && row.getRatingCount() < 0) {
+                    error = "ratingCount must not be negative";
+                }
+
+                if (error != null) {
+                    validated.errors.add("Row " + candidate.rowNumber + ": " + error);
+                    continue;
+                }
+                bySku.remove(sku);
+                bySku.put(sku, new Object[] {
+                        sku, title, row.getPrice(), description, category, image, row.getRatingRate(), row.getRatingCount()
+                });
+            } catch (RuntimeException e) {
+                validated.errors.add("Row " + candidate.rowNumber + ": " + e.getMessage());
+            }
+        }
+        validated.rows.addAll(bySku.values());
+        return validated;
+    }
+
+    private static String trim(String value) {
+        if (value == null) {
+            return null;
+        }
+        String trimmed = value.trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+
+    private static class Candidate {
+        final long rowNumber;
+        final ProductImportRow row;
+        final List<String> fields;
+        final CsvSource source;
+
+        Candidate(long rowNumber, ProductImportRow row, List<String> fields, CsvSource source) {
+            this.rowNumber = rowNumber;
+            this.row = row;
+            this.fields = fields;
+            this.source = source;
+        }
+    }
+
+    private static class ValidatedBatch {
+        final List<Object[]> rows = new ArrayList<>();
+        final List<String> errors = new ArrayList<>();
+    }
+
+    private interface RowSource extends Closeable {
+        Candidate next() throws IOException;
+    }
+
+    /**
+     * CSV with a header row. Fields are kept as strings here and converted by the validation workers.
+     */
+    private static class CsvSource implements RowSource {
+        private final CsvReader reader;
+        private final int sku, title, price, description, category, image, ratingRate, ratingCount;
+        private long rowNumber;
+
+        CsvSource(InputStream input) throws IOException {
+            this.reader = new CsvReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+            List<String> header = reader.next();
+            if (header == null) {
+                throw new IOException("CSV input is empty");
+            }
+            Map<String, Integer> columns = new LinkedHashMap<>();
+            for (int i = 0; i < header.size(); i++) {
+                String name = header.get(i).trim().toLowerCase(Locale.ROOT).replace("_", "");
+                // Tolerate a UTF-8 byte order mark on the first column
+                columns.putIfAbsent(name.replace("\uFEFF", ""), i);
+            }
+            this.sku = columns.getOrDefault("sku", -1);
+            this.title = columns.getOrDefault("title", -1);
+            this.price = columns.getOrDefault("price", -1);
+            this.description = columns.getOrDefault("description", -1);
+            this.category = columns.getOrDefault("category", -1);
+            this.image = columns.getOrDefault("image", columns.getOrDefault("imageurl", -1));
+            this.ratingRate = columns.getOrDefault("ratingrate", -1);
+            this.ratingCount = columns.getOrDefault("ratingcount", -1);
+            if (sku < 0 || title < 0 || price < 0 || category < 0) {
+                throw new IOException("CSV header must include sku, title, price and category");
+            }
+        }
+
+        @Override
+        public Candidate next() throws IOException {
+            List<String> fields = reader.next();
+            if (fields == null) {
+                return null;
+            }
+            return new Candidate(++rowNumber, null, fields, this);
+        }
+
+        ProductImportRow toRow(List<String> fields) {
+            ProductImportRow row = new ProductImportRow();
+            row.setSku(field(fields, sku));
+            row.setTitle(field(fields, title));
+            row.setDescription(field(fields, description));
+            row.setCategory(field(fields, category));
+            row.setImage(field(fields, image));
+            row.setPrice(parseDouble(field(fields, price), "price"));
+            row.setRatingRate(parseDouble(field(fields, ratingRate), "ratingRate"));
+            String count = trim(field(fields, ratingCount));
+            if (count != null) {
+                try {
+                    row.setRatingCount(Integer.valueOf(count));
+                } catch (NumberFormatException e) {
+                    throw new RuntimeException("ratingCount is not a number");
+                }
+            }
+            return row;
+        }
+
+        private static String field(List<String> fields, int index) {
+            return index >= 0 && index < fields.size() ? fields.get(index) : null;
+        }
+
+        private static Double parseDouble(String value, String name) {
+            String trimmed = trim(value);
+            if (trimmed == null) {
+                return null;
+            }
+            try {
+                return Double.valueOf(trimmed);
+            } catch (NumberFormatException e) {
+                throw new RuntimeException(name + " is not a number");
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+
+    /**
+     * A JSON array of products or newline-delimited product objects, bound one object at a time.
+     */
+    private class JsonSource implements RowSource {
+        private final MappingIterator<ProductImportRow> iterator;
+        private long rowNumber;
+
+        JsonSource(InputStream input) throws IOException {
+            this.iterator = objectMapper.readerFor(ProductImportRow.class).readValues(input);
+        }
+
+        @Override
+        public Candidate next() throws IOException {
+            if (!iterator.hasNextValue()) {
+                return null;
+            }
+            return new Candidate(++rowNumber, iterator.nextValue(), null, null);
+        }
+
+        @Override
+        public void close() throws IOException {
+            iterator.close();
+        }
+    }
+}
@@ -34,6 +34,9 @@ public class ProductRatingService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private CatalogVersions catalogVersions;
+
     public ProductRatingResponse getProductRating(Long productId) {
         Double avgRating = productRatingRepository.getAverageRatingByProductId(productId);
         Long totalRatings = productRatingRepository.getRatingCountByProductId(productId);
@@ -108,6 +111,8 @@ public class ProductRatingService {
             logger.info("Added new rating for product {} by user {}", productId, username);
         }
 
-        return productRatingRepository.save(rating);
+        ProductRating saved = productRatingRepository.save(rating);
+        catalogVersions.ratingsChanged(productId);
+        return saved;
     }
 }
\ No newline at end of file
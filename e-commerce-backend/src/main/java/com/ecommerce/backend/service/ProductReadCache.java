@@ -0,0 +1,213 @@
+package com.ecommerce.backend.service;
+
+import com.ecommerce.backend.dto.ProductView;
+import com.ecommerce.backend.entity.Product;
+import com.ecommerce.backend.util.SingleFlight;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Short-lived cache in front of the per-product reads (detail, rating summary, related products)
+ * that a popular product receives in bursts.
+ *
+ * Each entry is stamped with the catalog version it was loaded under and is fresh for
+ * {@code fresh-seconds}. After that it is still served for up to {@code stale-seconds} while one
+ * background load replaces it, so expiry never sends a burst to the database. A version bump from
+ * {@link CatalogVersions} is different: the old content is never served under the new tag, so the
+ * next read reloads synchronously. Either way concurrent loads of the same key go through
+ * {@link SingleFlight} and run once.
+ */
+@Component
+public class ProductReadCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductReadCache.class);
+
+    private enum Kind { PRODUCT, RATING, RELATED }
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRatingService productRatingService;
+
+    @Autowired
+    private CatalogVersions catalogVersions;
+
+    @Value("${app.product-read-cache.fresh-seconds:30}")
+    private long freshSeconds;
+
+    @Value("${app.product-read-cache.stale-seconds:120}")
+    private long staleSeconds;
+
+    @Value("${app.product-read-cache.max-entries:10000}")
+    private int maxEntries;
+
+    private final ConcurrentHashMap<Key, Entry> entries = new ConcurrentHashMap<>();
+
+    private final SingleFlight<Key, Entry> loads = new SingleFlight<>();
+
+    // Keys with a background reload queued or running, so a stale entry is refreshed once
+    private final Set<Key> refreshing = ConcurrentHashMap.newKeySet();
+
+    private final ThreadPoolExecutor refresher;
+
+    private final LongAdder freshHits = new LongAdder();
+
+    private final LongAdder staleHits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    public ProductReadCache(@Value("${app.product-read-cache.refresh-threads:2}") int threads,
+                            @Value("${app.product-read-cache.refresh-queue-capacity:256}") int queueCapacity) {
+        AtomicInteger threadCount = new AtomicInteger();
+        int poolSize = Math.max(1, threads);
+        this.refresher = new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)), runnable -> {
+                    Thread thread = new Thread(runnable, "product-read-refresh-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * The product as served by the detail endpoint, or null when it does not exist.
+     */
+    public ProductView getProduct(Long id) {
+        return (ProductView) lookup(new Key(Kind.PRODUCT, id, 0), () -> catalogVersions.productETag(id),
+                () -> productService.getProductById(id).map(ProductView::from).orElse(null));
+    }
+
+    /**
+     * Average, count and distribution of a product's ratings. Rating writes bump the product's
+     * version, so a new rating is never hidden behind a fresh entry.
+     */
+    @SuppressWarnings("unchecked")
+    public Map<String, Object> getRating(Long id) {
+        return (Map<String, Object>) lookup(new Key(Kind.RATING, id, 0), () -> catalogVersions.productETag(id),
+                () -> Collections.unmodifiableMap(productRatingService.getProductRatingWithDistribution(id)));
+    }
+
+    /**
+     * Products from the same category, or null when the product does not exist. Keyed to the
+     * catalog version, since any product in the category can change the answer.
+     */
+    @SuppressWarnings("unchecked")
+    public List<ProductView> getRelated(Long id, int limit) {
+        return (List<ProductView>) lookup(new Key(Kind.RELATED, id, limit), catalogVersions::catalogETag, () -> {
+            Optional<Product> product = productService.getProductById(id);
+            return product.map(p -> productService.getRelatedProducts(p.getCategory(), id, limit).stream()
+                    .map(ProductView::from)
+                    .toList())
+                    .orElse(null);
+        });
+    }
+
+    /**
+     * Whether the product is known to exist under its current version without going to the
+     * database: true only when its detail entry is cached, since missing products are never stored.
+     */
+    public boolean hasProduct(Long id) {
+        Entry entry = entries.get(new Key(Kind.PRODUCT, id, 0));
+        return entry != null && entry.version.equals(catalogVersions.productETag(id));
+    }
+
+    public int size() { return entries.size(); }
+
+    public long getHits() { return freshHits.sum() + staleHits.sum(); }
+
+    public long getMisses() { return misses.sum(); }
+
+    public long getStaleHits() { return staleHits.sum(); }
+
+    public long getLoads() { return loads.getExecutions(); }
+
+    public long getCoalesced() { return loads.getCoalesced(); }
+
+    @PreDestroy
+    public void shutdown() {
+        refresher.shutdownNow();
+    }
+
+    private Object lookup(Key key, Supplier<String> version, Supplier<Object> loader) {
+        Entry entry = entries.get(key);
+        if (entry != null && entry.version.equals(version.get())) {
+            long age = System.nanoTime() - entry.loadedAt;
+            if (age < TimeUnit.SECONDS.toNanos(freshSeconds)) {
+                freshHits.increment();
+                return entry.value;
+            }
+            if (age < TimeUnit.SECONDS.toNanos(freshSeconds + staleSeconds)) {
+                staleHits.increment();
+                refresh(key, version, loader);
+                return entry.value;
+            }
+        }
+        misses.increment();
+        return loads.load(key, () -> load(key, version, loader)).value;
+    }
+
+    private void refresh(Key key, Supplier<String> version, Supplier<Object> loader) {
+        if (!refreshing.add(key)) {
+            return;
+        }
+        try {
+            refresher.execute(() -> {
+                try {
+                    loads.load(key, () -> load(key, version, loader));
+                } catch (RuntimeException e) {
+                    // The stale entry stays until it ages out; the next read past that loads inline
+                    logger.warn("Background reload of {} {} failed: {}", key.kind, key.id, e.getMessage());
+                } finally {
+                    refreshing.remove(key);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            refreshing.remove(key);
+        }
+    }
+
+    private Entry load(Key key, Supplier<String> version, Supplier<Object> loader) {
+        // Read the version first, so a bump during the load leaves an entry that is already outdated
+        Entry entry = new Entry(version.get(), loader.get(), System.nanoTime());
+        if (entry.value == null) {
+            // Missing products are not remembered; creating one must not wait for an entry to expire
+            entries.remove(key);
+        } else {
+            store(key, entry);
+        }
+        return entry;
+    }
+
+    private void store(Key key, Entry entry) {
+        if (!entries.containsKey(key) && entries.size() >= maxEntries) {
+            long cutoff = System.nanoTime() - TimeUnit.SECONDS.toNanos(freshSeconds + staleSeconds);
+            entries.values().removeIf(existing -> existing.loadedAt - cutoff < 0);
+            if (entries.size() >= maxEntries) {
+                return;
+            }
+        }
+        entries.put(key, entry);
+    }
+
+    private record Key(Kind kind, Long id, int limit) {}
+
+    private record Entry(String version, Object value, long loadedAt) {}
+}
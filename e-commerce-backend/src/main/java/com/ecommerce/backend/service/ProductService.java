@@ -9,6 +9,7 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 
 @Service
@@ -19,6 +20,21 @@ public class ProductService {
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private CatalogPriceSnapshot catalogPriceSnapshot;
+
+    @Autowired
+    private CategoryIndex categoryIndex;
+
+    @Autowired
+    private DashboardMetricsService dashboardMetricsService;
+
+    @Autowired
+    private CatalogVersions catalogVersions;
+
+    @Autowired
+    private FileStorageService fileStorageService;
+
     public Page<Product> getAllProducts(Pageable pageable) {
         logger.info("Fetching products with pagination: page {}, size {}", pageable.getPageNumber(), pageable.getPageSize());
         return productRepository.findAll(pageable);
@@ -43,13 +59,7 @@ public class ProductService {
     }
 
     public List<String> getAllCategories() {
-        logger.info("Fetching all unique categories");
-        List<Product> products = productRepository.findAll();
-        return products.stream()
-                .map(Product::getCategory)
-                .distinct()
-                .sorted()
-                .collect(java.util.stream.Collectors.toList());
+        return categoryIndex.getCategories();
     }
 
     public List<Product> getRelatedProducts(String category, Long excludeId, int limit) {
@@ -58,12 +68,34 @@ public class ProductService {
         return products.stream().limit(limit).collect(java.util.stream.Collectors.toList());
     }
 
+    /**
+     * Creates or updates a product. The product takes its own reference on its image, so a caller
+     * holding the reference of a fresh upload releases that once this returns.
+     */
     public Product saveProduct(Product product) {
-        return productRepository.save(product);
+        boolean created = product.getId() == null;
+        String previousImage = created ? null : productRepository.findImageById(product.getId()).orElse(null);
+        Product saved = productRepository.save(product);
+        imageChanged(previousImage, saved.getImage());
+        if (created) {
+            dashboardMetricsService.productCreated();
+        }
+        catalogPriceSnapshot.update(saved);
+        categoryIndex.add(saved.getCategory());
+        catalogVersions.productChanged(saved.getId());
+        return saved;
     }
 
     public void deleteProduct(Long id) {
-        productRepository.deleteById(id);
+        Optional<Product> product = productRepository.findById(id);
+        if (product.isPresent()) {
+            productRepository.deleteById(id);
+            dashboardMetricsService.productDeleted();
+            catalogVersions.productChanged(id);
+            fileStorageService.release(product.get().getImage());
+        }
+        catalogPriceSnapshot.remove(id);
+        categoryIndex.refresh();
     }
 
     public long getTotalProducts() {
@@ -74,6 +106,7 @@ public class ProductService {
         Optional<Product> productOpt = productRepository.findById(id);
         if (productOpt.isPresent()) {
             Product product = productOpt.get();
+            String previousImage = product.getImage();
             product.setTitle(productDetails.getTitle());
             product.setDescription(productDetails.getDescription());
             product.setPrice(productDetails.getPrice());
@@ -81,8 +114,40 @@ public class ProductService {
             product.setImage(productDetails.getImage());
             product.setRatingRate(productDetails.getRatingRate());
             product.setRatingCount(productDetails.getRatingCount());
-            return productRepository.save(product);
+            Product saved = productRepository.save(product);
+            imageChanged(previousImage, saved.getImage());
+            catalogPriceSnapshot.update(saved);
+            categoryIndex.refresh();
+            catalogVersions.productChanged(saved.getId());
+            return saved;
         }
         throw new RuntimeException("Product not found");
     }
+
+    /**
+     * Points the product at an image the upload endpoint has already stored, which carries its own
+     * reference. If the product has gone in the meantime that reference is dropped again.
+     */
+    public Product setProductImage(Long id, String filename) {
+        String image = "/uploads/" + filename;
+        Optional<Product> productOpt = productRepository.findById(id);
+        if (productOpt.isEmpty()) {
+            fileStorageService.release(image);
+            throw new RuntimeException("Product not found");
+        }
+        Product product = productOpt.get();
+        String previousImage = product.getImage();
+        product.setImage(image);
+        Product saved = productRepository.save(product);
+        fileStorageService.release(previousImage);
+        catalogVersions.productChanged(saved.getId());
+        return saved;
+    }
+
+    private void imageChanged(String previousImage, String image) {
+        if (!Objects.equals(previousImage, image)) {
+            fileStorageService.retain(image);
+            fileStorageService.release(previousImage);
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,414 @@
+package com.ecommerce.backend.service;
+
+import com.ecommerce.backend.entity.Order;
+import com.ecommerce.backend.entity.PromoCodeRedemption;
+import com.ecommerce.backend.entity.User;
+import com.ecommerce.backend.repository.PromoCodeRedemptionRepository;
+import com.ecommerce.backend.repository.PromoCodeRepository;
+import com.ecommerce.backend.util.StripedQuota;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Enforces global and per-user redemption caps without serializing checkouts on the promo row.
+ *
+ * Admission is decided in memory: the global cap is a {@link StripedQuota} and each user's holds
+ * are a small counter guarded by its own lock. A reservation is taken before the order is written
+ * and is confirmed or returned when the surrounding transaction completes. Counts are loaded from
+ * the database outside any map lock, and limit changes rebuild the caps from what is held in memory,
+ * so in-flight reservations are never forgotten. Each redemption is an insert into
+ * {@code promo_code_redemptions}; {@code promo_codes.redemption_count} is only rewritten by the
+ * periodic reconciliation, so flash-sale checkouts never contend on a single row.
+ */
+@Service
+public class PromoCodeRedemptionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PromoCodeRedemptionService.class);
+
+    // Permits for a code without a global cap; still a quota so a cap added later knows what is held
+    private static final long UNLIMITED = Long.MAX_VALUE / 4;
+
+    @Autowired
+    private PromoCodeRedemptionRepository redemptionRepository;
+
+    @Autowired
+    private PromoCodeRepository promoCodeRepository;
+
+    @Autowired
+    private PromoCodeRegistry promoCodeRegistry;
+
+    @Value("${app.promo.user-counter-idle-seconds:600}")
+    private long userCounterIdleSeconds;
+
+    private final ConcurrentHashMap<Long, CodeCounters> counters = new ConcurrentHashMap<>();
+
+    /**
+     * Reserves one redemption of {@code code} for {@code user}. Returns null when the code is not a
+     * known active code, and throws when a cap has been reached.
+     */
+    public Reservation reserve(String code, User user) {
+        Optional<PromoCodeRegistry.Entry> promoOpt = promoCodeRegistry.find(code);
+        if (promoOpt.isEmpty()) {
+            return null;
+        }
+        PromoCodeRegistry.Entry promo = promoOpt.get();
+        CodeCounters codeCounters = countersFor(promo);
+
+        if (!codeCounters.tryAcquireUser(user.getId())) {
+            throw new RuntimeException("You have already used promo code " + promo.getCode() + " the maximum number of times");
+        }
+        if (!codeCounters.tryAcquireGlobal()) {
+            codeCounters.cancelUser(user.getId());
+            throw new RuntimeException("Promo code " + promo.getCode() + " has reached its usage limit");
+        }
+
+        Reservation reservation = new Reservation(codeCounters, user.getId());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_COMMITTED) {
+                        reservation.confirm();
+                    } else {
+                        reservation.cancel();
+                    }
+                }
+            });
+        }
+        return reservation;
+    }
+
+    /**
+     * Writes the redemption row for a reservation. Must run in the same transaction as the order.
+     */
+    public void record(Reservation reservation, User user, Order order) {
+        PromoCodeRedemption redemption = new PromoCodeRedemption(
+                promoCodeRepository.getReferenceById(reservation.getPromoCodeId()), user, order);
+        redemptionRepository.save(redemption);
+    }
+
+    /**
+     * Gives the redemption used by a cancelled order back to the pool.
+     */
+    @Transactional
+    public void releaseForOrder(Order order) {
+        Optional<PromoCodeRedemption> redemptionOpt = redemptionRepository.findByOrderId(order.getId());
+        if (redemptionOpt.isEmpty()) {
+            return;
+        }
+        PromoCodeRedemption redemption = redemptionOpt.get();
+        Long promoCodeId = redemption.getPromoCode().getId();
+        Long userId = redemption.getUser().getId();
+        redemptionRepository.delete(redemption);
+
+        CodeCounters codeCounters = counters.get(promoCodeId);
+        if (codeCounters == null) {
+            return;
+        }
+        Runnable release = () -> {
+            codeCounters.releaseGlobal();
+            codeCounters.releaseCommittedUser(userId);
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    release.run();
+                }
+            });
+        } else {
+            release.run();
+        }
+    }
+
+    /**
+     * Persists redemption counts and picks up limit changes made since the counters were loaded.
+     */
+    @Scheduled(fixedDelayString = "${app.promo.reconcile-interval-ms:30000}")
+    @Transactional
+    public void reconcile() {
+        if (counters.isEmpty()) {
+            return;
+        }
+        Map<Long, Long> persisted = new HashMap<>();
+        for (Object[] row : redemptionRepository.countRedemptionsByPromoCode()) {
+            persisted.put((Long) row[0], (Long) row[1]);
+        }
+
+        long idleBefore = System.nanoTime() - TimeUnit.SECONDS.toNanos(userCounterIdleSeconds);
+        for (CodeCounters codeCounters : counters.values()) {
+            long count = persisted.getOrDefault(codeCounters.promoCodeId, 0L);
+            if (count != codeCounters.lastPersisted) {
+                promoCodeRepository.updateRedemptionCount(codeCounters.promoCodeId, (int) count);
+                codeCounters.lastPersisted = count;
+            }
+
+            Optional<PromoCodeRegistry.Entry> promo = promoCodeRegistry.find(codeCounters.code);
+            if (promo.isEmpty() || !promo.get().getId().equals(codeCounters.promoCodeId)) {
+                // Deactivated or replaced; nothing can reserve against it any more
+                counters.remove(codeCounters.promoCodeId, codeCounters);
+            } else {
+                codeCounters.applyLimits(promo.get());
+                codeCounters.evictIdleUsers(idleBefore);
+            }
+        }
+    }
+
+    public Map<String, Object> getUsage(String code) {
+        Map<String, Object> usage = new HashMap<>();
+        promoCodeRegistry.find(code).ifPresent(promo -> {
+            CodeCounters codeCounters = countersFor(promo);
+            usage.put("code", promo.getCode());
+            usage.put("maxRedemptions", promo.getMaxRedemptions());
+            usage.put("maxRedemptionsPerUser", promo.getMaxRedemptionsPerUser());
+            usage.put("remaining", codeCounters.remaining());
+            usage.put("inFlight", codeCounters.inFlight.sum());
+        });
+        return usage;
+    }
+
+    private CodeCounters countersFor(PromoCodeRegistry.Entry promo) {
+        CodeCounters existing = counters.get(promo.getId());
+        if (existing != null) {
+            return existing;
+        }
+        // Count outside the map so the query never holds a bin lock; a losing racer's counters are
+        // discarded before anything reserved against them
+        long used = redemptionRepository.countByPromoCodeId(promo.getId());
+        CodeCounters loaded = new CodeCounters(promo, used);
+        existing = counters.putIfAbsent(promo.getId(), loaded);
+        if (existing != null) {
+            return existing;
+        }
+        logger.info("Loaded redemption counters for promo code {} ({} used)", promo.getCode(), used);
+        return loaded;
+    }
+
+    private final class CodeCounters {
+        private final Long promoCodeId;
+        private final String code;
+        private final ConcurrentHashMap<Long, UserHolds> perUser = new ConcurrentHashMap<>();
+        private final LongAdder inFlight = new LongAdder();
+        private volatile Integer maxRedemptions;
+        private volatile Integer maxRedemptionsPerUser;
+        private volatile StripedQuota quota;
+        // Permits the current quota started with, and redemptions already held when it was built;
+        // only read and written under this object's lock
+        private long quotaPermits;
+        private long quotaBase;
+        private volatile long lastPersisted = -1;
+
+        CodeCounters(PromoCodeRegistry.Entry promo, long used) {
+            this.promoCodeId = promo.getId();
+            this.code = promo.getCode();
+            this.maxRedemptions = promo.getMaxRedemptions();
+            this.maxRedemptionsPerUser = promo.getMaxRedemptionsPerUser();
+            buildQuota(maxRedemptions, used);
+        }
+
+        boolean tryAcquireGlobal() {
+            StripedQuota current = quota;
+            if (!current.tryAcquire()) {
+                // The quota may be mid-replacement; applyLimits holds the lock until the new one is in
+                synchronized (this) {
+                    if (quota == current || !quota.tryAcquire()) {
+                        return false;
+                    }
+                }
+            }
+            inFlight.increment();
+            return true;
+        }
+
+        void releaseGlobal() {
+            quota.release();
+        }
+
+        boolean tryAcquireUser(Long userId) {
+            while (true) {
+                UserHolds holds = perUser.computeIfAbsent(userId, id -> new UserHolds());
+                Integer limit = maxRedemptionsPerUser;
+                if (limit != null && !holds.isLoaded()) {
+                    // Confirmations seen from here on may already be in the count; counting them
+                    // twice only errs towards refusing
+                    long confirmedBefore = holds.confirmedTotal();
+                    long committed = redemptionRepository.countByPromoCodeIdAndUserId(promoCodeId, userId);
+                    holds.load(committed, confirmedBefore);
+                }
+                Boolean acquired = holds.tryAcquire(limit);
+                if (acquired != null) {
+                    return acquired;
+                }
+                // Evicted between lookup and lock; take the replacement
+            }
+        }
+
+        void confirmUser(Long userId) {
+            UserHolds holds = perUser.get(userId);
+            if (holds != null) {
+                holds.confirm();
+            }
+        }
+
+        void cancelUser(Long userId) {
+            UserHolds holds = perUser.get(userId);
+            if (holds != null) {
+                holds.cancel();
+            }
+        }
+
+        void releaseCommittedUser(Long userId) {
+            UserHolds holds = perUser.get(userId);
+            if (holds != null) {
+                holds.releaseCommitted();
+            }
+        }
+
+        long remaining() {
+            return maxRedemptions != null ? quota.remaining() : -1;
+        }
+
+        synchronized void applyLimits(PromoCodeRegistry.Entry promo) {
+            if (!Objects.equals(maxRedemptions, promo.getMaxRedemptions())) {
+                // Everything taken from the old quota and not given back is held, committed or in
+                // flight; draining it first means nothing more can be taken while this runs
+                StripedQuota previous = quota;
+                long held = quotaBase + quotaPermits - previous.drain();
+                Integer limit = promo.getMaxRedemptions();
+                buildQuota(limit, held);
+                maxRedemptions = limit;
+                logger.info("Promo code {} global limit changed to {}", code, limit);
+            }
+            // Per-user holds do not depend on the limit, so they carry over unchanged
+            maxRedemptionsPerUser = promo.getMaxRedemptionsPerUser();
+        }
+
+        void evictIdleUsers(long idleBefore) {
+            for (Map.Entry<Long, UserHolds> entry : perUser.entrySet()) {
+                if (entry.getValue().retireIfIdle(idleBefore)) {
+                    perUser.remove(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+
+        private void buildQuota(Integer limit, long held) {
+            long permits = limit != null ? Math.max(0, limit - held) : UNLIMITED;
+            quota = new StripedQuota(permits);
+            quotaPermits = permits;
+            quotaBase = held;
+        }
+    }
+
+    /**
+     * One user's redemptions of one code: committed ones, loaded lazily and only needed under a
+     * per-user cap, and in-flight ones, which are always tracked so a cap added later sees them.
+     */
+    private static final class UserHolds {
+        private int committed = -1;
+        private int inFlight;
+        private long confirmedTotal;
+        private long lastUsed = System.nanoTime();
+        private boolean retired;
+
+        synchronized boolean isLoaded() {
+            return committed >= 0;
+        }
+
+        synchronized long confirmedTotal() {
+            return confirmedTotal;
+        }
+
+        synchronized void load(long committedCount, long confirmedBefore) {
+            if (committed < 0) {
+                committed = (int) (committedCount + confirmedTotal - confirmedBefore);
+            }
+        }
+
+        // True or false for the outcome, null when this entry was evicted and must be looked up again
+        synchronized Boolean tryAcquire(Integer limit) {
+            if (retired) {
+                return null;
+            }
+            lastUsed = System.nanoTime();
+            if (limit != null && committed + inFlight >= limit) {
+                return false;
+            }
+            inFlight++;
+            return true;
+        }
+
+        synchronized void confirm() {
+            inFlight--;
+            confirmedTotal++;
+            if (committed >= 0) {
+                committed++;
+            }
+        }
+
+        synchronized void cancel() {
+            inFlight--;
+        }
+
+        synchronized void releaseCommitted() {
+            if (committed > 0) {
+                committed--;
+            }
+        }
+
+        synchronized boolean retireIfIdle(long idleBefore) {
+            if (inFlight == 0 && lastUsed - idleBefore < 0) {
+                retired = true;
+            }
+            return retired;
+        }
+    }
+
+    /**
+     * One reserved redemption. Confirmed or cancelled exactly once, normally by the transaction
+     * synchronization registered in {@link #reserve}.
+     */
+    public final class Reservation {
+        private final CodeCounters codeCounters;
+        private final Long userId;
+        private final AtomicBoolean completed = new AtomicBoolean();
+
+        private Reservation(CodeCounters codeCounters, Long userId) {
+            this.codeCounters = codeCounters;
+            this.userId = userId;
+        }
+
+        public Long getPromoCodeId() {
+            return codeCounters.promoCodeId;
+        }
+
+        public void confirm() {
+            if (completed.compareAndSet(false, true)) {
+                codeCounters.inFlight.decrement();
+                codeCounters.confirmUser(userId);
+            }
+        }
+
+        public void cancel() {
+            if (completed.compareAndSet(false, true)) {
+                codeCounters.inFlight.decrement();
+                codeCounters.releaseGlobal();
+                codeCounters.cancelUser(userId);
+            }
+        }
+    }
+}
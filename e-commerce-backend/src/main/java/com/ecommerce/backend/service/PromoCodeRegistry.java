@@ -0,0 +1,121 @@
+package com.ecommerce.backend.service;
+
+import com.ecommerce.backend.entity.PromoCode;
+import com.ecommerce.backend.repository.PromoCodeRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * In-memory view of the active rows in {@code promo_codes}.
+ *
+ * The whole table is small, so it is loaded as one immutable snapshot and swapped atomically on
+ * refresh. Because the snapshot holds every active code, a miss is authoritative: unknown codes
+ * are rejected from memory without a database round trip.
+ */
+@Component
+public class PromoCodeRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(PromoCodeRegistry.class);
+
+    @Autowired
+    private PromoCodeRepository promoCodeRepository;
+
+    // null until the first successful load; lookups fall back to the repository until then
+    private volatile Map<String, Entry> snapshot;
+
+    @PostConstruct
+    public void init() {
+        try {
+            refresh();
+        } catch (Exception e) {
+            logger.warn("Initial promo code load failed, falling back to database lookups: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.promo.refresh-interval-ms:60000}")
+    public void scheduledRefresh() {
+        try {
+            refresh();
+        } catch (Exception e) {
+            logger.warn("Promo code refresh failed, keeping previous snapshot: {}", e.getMessage());
+        }
+    }
+
+    public void refresh() {
+        List<PromoCode> promoCodes = promoCodeRepository.findByIsActiveTrue();
+        Map<String, Entry> next = new HashMap<>(promoCodes.size() * 2);
+        for (PromoCode promoCode : promoCodes) {
+            next.put(promoCode.getCode(), new Entry(promoCode));
+        }
+        snapshot = next;
+        logger.debug("Loaded {} active promo codes", next.size());
+    }
+
+    public Optional<Entry> find(String code) {
+        if (code == null || code.isEmpty()) {
+            return Optional.empty();
+        }
+        Map<String, Entry> current = snapshot;
+        if (current == null) {
+            return promoCodeRepository.findByCodeAndIsActiveTrue(code).map(Entry::new);
+        }
+        return Optional.ofNullable(current.get(code));
+    }
+
+    public boolean isLoaded() {
+        return snapshot != null;
+    }
+
+    public int size() {
+        Map<String, Entry> current = snapshot;
+        return current != null ? current.size() : 0;
+    }
+
+    /**
+     * Immutable copy of the fields needed to validate a code, detached from the persistence context.
+     */
+    public static final class Entry {
+        private final Long id;
+        private final String code;
+        private final double discountPercentage;
+        private final LocalDateTime validFrom;
+        private final LocalDateTime validUntil;
+        private final Integer maxRedemptions;
+        private final Integer maxRedemptionsPerUser;
+
+        Entry(PromoCode promoCode) {
+            this.id = promoCode.getId();
+            this.code = promoCode.getCode();
+            this.discountPercentage = promoCode.getDiscountPercentage() != null ? promoCode.getDiscountPercentage() : 0.0;
+            this.validFrom = promoCode.getValidFrom();
+            this.validUntil = promoCode.getValidUntil();
+            this.maxRedemptions = promoCode.getMaxRedemptions();
+            this.maxRedemptionsPerUser = promoCode.getMaxRedemptionsPerUser();
+        }
+
+        public Long getId() { return id; }
+        public String getCode() { return code; }
+        public double getDiscountPercentage() { return discountPercentage; }
+        public LocalDateTime getValidFrom() { return validFrom; }
+        public LocalDateTime getValidUntil() { return validUntil; }
+        public Integer getMaxRedemptions() { return maxRedemptions; }
+        public Integer getMaxRedemptionsPerUser() { return maxRedemptionsPerUser; }
+
+        public boolean isNotYetValid(LocalDateTime now) {
+            return validFrom != null && now.isBefore(validFrom);
+        }
+
+        public boolean isExpired(LocalDateTime now) {
+            return validUntil != null && now.isAfter(validUntil);
+        }
+    }
+}
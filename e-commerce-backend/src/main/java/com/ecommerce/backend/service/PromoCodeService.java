@@ -14,21 +14,25 @@ public class PromoCodeService {
     @Autowired
     private PromoCodeRepository promoCodeRepository;
 
+    @Autowired
+    private PromoCodeRegistry promoCodeRegistry;
+
     public PromoCodeValidationResponse validatePromoCode(String code) {
-        Optional<PromoCode> promoCodeOpt = promoCodeRepository.findByCodeAndIsActiveTrue(code);
+        // Served from the in-memory registry; unknown codes never reach the database
+        Optional<PromoCodeRegistry.Entry> promoCodeOpt = promoCodeRegistry.find(code);
         
         if (promoCodeOpt.isEmpty()) {
             return new PromoCodeValidationResponse(false, "Invalid promo code", 0.0);
         }
 
-        PromoCode promoCode = promoCodeOpt.get();
+        PromoCodeRegistry.Entry promoCode = promoCodeOpt.get();
         LocalDateTime now = LocalDateTime.now();
 
-        if (promoCode.getValidFrom() != null && now.isBefore(promoCode.getValidFrom())) {
+        if (promoCode.isNotYetValid(now)) {
             return new PromoCodeValidationResponse(false, "Promo code is not yet valid", 0.0);
         }
 
-        if (promoCode.getValidUntil() != null && now.isAfter(promoCode.getValidUntil())) {
+        if (promoCode.isExpired(now)) {
             return new PromoCodeValidationResponse(false, "Promo code has expired", 0.0);
         }
 
@@ -36,6 +40,8 @@ public class PromoCodeService {
     }
 
     public PromoCode savePromoCode(PromoCode promoCode) {
-        return promoCodeRepository.save(promoCode);
+        PromoCode saved = promoCodeRepository.save(promoCode);
+        promoCodeRegistry.refresh();
+        return saved;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,199 @@
+package com.ecommerce.backend.service;
+
+import com.ecommerce.backend.entity.Order;
+import com.ecommerce.backend.entity.OrderItem;
+import com.ecommerce.backend.entity.SalesRollup;
+import com.ecommerce.backend.event.OrderLifecycleListener;
+import com.ecommerce.backend.repository.SalesRollupRepository;
+import com.ecommerce.backend.util.Money;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps the hourly and daily sales rollups current and answers analytics queries from them.
+ *
+ * Each order adds its lines to the product and bucket-total rows of its hour and day with a single
+ * batch upsert, written in the same transaction as the order. Cancelling an order subtracts the
+ * same amounts. Other status changes do not affect sales figures.
+ *
+ * Revenue here is gross: unit price times quantity, before the order's promo discount, so it can
+ * be split per product. It is reported as {@code grossRevenue} to keep it apart from the dashboard's
+ * revenue, which is the discounted order total.
+ */
+@Service
+public class SalesAnalyticsService implements OrderLifecycleListener {
+
+    private static final String UPSERT_SQL =
+            "INSERT INTO sales_rollups (granularity, bucket_start, product_id, category, revenue_cents, units, order_count) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT (granularity, bucket_start, product_id) DO UPDATE SET " +
+            "revenue_cents = sales_rollups.revenue_cents + EXCLUDED.revenue_cents, " +
+            "units = sales_rollups.units + EXCLUDED.units, " +
+            "order_count = sales_rollups.order_count + EXCLUDED.order_count";
+
+    private static final int[] UPSERT_TYPES = {
+            Types.VARCHAR, Types.TIMESTAMP, Types.BIGINT, Types.VARCHAR, Types.BIGINT, Types.BIGINT, Types.BIGINT
+    };
+
+    // Advisory lock per rollup day: live updates share it, a backfill rebuilding the day takes it alone
+    private static final int DAY_LOCK_SPACE = 0x5A1E5;
+
+    private static final String DAY_LOCK_SQL = "SELECT pg_advisory_xact_lock(?, ?)";
+
+    private static final String DAY_LOCK_SHARED_SQL = "SELECT pg_advisory_xact_lock_shared(?, ?)";
+
+    private static final String ORDER_LINES_SQL =
+            "SELECT i.product_id, p.category, i.price, i.quantity " +
+            "FROM order_items i JOIN products p ON p.id = i.product_id WHERE i.order_id = ?";
+
+    @Autowired
+    private SalesRollupRepository salesRollupRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void onOrderCreated(Order order) {
+        if (order.getStatus() == Order.OrderStatus.CANCELLED || order.getOrderItems() == null) {
+            return;
+        }
+        Map<Long, Line> lines = new LinkedHashMap<>();
+        for (OrderItem item : order.getOrderItems()) {
+            addLine(lines, item.getProduct().getId(), item.getProduct().getCategory(), item.getPrice(), item.getQuantity());
+        }
+        apply(order.getOrderDate(), lines, 1);
+    }
+
+    @Override
+    public void onOrderStatusChanged(Order order, Order.OrderStatus previousStatus) {
+        boolean wasCancelled = previousStatus == Order.OrderStatus.CANCELLED;
+        boolean isCancelled = order.getStatus() == Order.OrderStatus.CANCELLED;
+        if (wasCancelled == isCancelled) {
+            return;
+        }
+        // Read the lines directly; the order's item collection may not be initialized outside a session
+        Map<Long, Line> lines = new LinkedHashMap<>();
+        jdbcTemplate.query(ORDER_LINES_SQL, (RowCallbackHandler) rs -> {
+            addLine(lines, rs.getLong(1), rs.getString(2), rs.getDouble(3), rs.getInt(4));
+        }, order.getId());
+        apply(order.getOrderDate(), lines, isCancelled ? -1 : 1);
+    }
+
+    public List<Map<String, Object>> getSalesSeries(SalesRollup.Granularity granularity, LocalDateTime from, LocalDateTime to) {
+        List<Map<String, Object>> series = new ArrayList<>();
+        for (SalesRollup rollup : salesRollupRepository.findSeries(granularity, SalesRollup.ALL_PRODUCTS, from, to)) {
+            Map<String, Object> point = new LinkedHashMap<>();
+            point.put("bucket", rollup.getBucketStart());
+            point.put("grossRevenue", Money.toDouble(rollup.getRevenueCents()));
+            point.put("units", rollup.getUnits());
+            point.put("orders", rollup.getOrderCount());
+            series.add(point);
+        }
+        return series;
+    }
+
+    public List<Map<String, Object>> getSalesByCategory(SalesRollup.Granularity granularity, LocalDateTime from, LocalDateTime to) {
+        List<Map<String, Object>> series = new ArrayList<>();
+        for (Object[] row : salesRollupRepository.sumByCategory(granularity, SalesRollup.ALL_PRODUCTS, from, to)) {
+            Map<String, Object> point = new LinkedHashMap<>();
+            point.put("bucket", row[0]);
+            point.put("category", row[1]);
+            point.put("grossRevenue", Money.toDouble(((Number) row[2]).longValue()));
+            point.put("units", ((Number) row[3]).longValue());
+            series.add(point);
+        }
+        return series;
+    }
+
+    public List<Map<String, Object>> getTopProducts(LocalDateTime from, LocalDateTime to, int limit) {
+        // Day rows are enough unless the range does not cover whole days
+        SalesRollup.Granularity granularity = from.equals(from.truncatedTo(ChronoUnit.DAYS)) && to.equals(to.truncatedTo(ChronoUnit.DAYS))
+                ? SalesRollup.Granularity.DAY
+                : SalesRollup.Granularity.HOUR;
+        List<Map<String, Object>> products = new ArrayList<>();
+        for (Object[] row : salesRollupRepository.topProducts(granularity, SalesRollup.ALL_PRODUCTS, from, to, PageRequest.of(0, limit))) {
+            Map<String, Object> product = new LinkedHashMap<>();
+            product.put("productId", row[0]);
+            product.put("category", row[1]);
+            product.put("grossRevenue", Money.toDouble(((Number) row[2]).longValue()));
+            product.put("units", ((Number) row[3]).longValue());
+            product.put("orders", ((Number) row[4]).longValue());
+            products.add(product);
+        }
+        return products;
+    }
+
+    private void addLine(Map<Long, Line> lines, long productId, String category, Double price, int quantity) {
+        Line line = lines.computeIfAbsent(productId, id -> new Line(category));
+        // Gross line value; the order discount is not allocated to lines
+        line.revenueCents += Money.toCents(price) * quantity;
+        line.units += quantity;
+    }
+
+    /**
+     * Locks a day's rollup rows until the current transaction ends. The backfill locks exclusively,
+     * so it neither deletes a live update it has not counted nor has one land on rows it is rebuilding.
+     */
+    void lockDay(LocalDate day, boolean exclusive) {
+        jdbcTemplate.query(exclusive ? DAY_LOCK_SQL : DAY_LOCK_SHARED_SQL, (ResultSetExtractor<Void>) rs -> null,
+                DAY_LOCK_SPACE, (int) day.toEpochDay());
+    }
+
+    private void apply(LocalDateTime orderDate, Map<Long, Line> lines, int sign) {
+        if (lines.isEmpty()) {
+            return;
+        }
+        lockDay(orderDate.toLocalDate(), false);
+        long revenueCents = 0;
+        long units = 0;
+        for (Line line : lines.values()) {
+            revenueCents += line.revenueCents;
+            units += line.units;
+        }
+
+        List<Object[]> rows = new ArrayList<>((lines.size() + 1) * 2);
+        for (SalesRollup.Granularity granularity : SalesRollup.Granularity.values()) {
+            Timestamp bucket = Timestamp.valueOf(bucketStart(orderDate, granularity));
+            for (Map.Entry<Long, Line> entry : lines.entrySet()) {
+                Line line = entry.getValue();
+                rows.add(new Object[] {
+                        granularity.name(), bucket, entry.getKey(), line.category,
+                        sign * line.revenueCents, sign * line.units, (long) sign
+                });
+            }
+            rows.add(new Object[] {
+                    granularity.name(), bucket, SalesRollup.ALL_PRODUCTS, null,
+                    sign * revenueCents, sign * units, (long) sign
+            });
+        }
+        jdbcTemplate.batchUpdate(UPSERT_SQL, rows, UPSERT_TYPES);
+    }
+
+    private static LocalDateTime bucketStart(LocalDateTime time, SalesRollup.Granularity granularity) {
+        return time.truncatedTo(granularity == SalesRollup.Granularity.HOUR ? ChronoUnit.HOURS : ChronoUnit.DAYS);
+    }
+
+    private static class Line {
+        final String category;
+        long revenueCents;
+        long units;
+
+        Line(String category) {
+            this.category = category;
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.ecommerce.backend.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Rebuilds sales rollups from orders and order items, one day per partition. Partitions run in
+ * parallel; each replaces its day's hourly rows, product and total, with a grouped INSERT ... SELECT
+ * and derives the day rows from them, all in one transaction.
+ *
+ * Past days still receive live updates when their orders are cancelled. Each rebuild therefore
+ * holds the day's rollup lock from {@link SalesAnalyticsService} exclusively. A live update waits
+ * for the rebuild to commit and then applies its change to the rebuilt rows. A rebuild waits for
+ * live updates already in progress, and its statements see their committed result. Today and
+ * later days are skipped, since the live updates keep them current anyway.
+ */
+@Service
+public class SalesRollupBackfillService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SalesRollupBackfillService.class);
+
+    private static final String DELETE_SQL =
+            "DELETE FROM sales_rollups WHERE bucket_start >= ? AND bucket_start < ?";
+
+    // Gross line value before discounts, matching what SalesAnalyticsService adds live
+    private static final String REVENUE_CENTS =
+            "SUM(CAST(ROUND(CAST(i.price AS numeric) * 100) AS bigint) * i.quantity)";
+
+    private static final String HOURLY_PRODUCTS_SQL =
+            "INSERT INTO sales_rollups (granularity, bucket_start, product_id, category, revenue_cents, units, order_count) " +
+            "SELECT 'HOUR', date_trunc('hour', o.order_date), i.product_id, MAX(p.category), " + REVENUE_CENTS + ", " +
+            "SUM(i.quantity), COUNT(DISTINCT o.id) " +
+            "FROM orders o JOIN order_items i ON i.order_id = o.id JOIN products p ON p.id = i.product_id " +
+            "WHERE o.order_date >= ? AND o.order_date < ? AND o.status <> 'CANCELLED' " +
+            "GROUP BY date_trunc('hour', o.order_date), i.product_id";
+
+    private static final String HOURLY_TOTALS_SQL =
+            "INSERT INTO sales_rollups (granularity, bucket_start, product_id, category, revenue_cents, units, order_count) " +
+            "SELECT 'HOUR', date_trunc('hour', o.order_date), 0, NULL, " + REVENUE_CENTS + ", " +
+            "SUM(i.quantity), COUNT(DISTINCT o.id) " +
+            "FROM orders o JOIN order_items i ON i.order_id = o.id " +
+            "WHERE o.order_date >= ? AND o.order_date < ? AND o.status <> 'CANCELLED' " +
+            "GROUP BY date_trunc('hour', o.order_date)";
+
+    // An order falls in exactly one hour, so summing hourly order counts per day stays exact
+    private static final String DAILY_FROM_HOURLY_SQL =
+            "INSERT INTO sales_rollups (granularity, bucket_start, product_id, category, revenue_cents, units, order_count) " +
+            "SELECT 'DAY', date_trunc('day', r.bucket_start), r.product_id, MAX(r.category), " +
+            "SUM(r.revenue_cents), SUM(r.units), SUM(r.order_count) " +
+            "FROM sales_rollups r WHERE r.granularity = 'HOUR' AND r.bucket_start >= ? AND r.bucket_start < ? " +
+            "GROUP BY date_trunc('day', r.bucket_start), r.product_id";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private SalesAnalyticsService salesAnalyticsService;
+
+    private final ExecutorService executor;
+
+    private volatile Progress progress;
+
+    public SalesRollupBackfillService(@Value("${app.analytics.backfill-threads:4}") int threads) {
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(Math.max(1, threads), runnable -> {
+            Thread thread = new Thread(runnable, "sales-backfill-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Starts rebuilding the days from {@code from} up to, not including, {@code to}. Today and
+     * later days are left to the live updates.
+     */
+    public synchronized Map<String, Object> startBackfill(LocalDate from, LocalDate to) {
+        if (progress != null && !progress.isFinished()) {
+            throw new RuntimeException("A sales rollup backfill is already running");
+        }
+        LocalDate end = to.isAfter(LocalDate.now()) ? LocalDate.now() : to;
+        if (!from.isBefore(end)) {
+            throw new RuntimeException("Backfill range must contain at least one past day");
+        }
+
+        List<LocalDate> days = new ArrayList<>();
+        for (LocalDate day = from; day.isBefore(end); day = day.plusDays(1)) {
+            days.add(day);
+        }
+        Progress started = new Progress(from, end, days.size());
+        progress = started;
+        for (LocalDate day : days) {
+            executor.execute(() -> rebuildDay(day, started));
+        }
+        logger.info("Sales rollup backfill started for {} days from {} to {}", days.size(), from, end);
+        return started.toMap();
+    }
+
+    public Map<String, Object> getProgress() {
+        Progress current = progress;
+        return current != null ? current.toMap() : Collections.emptyMap();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void rebuildDay(LocalDate day, Progress progress) {
+        Timestamp start = Timestamp.valueOf(day.atStartOfDay());
+        Timestamp end = Timestamp.valueOf(day.plusDays(1).atStartOfDay());
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                salesAnalyticsService.lockDay(day, true);
+                jdbcTemplate.update(DELETE_SQL, start, end);
+                jdbcTemplate.update(HOURLY_PRODUCTS_SQL, start, end);
+                jdbcTemplate.update(HOURLY_TOTALS_SQL, start, end);
+                jdbcTemplate.update(DAILY_FROM_HOURLY_SQL, start, end);
+            });
+            progress.completed.incrementAndGet();
+        } catch (Exception e) {
+            logger.error("Sales rollup backfill failed for {}", day, e);
+            progress.failedDays.add(day);
+        }
+        if (progress.isFinished()) {
+            progress.finishedAt = LocalDateTime.now();
+            logger.info("Sales rollup backfill finished: {} days rebuilt, {} failed",
+                    progress.completed.get(), progress.failedDays.size());
+        }
+    }
+
+    private static class Progress {
+        final LocalDate from;
+        final LocalDate to;
+        final int totalDays;
+        final AtomicInteger completed = new AtomicInteger();
+        final List<LocalDate> failedDays = Collections.synchronizedList(new ArrayList<>());
+        final LocalDateTime startedAt = LocalDateTime.now();
+        volatile LocalDateTime finishedAt;
+
+        Progress(LocalDate from, LocalDate to, int totalDays) {
+            this.from = from;
+            this.to = to;
+            this.totalDays = totalDays;
+        }
+
+        boolean isFinished() {
+            return completed.get() + failedDays.size() >= totalDays;
+        }
+
+        Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("from", from);
+            map.put("to", to);
+            map.put("totalDays", totalDays);
+            map.put("completedDays", completed.get());
+            map.put("failedDays", new ArrayList<>(failedDays));
+            map.put("startedAt", startedAt);
+            map.put("finishedAt", finishedAt);
+            return map;
+        }
+    }
+}
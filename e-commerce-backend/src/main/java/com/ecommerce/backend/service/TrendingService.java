@@ -0,0 +1,295 @@
+package com.ecommerce.backend.service;
+
+import com.ecommerce.backend.entity.Order;
+import com.ecommerce.backend.entity.OrderItem;
+import com.ecommerce.backend.entity.Product;
+import com.ecommerce.backend.entity.ProductActivity;
+import com.ecommerce.backend.event.OrderLifecycleListener;
+import com.ecommerce.backend.repository.ProductActivityRepository;
+import com.ecommerce.backend.repository.ProductRepository;
+import com.ecommerce.backend.util.CountMinSketch;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Product views and purchases counted in memory, ranked into a "trending now" list.
+ *
+ * Request threads only bump a per-product {@link LongAdder}. Once per tick the counters are drained
+ * into a Count-Min Sketch whose counts decay with a configurable half-life, and the products touched
+ * are offered to a bounded top-K set ranked by their sketch estimate. The ranking is published as an
+ * immutable list, so reading it never blocks. Lifetime counts and scores are flushed to
+ * {@code product_activity} periodically, and the ranking is seeded from there on startup.
+ */
+@Service
+public class TrendingService implements OrderLifecycleListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(TrendingService.class);
+
+    // Leaders whose decayed score falls below this are dropped
+    private static final double MIN_SCORE = 0.01;
+
+    private static final String FLUSH_SQL =
+            "INSERT INTO product_activity (product_id, view_count, purchase_count, trending_score, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?) " +
+            "ON CONFLICT (product_id) DO UPDATE SET " +
+            "view_count = product_activity.view_count + EXCLUDED.view_count, " +
+            "purchase_count = product_activity.purchase_count + EXCLUDED.purchase_count, " +
+            "trending_score = EXCLUDED.trending_score, updated_at = EXCLUDED.updated_at";
+
+    @Autowired
+    private ProductActivityRepository productActivityRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${app.trending.tick-interval-ms:60000}")
+    private long tickIntervalMs;
+
+    @Value("${app.trending.half-life-minutes:60}")
+    private double halfLifeMinutes;
+
+    @Value("${app.trending.purchase-weight:20}")
+    private double purchaseWeight;
+
+    @Value("${app.trending.top-k:100}")
+    private int topK;
+
+    @Value("${app.trending.sketch-width:4096}")
+    private int sketchWidth;
+
+    @Value("${app.trending.sketch-depth:4}")
+    private int sketchDepth;
+
+    private final ConcurrentHashMap<Long, Counter> counters = new ConcurrentHashMap<>();
+
+    // Owned by the tick; guarded by this
+    private CountMinSketch sketch;
+    private Map<Long, Double> leaders = new HashMap<>();
+    private final Map<Long, long[]> unflushed = new HashMap<>();
+    private double decayPerTick;
+
+    private volatile List<Ranked> ranking = Collections.emptyList();
+
+    private volatile Resolved resolved;
+
+    @PostConstruct
+    public synchronized void init() {
+        sketch = new CountMinSketch(sketchDepth, sketchWidth);
+        decayPerTick = Math.pow(0.5, tickIntervalMs / (halfLifeMinutes * 60_000.0));
+        try {
+            for (ProductActivity activity : productActivityRepository.findTopByTrendingScore(PageRequest.of(0, topK))) {
+                leaders.put(activity.getProductId(), sketch.add(activity.getProductId(), activity.getTrendingScore()));
+            }
+            publish();
+        } catch (Exception e) {
+            logger.warn("Could not seed trending products, starting empty: {}", e.getMessage());
+        }
+    }
+
+    public void recordView(Long productId) {
+        counter(productId).views.increment();
+    }
+
+    public void recordPurchase(Long productId, int quantity) {
+        counter(productId).purchases.add(quantity);
+    }
+
+    @Override
+    public void onOrderCreated(Order order) {
+        if (order.getOrderItems() == null) {
+            return;
+        }
+        List<OrderItem> items = new ArrayList<>(order.getOrderItems());
+        Runnable record = () -> {
+            for (OrderItem item : items) {
+                recordPurchase(item.getProduct().getId(), item.getQuantity());
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    record.run();
+                }
+            });
+        } else {
+            record.run();
+        }
+    }
+
+    /**
+     * The current trending products, best first. Products are loaded once per ranking and reused
+     * until the next tick.
+     */
+    public List<Product> getTrendingProducts(int limit) {
+        List<Ranked> current = ranking;
+        Resolved cached = resolved;
+        if (cached == null || cached.ranking != current) {
+            List<Long> ids = new ArrayList<>(current.size());
+            for (Ranked ranked : current) {
+                ids.add(ranked.productId);
+            }
+            Map<Long, Product> byId = new HashMap<>();
+            for (Product product : productRepository.findAllById(ids)) {
+                byId.put(product.getId(), product);
+            }
+            List<Product> products = new ArrayList<>(ids.size());
+            for (Long id : ids) {
+                Product product = byId.get(id);
+                if (product != null) {
+                    products.add(product);
+                }
+            }
+            cached = new Resolved(current, Collections.unmodifiableList(products));
+            resolved = cached;
+        }
+        return cached.products.size() <= limit ? cached.products : cached.products.subList(0, limit);
+    }
+
+    @Scheduled(fixedRateString = "${app.trending.tick-interval-ms:60000}", initialDelayString = "${app.trending.tick-interval-ms:60000}")
+    public synchronized void tick() {
+        sketch.scale(decayPerTick);
+        leaders.replaceAll((id, score) -> score * decayPerTick);
+
+        for (Map.Entry<Long, Counter> entry : counters.entrySet()) {
+            Counter counter = entry.getValue();
+            long views = counter.views.sumThenReset();
+            long purchases = counter.purchases.sumThenReset();
+            if (views == 0 && purchases == 0) {
+                // Idle products leave the map; an increment racing with this removal is lost
+                counters.remove(entry.getKey(), counter);
+                continue;
+            }
+            long[] pending = unflushed.computeIfAbsent(entry.getKey(), id -> new long[2]);
+            pending[0] += views;
+            pending[1] += purchases;
+            leaders.put(entry.getKey(), sketch.add(entry.getKey(), views + purchaseWeight * purchases));
+        }
+
+        leaders.values().removeIf(score -> score < MIN_SCORE);
+        if (leaders.size() > topK) {
+            PriorityQueue<Map.Entry<Long, Double>> heap = new PriorityQueue<>(topK + 1, Map.Entry.comparingByValue());
+            for (Map.Entry<Long, Double> leader : leaders.entrySet()) {
+                heap.offer(leader);
+                if (heap.size() > topK) {
+                    heap.poll();
+                }
+            }
+            Map<Long, Double> kept = new HashMap<>();
+            for (Map.Entry<Long, Double> leader : heap) {
+                kept.put(leader.getKey(), leader.getValue());
+            }
+            leaders = kept;
+        }
+        publish();
+    }
+
+    @Scheduled(fixedDelayString = "${app.trending.flush-interval-ms:300000}")
+    public void flush() {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>();
+        Map<Long, long[]> batch;
+        synchronized (this) {
+            batch = new HashMap<>(unflushed);
+            unflushed.clear();
+            for (Map.Entry<Long, long[]> entry : batch.entrySet()) {
+                Long id = entry.getKey();
+                rows.add(new Object[] { id, entry.getValue()[0], entry.getValue()[1], leaders.getOrDefault(id, 0.0), now });
+            }
+            for (Map.Entry<Long, Double> leader : leaders.entrySet()) {
+                if (!batch.containsKey(leader.getKey())) {
+                    rows.add(new Object[] { leader.getKey(), 0L, 0L, leader.getValue(), now });
+                }
+            }
+        }
+        if (rows.isEmpty()) {
+            return;
+        }
+
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                // Products that fell out of the ranking keep their counts but lose their score
+                jdbcTemplate.update("UPDATE product_activity SET trending_score = 0 WHERE trending_score > 0");
+                jdbcTemplate.batchUpdate(FLUSH_SQL, rows);
+            });
+            logger.debug("Flushed activity for {} products", rows.size());
+        } catch (Exception e) {
+            logger.warn("Product activity flush failed, keeping counts for the next flush: {}", e.getMessage());
+            synchronized (this) {
+                batch.forEach((id, counts) -> {
+                    long[] pending = unflushed.computeIfAbsent(id, key -> new long[2]);
+                    pending[0] += counts[0];
+                    pending[1] += counts[1];
+                });
+            }
+        }
+    }
+
+    private void publish() {
+        List<Ranked> next = new ArrayList<>(leaders.size());
+        leaders.forEach((id, score) -> next.add(new Ranked(id, score)));
+        next.sort((a, b) -> Double.compare(b.score, a.score));
+        ranking = Collections.unmodifiableList(next);
+    }
+
+    private Counter counter(Long productId) {
+        Counter counter = counters.get(productId);
+        if (counter == null) {
+            counter = counters.computeIfAbsent(productId, id -> new Counter());
+        }
+        return counter;
+    }
+
+    private static class Counter {
+        final LongAdder views = new LongAdder();
+        final LongAdder purchases = new LongAdder();
+    }
+
+    private static class Ranked {
+        final long productId;
+        final double score;
+
+        Ranked(long productId, double score) {
+            this.productId = productId;
+            this.score = score;
+        }
+    }
+
+    private static class Resolved {
+        final List<Ranked> ranking;
+        final List<Product> products;
+
+        Resolved(List<Ranked> ranking, List<Product> products) {
+            this.ranking = ranking;
+            this.products = products;
+        }
+    }
+}
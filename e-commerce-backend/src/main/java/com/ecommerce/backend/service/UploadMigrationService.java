@@ -0,0 +1,197 @@
+package com.ecommerce.backend.service;
+
+import com.ecommerce.backend.repository.StoredFileRepository;
+import com.ecommerce.backend.util.UploadPaths;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Moves uploads stored under random names into content-addressed storage. For each legacy file
+ * that a product or user points at, the content is hashed and linked into its shard and every row
+ * pointing at the old name is rewritten, so the migration can be interrupted and re-run at any
+ * point. Reference counts are recomputed from the rewritten rows at the end, which also repairs any
+ * counts that drifted. The old files are deleted only after the catalog version is bumped, so the
+ * caches never hand out a URL whose file is already gone.
+ */
+@Service
+public class UploadMigrationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UploadMigrationService.class);
+
+    private static final String UPLOAD_PREFIX = "/uploads/";
+
+    private static final String REFERENCED_UPLOADS_SQL =
+            "SELECT image_url FROM products WHERE image_url LIKE '/uploads/%' " +
+            "UNION SELECT profile_image FROM users WHERE profile_image LIKE '/uploads/%'";
+
+    @Value("${file.upload-dir}")
+    private String uploadDir;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private FileStorageService fileStorageService;
+
+    @Autowired
+    private StoredFileRepository storedFileRepository;
+
+    @Autowired
+    private CatalogVersions catalogVersions;
+
+    private volatile Progress progress;
+
+    public synchronized Map<String, Object> startMigration() {
+        if (progress != null && progress.finishedAt == null) {
+            throw new RuntimeException("An upload migration is already running");
+        }
+        Progress started = new Progress();
+        progress = started;
+        Thread worker = new Thread(() -> migrate(started), "upload-migration");
+        worker.setDaemon(true);
+        worker.start();
+        return started.toMap();
+    }
+
+    public Map<String, Object> getProgress() {
+        Progress current = progress;
+        return current != null ? current.toMap() : Collections.emptyMap();
+    }
+
+    private void migrate(Progress progress) {
+        try {
+            Set<String> legacyNames = new LinkedHashSet<>();
+            for (String url : jdbcTemplate.queryForList(REFERENCED_UPLOADS_SQL, String.class)) {
+                String name = url.substring(UPLOAD_PREFIX.length());
+                if (!UploadPaths.isContentAddressed(name)) {
+                    legacyNames.add(name);
+                }
+            }
+            progress.total = legacyNames.size();
+            logger.info("Upload migration started for {} referenced legacy files", legacyNames.size());
+
+            List<String> migrated = new ArrayList<>();
+            for (String name : legacyNames) {
+                if (migrateFile(name, progress)) {
+                    migrated.add(name);
+                }
+            }
+
+            int recounted = storedFileRepository.recountReferences();
+            catalogVersions.catalogChanged();
+            for (String name : migrated) {
+                try {
+                    fileStorageService.deleteLegacyFile(name);
+                } catch (Exception e) {
+                    // Nothing points at it any more; it is reported as unreferenced below
+                    logger.warn("Failed to delete migrated upload {}: {}", name, e.getMessage());
+                }
+            }
+            progress.unreferenced.addAll(findUnreferencedLegacyFiles());
+            logger.info("Upload migration finished: {} migrated, {} missing, {} failed, {} stored files recounted",
+                    progress.migrated.get(), progress.missing.size(), progress.failed.size(), recounted);
+        } catch (Exception e) {
+            logger.error("Upload migration failed", e);
+            progress.error = e.getMessage();
+        } finally {
+            progress.finishedAt = LocalDateTime.now();
+        }
+    }
+
+    /**
+     * Imports one legacy file and rewrites the rows pointing at it, returning whether it can now be
+     * deleted. Names that could lead outside the upload directory are recorded as failed untouched.
+     */
+    private boolean migrateFile(String legacyName, Progress progress) {
+        if (!fileStorageService.isLegacyName(legacyName)) {
+            logger.warn("Skipping upload reference that is not a stored file name: {}", legacyName);
+            progress.failed.add(legacyName);
+            return false;
+        }
+        Path legacy = Paths.get(uploadDir).resolve(legacyName);
+        if (!Files.isRegularFile(legacy)) {
+            progress.missing.add(legacyName);
+            return false;
+        }
+        try {
+            String filename = fileStorageService.importLegacyFile(legacyName);
+            String from = UPLOAD_PREFIX + legacyName;
+            String to = UPLOAD_PREFIX + filename;
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                jdbcTemplate.update("UPDATE products SET image_url = ? WHERE image_url = ?", to, from);
+                jdbcTemplate.update("UPDATE users SET profile_image = ? WHERE profile_image = ?", to, from);
+            });
+            progress.migrated.incrementAndGet();
+            return true;
+        } catch (Exception e) {
+            logger.warn("Failed to migrate upload {}: {}", legacyName, e.getMessage());
+            progress.failed.add(legacyName);
+            return false;
+        }
+    }
+
+    /**
+     * Files left in the flat upload directory once the referenced ones have moved. They are
+     * reported rather than deleted so they can be checked before anyone removes them.
+     */
+    private List<String> findUnreferencedLegacyFiles() throws IOException {
+        List<String> unreferenced = new ArrayList<>();
+        Path root = Paths.get(uploadDir);
+        if (!Files.isDirectory(root)) {
+            return unreferenced;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(root, Files::isRegularFile)) {
+            for (Path file : files) {
+                unreferenced.add(file.getFileName().toString());
+            }
+        }
+        return unreferenced;
+    }
+
+    private static class Progress {
+        final AtomicInteger migrated = new AtomicInteger();
+        final List<String> missing = Collections.synchronizedList(new ArrayList<>());
+        final List<String> failed = Collections.synchronizedList(new ArrayList<>());
+        final List<String> unreferenced = Collections.synchronizedList(new ArrayList<>());
+        final LocalDateTime startedAt = LocalDateTime.now();
+        volatile int total;
+        volatile String error;
+        volatile LocalDateTime finishedAt;
+
+        Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("totalFiles", total);
+            map.put("migratedFiles", migrated.get());
+            map.put("missingFiles", new ArrayList<>(missing));
+            map.put("failedFiles", new ArrayList<>(failed));
+            map.put("unreferencedLegacyFiles", new ArrayList<>(unreferenced));
+            map.put("error", error);
+            map.put("startedAt", startedAt);
+            map.put("finishedAt", finishedAt);
+            return map;
+        }
+    }
+}
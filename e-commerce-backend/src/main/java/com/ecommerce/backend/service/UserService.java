@@ -26,6 +26,9 @@ public class UserService {
     @Autowired
     private FileStorageService fileStorageService;
 
+    @Autowired
+    private DashboardMetricsService dashboardMetricsService;
+
     public User createUser(SignupRequest signupRequest) {
         User user = new User();
         user.setUsername(signupRequest.getUsername());
@@ -35,7 +38,9 @@ public class UserService {
         user.setLastName(signupRequest.getLastName());
         user.setPhoneNumber(signupRequest.getMobileNumber());
         
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        dashboardMetricsService.userCreated();
+        return saved;
     }
 
     public Optional<User> findByUsername(String username) {
@@ -75,10 +80,7 @@ public class UserService {
     public User updateProfileImage(Long userId, MultipartFile image) throws IOException {
         Optional<User> userOpt = userRepository.findById(userId);
         if (userOpt.isPresent()) {
-            User user = userOpt.get();
-            String filename = fileStorageService.storeFile(image);
-            user.setProfileImage("/uploads/" + filename);
-            return userRepository.save(user);
+            return replaceProfileImage(userOpt.get(), fileStorageService.storeFile(image));
         }
         throw new RuntimeException("User not found");
     }
@@ -132,14 +134,32 @@ public class UserService {
     public User updateUserProfileImage(String username, MultipartFile image) throws IOException {
         Optional<User> userOpt = userRepository.findByUsername(username);
         if (userOpt.isPresent()) {
-            User user = userOpt.get();
-            String filename = fileStorageService.storeFile(image);
-            user.setProfileImage("/uploads/" + filename);
-            return userRepository.save(user);
+            return replaceProfileImage(userOpt.get(), fileStorageService.storeFile(image));
+        }
+        throw new RuntimeException("User not found");
+    }
+
+    /**
+     * Points the user at an image the upload endpoint has already stored for them. If the user has
+     * gone in the meantime the upload's reference is dropped again.
+     */
+    public User setUserProfileImage(String username, String filename) {
+        Optional<User> userOpt = userRepository.findByUsername(username);
+        if (userOpt.isPresent()) {
+            return replaceProfileImage(userOpt.get(), filename);
         }
+        fileStorageService.release("/uploads/" + filename);
         throw new RuntimeException("User not found");
     }
 
+    private User replaceProfileImage(User user, String filename) {
+        String previousImage = user.getProfileImage();
+        user.setProfileImage("/uploads/" + filename);
+        User saved = userRepository.save(user);
+        fileStorageService.release(previousImage);
+        return saved;
+    }
+
     public Optional<User> findById(Long id) {
         return userRepository.findById(id);
     }
@@ -161,7 +181,12 @@ public class UserService {
     }
 
     public User saveUser(User user) {
-        return userRepository.save(user);
+        boolean created = user.getId() == null;
+        User saved = userRepository.save(user);
+        if (created) {
+            dashboardMetricsService.userCreated();
+        }
+        return saved;
     }
 
     public long getTotalUsers() {
@@ -183,6 +208,11 @@ public class UserService {
     }
 
     public void deleteUser(Long id) {
-        userRepository.deleteById(id);
+        Optional<User> user = userRepository.findById(id);
+        if (user.isPresent()) {
+            userRepository.deleteById(id);
+            dashboardMetricsService.userDeleted();
+            fileStorageService.release(user.get().getProfileImage());
+        }
     }
 }
\ No newline at end of file
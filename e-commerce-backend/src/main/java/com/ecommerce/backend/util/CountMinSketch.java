@@ -0,0 +1,76 @@
+package com.ecommerce.backend.util;
+
+/**
+ * Count-Min Sketch over long keys with real-valued counts, so counts can be decayed in place.
+ * Estimates never undercount; with width w and depth d they overcount by at most 2N/w with
+ * probability 1 - 2^-d, where N is the total of all counts. Not thread-safe.
+ */
+public class CountMinSketch {
+
+    private final int depth;
+    private final int width;
+    private final double[][] table;
+    private final long[] seeds;
+
+    public CountMinSketch(int depth, int width) {
+        if (depth < 1 || width < 1) {
+            throw new IllegalArgumentException("Depth and width must be positive");
+        }
+        this.depth = depth;
+        this.width = width;
+        this.table = new double[depth][width];
+        this.seeds = new long[depth];
+        for (int i = 0; i < depth; i++) {
+            seeds[i] = mix(0x9E3779B97F4A7C15L * (i + 1));
+        }
+    }
+
+    /**
+     * Adds {@code amount} to the key and returns its new estimate. Uses conservative update: only
+     * the cells at the current minimum are raised, which tightens estimates for skewed traffic.
+     */
+    public double add(long key, double amount) {
+        int[] cells = new int[depth];
+        double estimate = Double.MAX_VALUE;
+        for (int i = 0; i < depth; i++) {
+            cells[i] = index(key, i);
+            estimate = Math.min(estimate, table[i][cells[i]]);
+        }
+        double target = estimate + amount;
+        for (int i = 0; i < depth; i++) {
+            if (table[i][cells[i]] < target) {
+                table[i][cells[i]] = target;
+            }
+        }
+        return target;
+    }
+
+    public double estimate(long key) {
+        double estimate = Double.MAX_VALUE;
+        for (int i = 0; i < depth; i++) {
+            estimate = Math.min(estimate, table[i][index(key, i)]);
+        }
+        return estimate;
+    }
+
+    /**
+     * Multiplies every count by {@code factor}, e.g. to age out old activity.
+     */
+    public void scale(double factor) {
+        for (double[] row : table) {
+            for (int j = 0; j < row.length; j++) {
+                row[j] *= factor;
+            }
+        }
+    }
+
+    private int index(long key, int row) {
+        return (int) Long.remainderUnsigned(mix(key ^ seeds[row]), width);
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+        z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return z ^ (z >>> 33);
+    }
+}
@@ -0,0 +1,73 @@
+package com.ecommerce.backend.util;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Rate limits log output for repeated errors. The first occurrence of a key in each window is
+ * logged; the rest of that window is only counted, and the count is reported with the next
+ * occurrence that gets logged. A burst of identical failures therefore costs one stack trace per
+ * window instead of one per request.
+ */
+public class ErrorSampler {
+
+    private final long windowNanos;
+
+    private final int maxKeys;
+
+    private final ConcurrentHashMap<String, Window> windows = new ConcurrentHashMap<>();
+
+    public ErrorSampler(Duration window, int maxKeys) {
+        this.windowNanos = window.toNanos();
+        this.maxKeys = maxKeys;
+    }
+
+    /**
+     * Records an occurrence. Returns how many occurrences of the key were suppressed since it was
+     * last logged when this one should be logged, or -1 when it should be suppressed.
+     */
+    public long sample(String key) {
+        long now = System.nanoTime();
+        Window window = windows.get(key);
+        if (window == null) {
+            // Unbounded keys (messages with ids in them) must not grow the map forever
+            if (windows.size() >= maxKeys) {
+                windows.clear();
+            }
+            window = windows.computeIfAbsent(key, k -> new Window(now - windowNanos));
+        }
+        return window.sample(now, windowNanos);
+    }
+
+    /**
+     * Groups exceptions by type and the code location that threw them, ignoring the message.
+     */
+    public static String keyOf(Throwable error) {
+        StackTraceElement[] stack = error.getStackTrace();
+        if (stack.length == 0) {
+            return error.getClass().getName();
+        }
+        StackTraceElement top = stack[0];
+        return error.getClass().getName() + '@' + top.getClassName() + '.' + top.getMethodName() + ':' + top.getLineNumber();
+    }
+
+    private static final class Window {
+        private final AtomicLong startedAt;
+        private final LongAdder suppressed = new LongAdder();
+
+        Window(long startedAt) {
+            this.startedAt = new AtomicLong(startedAt);
+        }
+
+        long sample(long now, long length) {
+            long start = startedAt.get();
+            if (now - start >= length && startedAt.compareAndSet(start, now)) {
+                return suppressed.sumThenReset();
+            }
+            suppressed.increment();
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.ecommerce.backend.util;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded LRU cache of open read-only file channels for immutable files.
+ *
+ * Handles are reference counted: the cache holds one reference and every caller holds one until it
+ * closes the handle, so an evicted channel stays open until its last reader is done. Channels are
+ * only used for positional transfers, which are safe to run concurrently on one channel.
+ */
+public class FileHandleCache {
+
+    private final int capacity;
+
+    private final LinkedHashMap<Path, Handle> handles = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    public FileHandleCache(int capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * Returns an open handle for the file, which the caller must close.
+     */
+    public Handle acquire(Path path) throws IOException {
+        synchronized (handles) {
+            Handle cached = handles.get(path);
+            if (cached != null && cached.retain()) {
+                hits.increment();
+                return cached;
+            }
+        }
+        misses.increment();
+
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        Handle opened;
+        try {
+            opened = new Handle(path, channel, channel.size());
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+
+        synchronized (handles) {
+            Handle cached = handles.get(path);
+            if (cached != null && cached.retain()) {
+                opened.release();
+                return cached;
+            }
+            opened.retain();
+            handles.put(path, opened);
+            Iterator<Map.Entry<Path, Handle>> eldest = handles.entrySet().iterator();
+            while (handles.size() > capacity && eldest.hasNext()) {
+                Handle evicted = eldest.next().getValue();
+                eldest.remove();
+                evicted.release();
+            }
+        }
+        return opened;
+    }
+
+    public void invalidate(Path path) {
+        Handle removed;
+        synchronized (handles) {
+            removed = handles.remove(path);
+        }
+        if (removed != null) {
+            removed.release();
+        }
+    }
+
+    public void clear() {
+        synchronized (handles) {
+            for (Handle handle : handles.values()) {
+                handle.release();
+            }
+            handles.clear();
+        }
+    }
+
+    public long getHits() { return hits.sum(); }
+
+    public long getMisses() { return misses.sum(); }
+
+    public int size() {
+        synchronized (handles) {
+            return handles.size();
+        }
+    }
+
+    public static final class Handle implements AutoCloseable {
+        private final Path path;
+        private final FileChannel channel;
+        private final long size;
+        // Starts at one for the reference taken by whoever opened it
+        private final AtomicInteger references = new AtomicInteger(1);
+
+        private Handle(Path path, FileChannel channel, long size) {
+            this.path = path;
+            this.channel = channel;
+            this.size = size;
+        }
+
+        public Path getPath() { return path; }
+
+        public FileChannel getChannel() { return channel; }
+
+        public long getSize() { return size; }
+
+        private boolean retain() {
+            while (true) {
+                int current = references.get();
+                if (current == 0) {
+                    return false;
+                }
+                if (references.compareAndSet(current, current + 1)) {
+                    return true;
+                }
+            }
+        }
+
+        private void release() {
+            if (references.decrementAndGet() == 0) {
+                try {
+                    channel.close();
+                } catch (IOException ignored) {
+                    // Read-only channel; nothing to flush
+                }
+            }
+        }
+
+        @Override
+        public void close() {
+            release();
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.ecommerce.backend.util;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Image formats accepted for upload, recognised by their leading bytes rather than by the file
+ * name or the Content-Type the client sent.
+ */
+public enum ImageFormat {
+    JPEG("jpg"),
+    PNG("png"),
+    GIF("gif"),
+    WEBP("webp"),
+    BMP("bmp");
+
+    /** Bytes needed to tell every supported format apart. */
+    public static final int SIGNATURE_LENGTH = 12;
+
+    private static final byte[] PNG_SIGNATURE = { (byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n' };
+
+    private final String extension;
+
+    ImageFormat(String extension) {
+        this.extension = extension;
+    }
+
+    public String getExtension() { return extension; }
+
+    /**
+     * The format whose signature starts the buffer's remaining bytes, or null when none matches.
+     * The buffer's position is left unchanged.
+     */
+    public static ImageFormat detect(ByteBuffer header) {
+        byte[] bytes = new byte[Math.min(SIGNATURE_LENGTH, header.remaining())];
+        header.duplicate().get(bytes);
+        if (startsWith(bytes, new byte[] { (byte) 0xFF, (byte) 0xD8, (byte) 0xFF })) {
+            return JPEG;
+        }
+        if (startsWith(bytes, PNG_SIGNATURE)) {
+            return PNG;
+        }
+        if (startsWith(bytes, ascii("GIF87a")) || startsWith(bytes, ascii("GIF89a"))) {
+            return GIF;
+        }
+        if (startsWith(bytes, ascii("RIFF")) && bytes.length >= 12
+                && bytes[8] == 'W' && bytes[9] == 'E' && bytes[10] == 'B' && bytes[11] == 'P') {
+            return WEBP;
+        }
+        if (startsWith(bytes, ascii("BM")) && bytes.length >= 6) {
+            return BMP;
+        }
+        return null;
+    }
+
+    private static boolean startsWith(byte[] bytes, byte[] prefix) {
+        if (bytes.length < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (bytes[i] != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,146 @@
+package com.ecommerce.backend.util;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing {@code long -> long} map with linear probing and no boxing.
+ *
+ * Not thread-safe. Callers publish a fully built instance through a volatile field and treat it
+ * as read-only afterwards, copying it to make changes.
+ */
+public final class LongLongMap {
+
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private final long[] keys;
+    private final long[] values;
+    private final int mask;
+    private int size;
+
+    public LongLongMap(int expectedSize) {
+        int capacity = 16;
+        while (capacity < expectedSize * 2) {
+            capacity <<= 1;
+        }
+        this.keys = new long[capacity];
+        this.values = new long[capacity];
+        this.mask = capacity - 1;
+        Arrays.fill(keys, EMPTY);
+    }
+
+    public long get(long key, long missingValue) {
+        int index = slot(key);
+        while (true) {
+            long k = keys[index];
+            if (k == key) {
+                return values[index];
+            }
+            if (k == EMPTY) {
+                return missingValue;
+            }
+            index = (index + 1) & mask;
+        }
+    }
+
+    public boolean containsKey(long key) {
+        int index = slot(key);
+        while (true) {
+            long k = keys[index];
+            if (k == key) {
+                return true;
+            }
+            if (k == EMPTY) {
+                return false;
+            }
+            index = (index + 1) & mask;
+        }
+    }
+
+    public void put(long key, long value) {
+        if (key == EMPTY) {
+            throw new IllegalArgumentException("Key " + key + " is reserved");
+        }
+        if ((size + 1) * 2 > keys.length) {
+            throw new IllegalStateException("LongLongMap is full; copy it with a larger capacity first");
+        }
+        int index = slot(key);
+        while (true) {
+            long k = keys[index];
+            if (k == key) {
+                values[index] = value;
+                return;
+            }
+            if (k == EMPTY) {
+                keys[index] = key;
+                values[index] = value;
+                size++;
+                return;
+            }
+            index = (index + 1) & mask;
+        }
+    }
+
+    public void remove(long key) {
+        int index = slot(key);
+        while (keys[index] != key) {
+            if (keys[index] == EMPTY) {
+                return;
+            }
+            index = (index + 1) & mask;
+        }
+        // Backward-shift deletion keeps probe chains intact without tombstones
+        int hole = index;
+        int next = hole;
+        while (true) {
+            next = (next + 1) & mask;
+            long k = keys[next];
+            if (k == EMPTY) {
+                break;
+            }
+            int home = slot(k);
+            boolean movable = hole <= next ? (home <= hole || home > next) : (home <= hole && home > next);
+            if (movable) {
+                keys[hole] = k;
+                values[hole] = values[next];
+                hole = next;
+            }
+        }
+        keys[hole] = EMPTY;
+        size--;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns a mutable copy with room for at least {@code extra} more entries.
+     */
+    public LongLongMap copy(int extra) {
+        LongLongMap copy = new LongLongMap(size + Math.max(extra, 0));
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != EMPTY) {
+                copy.put(keys[i], values[i]);
+            }
+        }
+        return copy;
+    }
+
+    public void forEach(EntryConsumer action) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != EMPTY) {
+                action.accept(keys[i], values[i]);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    public interface EntryConsumer {
+        void accept(long key, long value);
+    }
+
+    private int slot(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+}
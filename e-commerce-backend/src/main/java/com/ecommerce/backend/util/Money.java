@@ -0,0 +1,42 @@
+package com.ecommerce.backend.util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Fixed-point money helpers. Amounts are carried as whole cents in a {@code long}; conversion to
+ * and from the {@code Double} columns happens only at the edges.
+ */
+public final class Money {
+
+    private static final long BASIS_POINTS_PER_UNIT = 10_000L;
+
+    private Money() {}
+
+    public static long toCents(Double amount) {
+        if (amount == null) {
+            return 0L;
+        }
+        // valueOf uses the shortest decimal representation, so 0.285 rounds to 29 rather than 28
+        return BigDecimal.valueOf(amount).setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    public static double toDouble(long cents) {
+        return cents / 100.0;
+    }
+
+    public static long percentToBasisPoints(Double percentage) {
+        if (percentage == null) {
+            return 0L;
+        }
+        return BigDecimal.valueOf(percentage).movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    /**
+     * {@code cents * basisPoints / 10000}, rounded half up. Throws on overflow instead of wrapping.
+     */
+    public static long applyBasisPoints(long cents, long basisPoints) {
+        long scaled = Math.multiplyExact(cents, basisPoints);
+        return Math.addExact(scaled, BASIS_POINTS_PER_UNIT / 2) / BASIS_POINTS_PER_UNIT;
+    }
+}
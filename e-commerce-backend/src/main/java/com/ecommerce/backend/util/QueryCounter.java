@@ -0,0 +1,114 @@
+package com.ecommerce.backend.util;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Counts the SQL statements issued by the current thread within a scope. The request filter opens
+ * one scope per request; tests can open their own around a call and pin its statement count:
+ *
+ * <pre>
+ * try (QueryCounter.Scope queries = QueryCounter.start()) {
+ *     orderService.getOrdersByUsername("shopper");
+ *     queries.assertCount(2);
+ * }
+ * </pre>
+ *
+ * Scopes nest, and a statement counts towards every open scope on the thread.
+ */
+public final class QueryCounter {
+
+    private static final ThreadLocal<Scope> CURRENT = new ThreadLocal<>();
+
+    private QueryCounter() {}
+
+    public static Scope start() {
+        return start(0);
+    }
+
+    /**
+     * Opens a scope with a statement budget; zero means none.
+     */
+    public static Scope start(int budget) {
+        Scope scope = new Scope(CURRENT.get(), budget);
+        CURRENT.set(scope);
+        return scope;
+    }
+
+    public static Scope current() {
+        return CURRENT.get();
+    }
+
+    public static final class Scope implements AutoCloseable {
+        private final Scope parent;
+        private final int budget;
+        private final Map<String, Integer> statements = new HashMap<>();
+        private int count;
+        private boolean closed;
+
+        private Scope(Scope parent, int budget) {
+            this.parent = parent;
+            this.budget = budget;
+        }
+
+        /**
+         * Records one statement and returns this scope's count including it.
+         */
+        public int record(String sql) {
+            statements.merge(sql, 1, Integer::sum);
+            if (parent != null) {
+                parent.record(sql);
+            }
+            return ++count;
+        }
+
+        public int getCount() { return count; }
+
+        public int getBudget() { return budget; }
+
+        public boolean isOverBudget() {
+            return budget > 0 && count > budget;
+        }
+
+        /**
+         * The statement run most often in this scope, the usual signature of an N+1, or null when
+         * nothing ran.
+         */
+        public Map.Entry<String, Integer> mostRepeated() {
+            Map.Entry<String, Integer> most = null;
+            for (Map.Entry<String, Integer> entry : statements.entrySet()) {
+                if (most == null || entry.getValue() > most.getValue()) {
+                    most = entry;
+                }
+            }
+            return most;
+        }
+
+        public void assertCount(int expected) {
+            if (count != expected) {
+                throw new AssertionError("Expected " + expected + " SQL statements but " + count + " ran" + describe());
+            }
+        }
+
+        public void assertAtMost(int max) {
+            if (count > max) {
+                throw new AssertionError("Expected at most " + max + " SQL statements but " + count + " ran" + describe());
+            }
+        }
+
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                CURRENT.set(parent);
+            }
+        }
+
+        private String describe() {
+            Map.Entry<String, Integer> most = mostRepeated();
+            return most != null && most.getValue() > 1
+                    ? "; most repeated (" + most.getValue() + "x): " + most.getKey()
+                    : "";
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.ecommerce.backend.util;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded multicast ring buffer. Every registered consumer sees every published item, in order,
+ * through its own cursor. A slot is reused only after the slowest consumer has moved past it, and
+ * publishing never blocks: when the buffer is full {@link #tryPublish} returns false.
+ */
+public final class RingBuffer<T> {
+
+    private final Object[] entries;
+    private final int mask;
+    private final AtomicLong published = new AtomicLong(-1);
+    private final List<Cursor> cursors = new CopyOnWriteArrayList<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+
+    public RingBuffer(int capacity) {
+        int size = 1;
+        while (size < capacity) {
+            size <<= 1;
+        }
+        this.entries = new Object[size];
+        this.mask = size - 1;
+    }
+
+    public Cursor addConsumer() {
+        Cursor cursor = new Cursor(published.get());
+        cursors.add(cursor);
+        return cursor;
+    }
+
+    public boolean tryPublish(T item) {
+        lock.lock();
+        try {
+            long next = published.get() + 1;
+            if (next - minimumSequence() > entries.length) {
+                return false;
+            }
+            entries[(int) (next & mask)] = item;
+            published.set(next);
+            notEmpty.signalAll();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the next item for this cursor, waiting up to {@code timeout}, or null if none arrived.
+     * The slot stays reserved until {@link #advance} is called.
+     */
+    @SuppressWarnings("unchecked")
+    public T next(Cursor cursor, long timeout, TimeUnit unit) throws InterruptedException {
+        long next = cursor.sequence.get() + 1;
+        if (next > published.get()) {
+            long remaining = unit.toNanos(timeout);
+            lock.lock();
+            try {
+                while (next > published.get()) {
+                    if (remaining <= 0) {
+                        return null;
+                    }
+                    remaining = notEmpty.awaitNanos(remaining);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        return (T) entries[(int) (next & mask)];
+    }
+
+    public void advance(Cursor cursor) {
+        cursor.sequence.incrementAndGet();
+    }
+
+    public int capacity() {
+        return entries.length;
+    }
+
+    /**
+     * Items published but not yet consumed by the slowest consumer.
+     */
+    public long backlog() {
+        return published.get() - minimumSequence();
+    }
+
+    private long minimumSequence() {
+        long minimum = published.get();
+        for (Cursor cursor : cursors) {
+            minimum = Math.min(minimum, cursor.sequence.get());
+        }
+        return minimum;
+    }
+
+    public static final class Cursor {
+        private final AtomicLong sequence;
+
+        private Cursor(long start) {
+            this.sequence = new AtomicLong(start);
+        }
+    }
+}
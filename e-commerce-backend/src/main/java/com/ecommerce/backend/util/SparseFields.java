@@ -0,0 +1,81 @@
+package com.ecommerce.backend.util;
+
+import com.fasterxml.jackson.databind.ser.FilterProvider;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.springframework.http.converter.json.MappingJacksonValue;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Sparse fieldsets for read endpoints: {@code ?fields=id,title,price} trims every DTO annotated
+ * with {@code @JsonFilter(SparseFields.FILTER)} down to the named properties. Wrappers around them
+ * (page metadata, totals) are written whole, and unknown names are ignored.
+ */
+public final class SparseFields {
+
+    public static final String FILTER = "sparseFields";
+
+    private static final int MAX_FIELDS = 32;
+
+    private SparseFields() {}
+
+    /**
+     * The body to hand to the message converter: unchanged when no fields were asked for,
+     * otherwise wrapped with a filter that keeps only those properties.
+     */
+    public static Object apply(Object body, String fields) {
+        FilterProvider filters = filters(fields);
+        if (filters == null) {
+            return body;
+        }
+        MappingJacksonValue value = new MappingJacksonValue(body);
+        value.setFilters(filters);
+        return value;
+    }
+
+    /**
+     * The filters to serialize with for a fields parameter, or null when every property is kept.
+     */
+    public static FilterProvider filters(String fields) {
+        Set<String> names = parse(fields);
+        if (names.isEmpty()) {
+            return null;
+        }
+        return new SimpleFilterProvider()
+                .addFilter(FILTER, SimpleBeanPropertyFilter.filterOutAllExcept(names));
+    }
+
+    /**
+     * A fields parameter reduced to the properties it selects from {@code properties}, sorted and
+     * without repeats, so requests that produce the same output share one form. Empty when every
+     * property is kept; null when the parameter names none of them and the output has no properties.
+     */
+    public static String canonical(String fields, Set<String> properties) {
+        Set<String> names = parse(fields);
+        if (names.isEmpty()) {
+            return "";
+        }
+        names.retainAll(properties);
+        if (names.isEmpty()) {
+            return null;
+        }
+        return names.size() == properties.size() ? "" : String.join(",", new TreeSet<>(names));
+    }
+
+    static Set<String> parse(String fields) {
+        Set<String> names = new LinkedHashSet<>();
+        if (fields == null || fields.isBlank()) {
+            return names;
+        }
+        for (String name : fields.split(",")) {
+            String trimmed = name.trim();
+            if (!trimmed.isEmpty() && names.size() < MAX_FIELDS) {
+                names.add(trimmed);
+            }
+        }
+        return names;
+    }
+}
@@ -0,0 +1,87 @@
+package com.ecommerce.backend.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A bounded permit counter split across independent stripes.
+ *
+ * Each thread starts at its own stripe and only moves on when that stripe is empty, so concurrent
+ * acquirers rarely CAS the same slot. The sum of all stripes never drops below zero, which means
+ * the total number of outstanding permits can never exceed the configured limit.
+ */
+public final class StripedQuota {
+
+    // 16 longs = 128 bytes between stripes, enough to keep them on separate cache lines
+    private static final int PADDING = 16;
+
+    private final AtomicLongArray slots;
+    private final int stripes;
+    private final int mask;
+
+    public StripedQuota(long permits) {
+        this(permits, Runtime.getRuntime().availableProcessors());
+    }
+
+    public StripedQuota(long permits, int parallelism) {
+        int n = 1;
+        while (n < parallelism) {
+            n <<= 1;
+        }
+        this.stripes = n;
+        this.mask = n - 1;
+        this.slots = new AtomicLongArray(n * PADDING);
+
+        long available = Math.max(0, permits);
+        long share = available / n;
+        long remainder = available % n;
+        for (int i = 0; i < n; i++) {
+            slots.set(i * PADDING, share + (i < remainder ? 1 : 0));
+        }
+    }
+
+    public boolean tryAcquire() {
+        int home = homeStripe();
+        for (int i = 0; i < stripes; i++) {
+            int index = ((home + i) & mask) * PADDING;
+            long current = slots.get(index);
+            while (current > 0) {
+                if (slots.compareAndSet(index, current, current - 1)) {
+                    return true;
+                }
+                current = slots.get(index);
+            }
+        }
+        return false;
+    }
+
+    public void release() {
+        slots.incrementAndGet(homeStripe() * PADDING);
+    }
+
+    /**
+     * Removes every remaining permit and returns how many there were. Used when the quota is
+     * replaced; a release that lands on a drained quota is lost, which errs on the side of
+     * under-redemption.
+     */
+    public long drain() {
+        long total = 0;
+        for (int i = 0; i < stripes; i++) {
+            total += slots.getAndSet(i * PADDING, 0);
+        }
+        return total;
+    }
+
+    public long remaining() {
+        long total = 0;
+        for (int i = 0; i < stripes; i++) {
+            total += slots.get(i * PADDING);
+        }
+        return total;
+    }
+
+    private int homeStripe() {
+        long id = Thread.currentThread().threadId();
+        int h = (int) (id ^ (id >>> 32)) * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+}
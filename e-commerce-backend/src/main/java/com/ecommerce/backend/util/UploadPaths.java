@@ -0,0 +1,37 @@
+package com.ecommerce.backend.util;
+
+import java.nio.file.Path;
+import java.util.regex.Pattern;
+
+/**
+ * Maps stored upload names to paths. Content-addressed names ({@code <sha256>.<ext>}, and their
+ * derivatives {@code <sha256>_<variant>.<ext>}) live under two levels of hash-prefix directories,
+ * {@code ab/cd/abcd...}, so no directory grows past a few thousand entries. Older random names
+ * stay in the upload root until migrated.
+ */
+public final class UploadPaths {
+
+    private static final Pattern CONTENT_ADDRESSED = Pattern.compile("[0-9a-f]{64}(_[a-z]+)?\\.[A-Za-z0-9]+");
+
+    private UploadPaths() {}
+
+    public static boolean isContentAddressed(String name) {
+        return CONTENT_ADDRESSED.matcher(name).matches();
+    }
+
+    public static Path resolve(Path root, String name) {
+        if (isContentAddressed(name)) {
+            return root.resolve(name.substring(0, 2)).resolve(name.substring(2, 4)).resolve(name);
+        }
+        return root.resolve(name);
+    }
+
+    public static String toHex(byte[] digest) {
+        char[] hex = new char[digest.length * 2];
+        for (int i = 0; i < digest.length; i++) {
+            hex[i * 2] = Character.forDigit((digest[i] >> 4) & 0xF, 16);
+            hex[i * 2 + 1] = Character.forDigit(digest[i] & 0xF, 16);
+        }
+        return new String(hex);
+    }
+}
@@ -0,0 +1,112 @@
+package com.ecommerce.backend;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Platform against virtual request threads for the blocking request mix this backend serves, at the
+ * same connection pool size. A burst of requests each borrows a connection for a short query, and
+ * every tenth one also waits on a slow remote call (SMTP, Google certificate fetch) holding no
+ * connection. The platform mode runs them on Tomcat's default 200 workers. The pinned mode runs the
+ * query inside a synchronized block, which is what the pinning audit removed.
+ *
+ * The connection pool is a semaphore sized like {@code spring.datasource.hikari.maximum-pool-size},
+ * so the numbers isolate scheduling from database speed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class RequestThreadingBenchmark {
+
+    private static final int TOMCAT_MAX_THREADS = 200;
+
+    @Param({"platform", "virtual", "virtual-pinned"})
+    public String threads;
+
+    @Param({"20"})
+    public int poolSize;
+
+    @Param({"2000"})
+    public int requests;
+
+    @Param({"2"})
+    public int queryMillis;
+
+    @Param({"100"})
+    public int remoteCallMillis;
+
+    private ExecutorService executor;
+
+    private Semaphore connections;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        executor = threads.equals("platform")
+                ? Executors.newFixedThreadPool(TOMCAT_MAX_THREADS)
+                : Executors.newVirtualThreadPerTaskExecutor();
+        connections = new Semaphore(poolSize, true);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public void burst() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(requests);
+        boolean pinned = threads.equals("virtual-pinned");
+        for (int i = 0; i < requests; i++) {
+            boolean remoteCall = i % 10 == 0;
+            Object monitor = new Object();
+            executor.execute(() -> {
+                try {
+                    if (pinned) {
+                        synchronized (monitor) {
+                            query();
+                        }
+                    } else {
+                        query();
+                    }
+                    if (remoteCall) {
+                        Thread.sleep(remoteCallMillis);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+    }
+
+    private void query() throws InterruptedException {
+        connections.acquire();
+        try {
+            Thread.sleep(queryMillis);
+        } finally {
+            connections.release();
+        }
+    }
+}
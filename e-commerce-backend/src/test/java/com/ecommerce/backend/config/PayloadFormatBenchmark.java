@@ -0,0 +1,171 @@
+package com.ecommerce.backend.config;
+
+import com.ecommerce.backend.dto.OrderResponse;
+import com.ecommerce.backend.dto.ProductView;
+import com.ecommerce.backend.entity.Cart;
+import com.ecommerce.backend.entity.Order;
+import com.ecommerce.backend.entity.OrderItem;
+import com.ecommerce.backend.entity.Product;
+import com.ecommerce.backend.service.CatalogPageCache;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Encode time per endpoint and format for the bodies polled most: a 20-product catalog page,
+ * ten orders of five items from my-orders, and a ten-line cart. {@code encode} is the mapper
+ * alone; {@code encodeAndGzip} adds the gzip step large listings go through. Payload sizes, raw
+ * and gzipped, are printed once per trial at setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PayloadFormatBenchmark {
+
+    @Param({"products", "myOrders", "cart"})
+    public String endpoint;
+
+    @Param({"JSON", "SMILE", "CBOR"})
+    public CatalogPageCache.Format format;
+
+    private ObjectWriter writer;
+
+    private Object body;
+
+    @Setup
+    public void setUp() throws IOException {
+        JacksonConfig config = new JacksonConfig();
+        ObjectMapper mapper = switch (format) {
+            case SMILE -> config.smileHttpMessageConverter().getObjectMapper();
+            case CBOR -> config.cborHttpMessageConverter().getObjectMapper();
+            default -> config.objectMapper();
+        };
+        writer = mapper.writer();
+
+        // Random words, so gzip sees text about as repetitive as a real catalog rather than a template
+        SplittableRandom random = new SplittableRandom(11);
+        List<Product> products = new ArrayList<>();
+        for (long id = 1; id <= 20; id++) {
+            Product product = new Product(words(random, 4), random.nextInt(100, 100_000) / 100.0,
+                    words(random, 30), "electronics", "/api/files/" + UUID.randomUUID() + ".jpg",
+                    random.nextInt(10, 51) / 10.0, random.nextInt(0, 2000));
+            product.setId(id);
+            product.setSku("SKU-" + random.nextInt(100_000, 1_000_000));
+            products.add(product);
+        }
+        body = switch (endpoint) {
+            case "products" -> productPage(products);
+            case "myOrders" -> orders(products);
+            default -> cart(products);
+        };
+
+        byte[] encoded = encode();
+        System.out.printf("%n%s as %s: %d bytes, %d gzipped%n", endpoint, format, encoded.length,
+                gzip(encoded).length);
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        return writer.writeValueAsBytes(body);
+    }
+
+    @Benchmark
+    public byte[] encodeAndGzip() throws IOException {
+        return gzip(writer.writeValueAsBytes(body));
+    }
+
+    // Same shape as ProductController's page response
+    private static Map<String, Object> productPage(List<Product> products) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("products", products.stream().map(ProductView::from).toList());
+        response.put("currentPage", 0);
+        response.put("totalItems", 500L);
+        response.put("totalPages", 25);
+        return response;
+    }
+
+    private static List<OrderResponse> orders(List<Product> products) {
+        List<OrderResponse> orders = new ArrayList<>();
+        for (long id = 1; id <= 10; id++) {
+            Order order = new Order();
+            order.setId(id);
+            order.setTotalAmount(125.5);
+            order.setFullName("Jane Shopper");
+            order.setEmail("jane@example.com");
+            order.setPhone("5550100");
+            order.setStreet("1 Main St");
+            order.setCity("Springfield");
+            order.setState("IL");
+            order.setZipCode("62701");
+            order.setCountry("US");
+            List<OrderItem> items = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                OrderItem item = new OrderItem(order, products.get(i), 1 + i, 10.0 + i);
+                item.setId(id * 10 + i);
+                items.add(item);
+            }
+            order.setOrderItems(items);
+            orders.add(new OrderResponse(order));
+        }
+        return orders;
+    }
+
+    // The cart endpoint returns the entities; the lazy user is an uninitialized proxy there and is written as null
+    private static List<Cart> cart(List<Product> products) {
+        List<Cart> cart = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            Cart line = new Cart();
+            line.setId((long) i + 1);
+            line.setProduct(products.get(i));
+            line.setQuantity(1 + i % 3);
+            cart.add(line);
+        }
+        return cart;
+    }
+
+    private static String words(SplittableRandom random, int count) {
+        StringBuilder text = new StringBuilder();
+        for (int w = 0; w < count; w++) {
+            if (w > 0) {
+                text.append(' ');
+            }
+            int length = random.nextInt(2, 10);
+            for (int c = 0; c < length; c++) {
+                text.append((char) ('a' + random.nextInt(26)));
+            }
+        }
+        return text.toString();
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(bytes.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(buffer)) {
+            gzip.write(bytes);
+        }
+        return buffer.toByteArray();
+    }
+}
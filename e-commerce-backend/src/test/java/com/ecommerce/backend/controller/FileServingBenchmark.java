@@ -0,0 +1,152 @@
+package com.ecommerce.backend.controller;
+
+import com.ecommerce.backend.util.FileHandleCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.UrlResource;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Image serving throughput, old controller path against the current one, into a loopback socket
+ * drained by another thread. {@code urlResource} is what the controller did before: resolve the
+ * name, wrap it in a {@link UrlResource}, check it and stream it through an 8 KB copy buffer.
+ * {@code cachedTransferTo} is the current path with Tomcat sendfile: a handle from
+ * {@link FileHandleCache} transferred to the socket with {@link FileChannel#transferTo}, which the
+ * kernel completes without copying through the JVM.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class FileServingBenchmark {
+
+    private static final int FILES = 64;
+
+    @Param({"16384", "524288"})
+    public int fileSize;
+
+    private Path uploadDir;
+
+    private final String[] names = new String[FILES];
+
+    private FileHandleCache fileHandleCache;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        uploadDir = Files.createTempDirectory("file-serving-benchmark");
+        SplittableRandom random = new SplittableRandom(7);
+        byte[] content = new byte[fileSize];
+        for (int i = 0; i < FILES; i++) {
+            for (int b = 0; b < content.length; b++) {
+                content[b] = (byte) random.nextInt();
+            }
+            names[i] = UUID.randomUUID() + ".jpg";
+            Files.write(uploadDir.resolve(names[i]), content);
+        }
+        fileHandleCache = new FileHandleCache(256);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        fileHandleCache.clear();
+        FileSystemUtils.deleteRecursively(uploadDir);
+    }
+
+    @State(Scope.Thread)
+    public static class Connection {
+        SocketChannel client;
+        ServerSocketChannel server;
+        int next;
+
+        @Setup(Level.Trial)
+        public void open() throws IOException {
+            server = ServerSocketChannel.open().bind(new InetSocketAddress("127.0.0.1", 0));
+            client = SocketChannel.open(server.getLocalAddress());
+            SocketChannel accepted = server.accept();
+            Thread drain = new Thread(() -> {
+                ByteBuffer buffer = ByteBuffer.allocateDirect(256 * 1024);
+                try (accepted) {
+                    while (accepted.read(buffer) >= 0) {
+                        buffer.clear();
+                    }
+                } catch (IOException e) {
+                    // Closed at tear-down
+                }
+            }, "file-serving-drain");
+            drain.setDaemon(true);
+            drain.start();
+        }
+
+        @TearDown(Level.Trial)
+        public void close() throws IOException {
+            client.close();
+            server.close();
+        }
+    }
+
+    @Benchmark
+    public long urlResource(Connection connection) throws IOException {
+        String filename = names[connection.next++ & (FILES - 1)];
+        Resource resource = new UrlResource(uploadDir.resolve(filename).normalize().toUri());
+        if (!resource.exists() || !resource.isReadable()) {
+            throw new IllegalStateException(filename);
+        }
+        String contentType = "image/jpeg";
+        if (filename.toLowerCase().endsWith(".png")) {
+            contentType = "image/png";
+        } else if (filename.toLowerCase().endsWith(".gif")) {
+            contentType = "image/gif";
+        }
+        OutputStream out = Channels.newOutputStream(connection.client);
+        try (InputStream in = resource.getInputStream()) {
+            return StreamUtils.copy(in, out) + contentType.length();
+        }
+    }
+
+    @Benchmark
+    public long cachedTransferTo(Connection connection) throws IOException {
+        String filename = names[connection.next++ & (FILES - 1)];
+        Path path = uploadDir.resolve(filename).toAbsolutePath().normalize();
+        try (FileHandleCache.Handle handle = fileHandleCache.acquire(path)) {
+            FileChannel channel = handle.getChannel();
+            long length = handle.getSize();
+            long position = 0;
+            while (position < length) {
+                position += channel.transferTo(position, length - position, connection.client);
+            }
+            return position;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.ecommerce.backend.dto;
+
+import com.ecommerce.backend.config.JacksonConfig;
+import com.ecommerce.backend.entity.Order;
+import com.ecommerce.backend.entity.OrderItem;
+import com.ecommerce.backend.entity.Product;
+import com.ecommerce.backend.util.SparseFields;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.datatype.hibernate5.jakarta.Hibernate5JakartaModule;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON encoding of the main read responses, entity path against DTO path. The {@code entity}
+ * benchmarks serialize {@link Product} and {@link Order} entities with the mapper as configured
+ * before the DTOs, Hibernate module and reflection only. The {@code view} benchmarks map to
+ * {@link ProductView} and {@link OrderResponse} first, as the controllers now do, and serialize
+ * with the application mapper; {@code productPageViewSparse} adds {@code fields=id,title,price}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResponseSerializationBenchmark {
+
+    private static final int ORDER_ITEMS = 5;
+
+    @Param({"20", "100"})
+    public int pageSize;
+
+    private ObjectMapper entityMapper;
+
+    private ObjectWriter viewWriter;
+
+    private ObjectWriter sparseWriter;
+
+    private List<Product> products;
+
+    private Order order;
+
+    @Setup
+    public void setUp() {
+        entityMapper = new ObjectMapper();
+        Hibernate5JakartaModule hibernateModule = new Hibernate5JakartaModule();
+        hibernateModule.configure(Hibernate5JakartaModule.Feature.FORCE_LAZY_LOADING, false);
+        hibernateModule.configure(Hibernate5JakartaModule.Feature.USE_TRANSIENT_ANNOTATION, false);
+        entityMapper.registerModule(hibernateModule);
+        entityMapper.registerModule(new JavaTimeModule());
+
+        ObjectMapper viewMapper = new JacksonConfig().objectMapper();
+        viewWriter = viewMapper.writer();
+        sparseWriter = viewMapper.writer().with(SparseFields.filters("id,title,price"));
+
+        products = new ArrayList<>(pageSize);
+        for (long id = 1; id <= pageSize; id++) {
+            Product product = new Product("Product " + id, 10.0 + id, "Description of product " + id
+                    + ", long enough to look like a real catalog entry.", "electronics",
+                    "/api/files/product-" + id + ".jpg", 4.2, 120);
+            product.setId(id);
+            product.setSku("SKU-" + id);
+            products.add(product);
+        }
+
+        order = new Order();
+        order.setId(1L);
+        order.setTotalAmount(125.5);
+        order.setFullName("Jane Shopper");
+        order.setEmail("jane@example.com");
+        order.setPhone("5550100");
+        order.setStreet("1 Main St");
+        order.setCity("Springfield");
+        order.setState("IL");
+        order.setZipCode("62701");
+        order.setCountry("US");
+        List<OrderItem> items = new ArrayList<>(ORDER_ITEMS);
+        for (int i = 0; i < ORDER_ITEMS; i++) {
+            OrderItem item = new OrderItem(order, products.get(i % products.size()), 1 + i, 10.0 + i);
+            item.setId((long) i + 1);
+            items.add(item);
+        }
+        order.setOrderItems(items);
+    }
+
+    @Benchmark
+    public byte[] productPageEntity() throws JsonProcessingException {
+        return entityMapper.writeValueAsBytes(products);
+    }
+
+    @Benchmark
+    public byte[] productPageView() throws JsonProcessingException {
+        return viewWriter.writeValueAsBytes(products.stream().map(ProductView::from).toList());
+    }
+
+    @Benchmark
+    public byte[] productPageViewSparse() throws JsonProcessingException {
+        return sparseWriter.writeValueAsBytes(products.stream().map(ProductView::from).toList());
+    }
+
+    @Benchmark
+    public byte[] orderEntity() throws JsonProcessingException {
+        return entityMapper.writeValueAsBytes(order);
+    }
+
+    @Benchmark
+    public byte[] orderView() throws JsonProcessingException {
+        return viewWriter.writeValueAsBytes(new OrderResponse(order));
+    }
+}
@@ -0,0 +1,68 @@
+package com.ecommerce.backend.service;
+
+import com.ecommerce.backend.entity.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CatalogPriceSnapshotTest {
+
+    private CatalogPriceSnapshot snapshot;
+
+    @BeforeEach
+    void setUp() {
+        snapshot = new CatalogPriceSnapshot();
+        ReflectionTestUtils.setField(snapshot, "overlayMaxEntries", 4);
+        List<Product> catalog = new ArrayList<>();
+        for (long id = 1; id <= 10; id++) {
+            catalog.add(product(id, id));
+        }
+        snapshot.putAll(catalog);
+    }
+
+    @Test
+    void singleChangesAreVisibleBeforeAndAfterFolding() {
+        snapshot.update(product(1, 50.0));
+        assertEquals(5000, snapshot.priceCents(1));
+        assertEquals(200, snapshot.priceCents(2));
+
+        // The fourth pending change folds the overlay into the base
+        snapshot.update(product(2, 60.0));
+        snapshot.update(product(11, 70.0));
+        snapshot.update(product(3, 80.0));
+        assertEquals(5000, snapshot.priceCents(1));
+        assertEquals(6000, snapshot.priceCents(2));
+        assertEquals(7000, snapshot.priceCents(11));
+        assertEquals(8000, snapshot.priceCents(3));
+        assertEquals(400, snapshot.priceCents(4));
+    }
+
+    @Test
+    void removalHidesTheBasePriceUntilReadded() {
+        snapshot.remove(5L);
+        assertEquals(CatalogPriceSnapshot.MISSING, snapshot.priceCents(5));
+        assertFalse(snapshot.current().containsKey(5));
+
+        snapshot.update(product(6, 1.0));
+        snapshot.update(product(7, 1.0));
+        snapshot.update(product(8, 1.0));
+        assertEquals(CatalogPriceSnapshot.MISSING, snapshot.priceCents(5));
+
+        snapshot.update(product(5, 9.0));
+        assertTrue(snapshot.current().containsKey(5));
+        assertEquals(900, snapshot.priceCents(5));
+    }
+
+    private static Product product(long id, double price) {
+        Product product = new Product("Product " + id, price, null, "category", null, 4.0, 10);
+        product.setId(id);
+        return product;
+    }
+}
@@ -0,0 +1,24 @@
+package com.ecommerce.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class OrderExportServiceTest {
+
+    @Test
+    void formulaPrefixesAreNeutralized() {
+        assertEquals("'=HYPERLINK(\"http://evil\")", OrderExportService.neutralizeFormula("=HYPERLINK(\"http://evil\")"));
+        assertEquals("'+1+1", OrderExportService.neutralizeFormula("+1+1"));
+        assertEquals("'-2+3", OrderExportService.neutralizeFormula("-2+3"));
+        assertEquals("'@SUM(A1)", OrderExportService.neutralizeFormula("@SUM(A1)"));
+        assertEquals("'\t=1", OrderExportService.neutralizeFormula("\t=1"));
+    }
+
+    @Test
+    void ordinaryTextIsUnchanged() {
+        assertEquals("Jane Shopper", OrderExportService.neutralizeFormula("Jane Shopper"));
+        assertEquals("a=b", OrderExportService.neutralizeFormula("a=b"));
+        assertEquals("", OrderExportService.neutralizeFormula(""));
+    }
+}
@@ -0,0 +1,153 @@
+package com.ecommerce.backend.service;
+
+import com.ecommerce.backend.config.JacksonConfig;
+import com.ecommerce.backend.config.QueryBudgetInspector;
+import com.ecommerce.backend.dto.OrderResponse;
+import com.ecommerce.backend.entity.Order;
+import com.ecommerce.backend.entity.OrderItem;
+import com.ecommerce.backend.entity.Product;
+import com.ecommerce.backend.entity.User;
+import com.ecommerce.backend.event.OrderEventPublisher;
+import com.ecommerce.backend.event.OrderLifecycleListener;
+import com.ecommerce.backend.util.QueryCounter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Pins the statement counts of the order read paths, serialization included, against an in-memory
+ * database. Every order has several items, so a lazy load per order or per item shows up as a count
+ * that grows with the data instead of the fixed one asserted here.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect"
+})
+@Import({OrderService.class, QueryBudgetInspector.class, JacksonConfig.class})
+class OrderQueryCountTest {
+
+    private static final int ORDERS = 20;
+
+    private static final int ITEMS_PER_ORDER = 5;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockBean
+    private PromoCodeRedemptionService promoCodeRedemptionService;
+
+    @MockBean
+    private PricingService pricingService;
+
+    @MockBean
+    private InventoryService inventoryService;
+
+    @MockBean
+    private OrderEventPublisher orderEventPublisher;
+
+    @MockBean
+    private OrderLifecycleListener orderLifecycleListener;
+
+    private Long firstOrderId;
+
+    @BeforeEach
+    void setUp() {
+        User user = entityManager.persist(new User("shopper", "shopper@example.com", "secret"));
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < ITEMS_PER_ORDER; i++) {
+            products.add(entityManager.persist(new Product("Product " + i, 10.0 + i, "Description " + i,
+                    "category", "/api/files/product-" + i + ".jpg", 4.0, 10)));
+        }
+        for (int i = 0; i < ORDERS; i++) {
+            Order order = new Order();
+            order.setUser(user);
+            order.setTotalAmount(60.0);
+            order.setFullName("Shopper");
+            order.setEmail("shopper@example.com");
+            order.setPhone("5550100");
+            order.setStreet("1 Main St");
+            order.setCity("Springfield");
+            order.setState("IL");
+            order.setZipCode("62701");
+            order.setCountry("US");
+            order.setOrderDate(order.getOrderDate().minusMinutes(i));
+            entityManager.persist(order);
+            for (Product product : products) {
+                entityManager.persist(new OrderItem(order, product, 1, product.getPrice()));
+            }
+            if (firstOrderId == null) {
+                firstOrderId = order.getId();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void myOrdersLoadsUserThenOrdersWithItems() throws Exception {
+        try (QueryCounter.Scope queries = QueryCounter.start()) {
+            List<OrderResponse> orders = orderService.getOrdersByUsername("shopper").stream()
+                    .map(OrderResponse::new)
+                    .toList();
+            objectMapper.writeValueAsBytes(orders);
+            assertEquals(ORDERS, orders.size());
+            assertEquals(ITEMS_PER_ORDER, orders.get(0).getOrderItems().size());
+            queries.assertCount(2);
+        }
+    }
+
+    @Test
+    void orderDetailIsOneQuery() throws Exception {
+        try (QueryCounter.Scope queries = QueryCounter.start()) {
+            OrderResponse order = new OrderResponse(orderService.getOrderById(firstOrderId).orElseThrow());
+            objectMapper.writeValueAsBytes(order);
+            assertEquals(ITEMS_PER_ORDER, order.getOrderItems().size());
+            queries.assertCount(1);
+        }
+    }
+
+    @Test
+    void latestOrdersLoadIdsThenOrders() throws Exception {
+        try (QueryCounter.Scope queries = QueryCounter.start()) {
+            List<OrderResponse> orders = orderService.getLatestOrders(10).stream()
+                    .map(OrderResponse::new)
+                    .toList();
+            objectMapper.writeValueAsBytes(orders);
+            assertEquals(10, orders.size());
+            assertEquals(firstOrderId, orders.get(0).getId());
+            queries.assertCount(2);
+        }
+    }
+
+    @Test
+    void adminOrderPageLoadsIdsCountThenOrders() throws Exception {
+        try (QueryCounter.Scope queries = QueryCounter.start()) {
+            Page<Order> page = orderService.getAllOrders(PageRequest.of(0, 10));
+            // The admin listing serializes the entities themselves
+            byte[] body = objectMapper.writeValueAsBytes(page.getContent());
+            assertEquals(10, page.getContent().size());
+            assertEquals(ORDERS, page.getTotalElements());
+            assertTrue(body.length > 0);
+            queries.assertCount(3);
+        }
+    }
+}
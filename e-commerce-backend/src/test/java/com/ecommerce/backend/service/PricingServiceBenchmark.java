@@ -0,0 +1,101 @@
+package com.ecommerce.backend.service;
+
+import com.ecommerce.backend.dto.OrderRequest;
+import com.ecommerce.backend.entity.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of server-side checkout pricing. {@code priceLine} reports the allocation-free line loop per
+ * priced line, against a catalog snapshot of {@code catalogSize} products; {@code priceCart} is a
+ * whole {@link PricingService#priceOrder} call, including the snapshot check and result arrays.
+ * Run with {@code -prof gc} to confirm the line loop allocates nothing.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PricingServiceBenchmark {
+
+    private static final int LINES = 1024;
+
+    @Param({"1000", "100000"})
+    public int catalogSize;
+
+    @Param({"10"})
+    public int cartSize;
+
+    private PricingService pricingService;
+
+    private CatalogPriceSnapshot.Prices prices;
+
+    private final long[] productIds = new long[LINES];
+
+    private final int[] quantities = new int[LINES];
+
+    private final long[] unitCents = new long[LINES];
+
+    private final long[] lineCents = new long[LINES];
+
+    private List<OrderRequest.OrderItemRequest> cart;
+
+    @Setup
+    public void setUp() {
+        List<Product> products = new ArrayList<>(catalogSize);
+        SplittableRandom random = new SplittableRandom(42);
+        for (long id = 1; id <= catalogSize; id++) {
+            Product product = new Product("Product " + id, random.nextInt(100, 100_000) / 100.0,
+                    null, "category", null, 4.0, 10);
+            product.setId(id);
+            products.add(product);
+        }
+        CatalogPriceSnapshot snapshot = new CatalogPriceSnapshot();
+        ReflectionTestUtils.setField(snapshot, "overlayMaxEntries", 256);
+        snapshot.putAll(products);
+        prices = snapshot.current();
+
+        pricingService = new PricingService();
+        ReflectionTestUtils.setField(pricingService, "catalogPriceSnapshot", snapshot);
+
+        for (int i = 0; i < LINES; i++) {
+            productIds[i] = random.nextLong(1, catalogSize + 1);
+            quantities[i] = random.nextInt(1, 5);
+        }
+        cart = new ArrayList<>(cartSize);
+        for (int i = 0; i < cartSize; i++) {
+            OrderRequest.OrderItemRequest item = new OrderRequest.OrderItemRequest();
+            item.setProductId(productIds[i]);
+            item.setQuantity(quantities[i]);
+            cart.add(item);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINES)
+    public long priceLine() {
+        return pricingService.priceLines(prices, productIds, quantities, unitCents, lineCents, LINES);
+    }
+
+    @Benchmark
+    public PricingService.PricedOrder priceCart() {
+        return pricingService.priceOrder(cart, null);
+    }
+}
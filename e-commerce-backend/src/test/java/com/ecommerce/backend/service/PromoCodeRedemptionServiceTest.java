@@ -0,0 +1,148 @@
+package com.ecommerce.backend.service;
+
+import com.ecommerce.backend.entity.PromoCode;
+import com.ecommerce.backend.entity.User;
+import com.ecommerce.backend.repository.PromoCodeRedemptionRepository;
+import com.ecommerce.backend.repository.PromoCodeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PromoCodeRedemptionServiceTest {
+
+    private static final String CODE = "FLASH";
+
+    private final PromoCodeRedemptionRepository redemptionRepository = mock(PromoCodeRedemptionRepository.class);
+
+    private final PromoCodeRegistry promoCodeRegistry = mock(PromoCodeRegistry.class);
+
+    private PromoCodeRedemptionService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new PromoCodeRedemptionService();
+        ReflectionTestUtils.setField(service, "redemptionRepository", redemptionRepository);
+        ReflectionTestUtils.setField(service, "promoCodeRepository", mock(PromoCodeRepository.class));
+        ReflectionTestUtils.setField(service, "promoCodeRegistry", promoCodeRegistry);
+        ReflectionTestUtils.setField(service, "userCounterIdleSeconds", 600L);
+        when(redemptionRepository.countByPromoCodeId(anyLong())).thenReturn(0L);
+        when(redemptionRepository.countByPromoCodeIdAndUserId(anyLong(), anyLong())).thenReturn(0L);
+    }
+
+    @Test
+    void concurrentReservationsNeverExceedTheGlobalCap() throws Exception {
+        promo(100, null);
+        List<PromoCodeRedemptionService.Reservation> granted = reserveConcurrently(32, 20, false);
+        assertEquals(100, granted.size());
+    }
+
+    @Test
+    void concurrentReservationsBySameUserNeverExceedThePerUserCap() throws Exception {
+        promo(null, 3);
+        List<PromoCodeRedemptionService.Reservation> granted = reserveConcurrently(16, 10, true);
+        assertEquals(3, granted.size());
+    }
+
+    @Test
+    void perUserLimitChangeKeepsInFlightHolds() {
+        promo(null, 2);
+        assertNotNull(service.reserve(CODE, user(1)));
+        assertNotNull(service.reserve(CODE, user(1)));
+
+        promo(null, 3);
+        service.reconcile();
+
+        assertNotNull(service.reserve(CODE, user(1)));
+        assertThrows(RuntimeException.class, () -> service.reserve(CODE, user(1)));
+    }
+
+    @Test
+    void globalLimitChangeCountsConfirmedAndInFlightReservations() {
+        promo(10, null);
+        List<PromoCodeRedemptionService.Reservation> held = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            held.add(service.reserve(CODE, user(i)));
+        }
+        // Committed after any count query reconcile might run, so only memory knows about them
+        held.get(0).confirm();
+        held.get(1).confirm();
+
+        promo(8, null);
+        service.reconcile();
+
+        assertNotNull(service.reserve(CODE, user(20)));
+        assertNotNull(service.reserve(CODE, user(21)));
+        assertThrows(RuntimeException.class, () -> service.reserve(CODE, user(22)));
+    }
+
+    @Test
+    void cancelledReservationsReturnTheirPermits() {
+        promo(1, 1);
+        service.reserve(CODE, user(1)).cancel();
+        assertNotNull(service.reserve(CODE, user(1)));
+    }
+
+    private List<PromoCodeRedemptionService.Reservation> reserveConcurrently(int threads, int attemptsPerThread,
+                                                                             boolean sameUser) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        ConcurrentLinkedQueue<PromoCodeRedemptionService.Reservation> granted = new ConcurrentLinkedQueue<>();
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < attemptsPerThread; i++) {
+                        User user = user(sameUser ? 1 : thread * attemptsPerThread + i);
+                        try {
+                            granted.add(service.reserve(CODE, user));
+                        } catch (RuntimeException e) {
+                            // Refused at a cap
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        return new ArrayList<>(granted);
+    }
+
+    private void promo(Integer maxRedemptions, Integer maxRedemptionsPerUser) {
+        PromoCode promoCode = new PromoCode();
+        promoCode.setId(7L);
+        promoCode.setCode(CODE);
+        promoCode.setMaxRedemptions(maxRedemptions);
+        promoCode.setMaxRedemptionsPerUser(maxRedemptionsPerUser);
+        when(promoCodeRegistry.find(CODE)).thenReturn(Optional.of(new PromoCodeRegistry.Entry(promoCode)));
+    }
+
+    private static User user(long id) {
+        User user = new User();
+        user.setId(id);
+        return user;
+    }
+}
@@ -82,7 +82,7 @@ const ProductCard = ({ product }) => {
             transition: 'transform 0.3s ease',
             '&:hover': { transform: 'scale(1.05)' }
           }}
-          image={product.image?.startsWith('/uploads/') ? `${UPLOAD_BASE_URL}${product.image}` : product.image}
+          image={product.image?.startsWith('/uploads/') ? `${UPLOAD_BASE_URL}${product.image}?size=card` : product.image}
           alt={product.title}
           onClick={handleClick}
         />
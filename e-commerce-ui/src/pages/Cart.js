@@ -179,7 +179,7 @@ const Cart = () => {
                   <CardMedia
                     component="img"
                     sx={{ width: 120, height: 120, objectFit: 'contain' }}
-                    image={item.product.image?.startsWith('/uploads/') ? `${UPLOAD_BASE_URL}${item.product.image}` : item.product.image}
+                    image={item.product.image?.startsWith('/uploads/') ? `${UPLOAD_BASE_URL}${item.product.image}?size=thumbnail` : item.product.image}
                     alt={item.product.title}
                   />
                   
@@ -283,7 +283,7 @@ const ProductDetails = () => {
                 bgcolor: 'white'
               }}>
                 <img
-                  src={product.image?.startsWith('/uploads/') ? `${UPLOAD_BASE_URL}${product.image}` : product.image}
+                  src={product.image?.startsWith('/uploads/') ? `${UPLOAD_BASE_URL}${product.image}?size=detail` : product.image}
                   alt={product.title}
                   style={{
                     maxWidth: '100%',
@@ -102,17 +102,16 @@ const Profile = () => {
     const file = e.target.files[0];
     if (!file) return;
 
-    const formData = new FormData();
-    formData.append('image', file);
-
     try {
       const token = localStorage.getItem('token');
+      // The image is sent as the raw body so the server can stream it straight to storage
       const response = await fetch(API_ENDPOINTS.USERS.PROFILE_IMAGE, {
-        method: 'POST',
+        method: 'PUT',
         headers: {
           'Authorization': `Bearer ${token}`,
+          'Content-Type': file.type || 'application/octet-stream',
         },
-        body: formData,
+        body: file,
       });
 
       const data = await response.json();
@@ -150,7 +149,7 @@ const Profile = () => {
           <CardContent sx={{ p: 4, textAlign: 'center' }}>
             <Box sx={{ position: 'relative', display: 'inline-block', mb: 2 }}>
               <Avatar
-                src={profile.profileImage ? `${UPLOAD_BASE_URL}${profile.profileImage}` : ''}
+                src={profile.profileImage ? `${UPLOAD_BASE_URL}${profile.profileImage}?size=thumbnail` : ''}
                 sx={{ 
                   width: 120, 
                   height: 120,